@@ -0,0 +1,152 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmark de carga en lazo cerrado para comparar el modo de hilos virtuales con el pool
+ * de workers. Ejecuta el mismo número de peticiones con la misma concurrencia y reporta
+ * throughput y latencias p50/p95/p99.
+ *
+ * <p>Uso (Java 21, sin compilar):</p>
+ * <pre>
+ * java benchmark/VirtualThreadBenchmark.java --url http://localhost:8080/api/invoices \
+ *      --concurrency 200 --requests 20000 --warmup 1000 --label worker-pool
+ *
+ * java benchmark/VirtualThreadBenchmark.java --url http://localhost:8080/api/ocr \
+ *      --method POST --file factura.jpg --content-type image/jpeg --label virtual-threads
+ * </pre>
+ * Para comparar, levantar el servicio con VIRTUAL_THREADS_ENABLED=false y luego con
+ * VIRTUAL_THREADS_ENABLED=true y repetir exactamente los mismos argumentos.
+ */
+public class VirtualThreadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        URI url = URI.create(required(options, "url"));
+        String method = options.getOrDefault("method", "GET").toUpperCase();
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "100"));
+        int requests = Integer.parseInt(options.getOrDefault("requests", "5000"));
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "500"));
+        String label = options.getOrDefault("label", "run");
+        String contentType = options.getOrDefault("content-type", "application/octet-stream");
+        byte[] body = options.containsKey("file") ? Files.readAllBytes(Path.of(options.get("file"))) : new byte[0];
+
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        System.out.printf("Calentando con %d peticiones...%n", warmup);
+        run(client, url, method, contentType, body, concurrency, warmup);
+
+        System.out.printf("Midiendo %d peticiones con concurrencia %d contra %s %s%n", requests, concurrency, method, url);
+        Result result = run(client, url, method, contentType, body, concurrency, requests);
+        result.print(label);
+    }
+
+    private static Result run(HttpClient client, URI url, String method, String contentType, byte[] body,
+                              int concurrency, int totalRequests) throws Exception {
+        AtomicInteger remaining = new AtomicInteger(totalRequests);
+        AtomicInteger errors = new AtomicInteger();
+        List<Future<long[]>> workers = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[totalRequests];
+                    int count = 0;
+                    while (remaining.getAndDecrement() > 0) {
+                        HttpRequest request = buildRequest(url, method, contentType, body);
+                        long requestStart = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies[count++] = System.nanoTime() - requestStart;
+                    }
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        List<long[]> perWorker = new ArrayList<>();
+        for (Future<long[]> worker : workers) {
+            perWorker.add(worker.get());
+        }
+        long[] all = perWorker.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get(), elapsed);
+    }
+
+    private static HttpRequest buildRequest(URI url, String method, String contentType, byte[] body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(url).timeout(Duration.ofMinutes(2));
+        if ("GET".equals(method)) {
+            return builder.GET().build();
+        }
+        return builder.header("Content-Type", contentType)
+                .method(method, HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+    }
+
+    private record Result(long[] sortedLatenciesNanos, int errors, long elapsedNanos) {
+
+        void print(String label) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            System.out.println("==========================================");
+            System.out.printf("Modo:        %s%n", label);
+            System.out.printf("Peticiones:  %d (errores: %d)%n", sortedLatenciesNanos.length, errors);
+            System.out.printf("Duración:    %.2f s%n", seconds);
+            System.out.printf("Throughput:  %.1f req/s%n", sortedLatenciesNanos.length / seconds);
+            System.out.printf("Latencia p50: %.1f ms%n", percentileMillis(50));
+            System.out.printf("Latencia p95: %.1f ms%n", percentileMillis(95));
+            System.out.printf("Latencia p99: %.1f ms%n", percentileMillis(99));
+            System.out.printf("Latencia max: %.1f ms%n", percentileMillis(100));
+            System.out.println("==========================================");
+        }
+
+        private double percentileMillis(double percentile) {
+            if (sortedLatenciesNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile / 100.0 * sortedLatenciesNanos.length) - 1;
+            return sortedLatenciesNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Argumento inválido: " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("Falta el argumento obligatorio --" + name);
+        }
+        return value;
+    }
+}
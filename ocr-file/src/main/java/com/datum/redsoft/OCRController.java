@@ -1,21 +1,45 @@
 package com.datum.redsoft;
 
+import com.datum.redsoft.dto.response.ErrorResponse;
 import com.datum.redsoft.dto.response.OCRAnalysisResponse;
+import com.datum.redsoft.dto.response.OCRBatchItemResponse;
+import com.datum.redsoft.dto.response.OCRJobResponse;
 import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.dto.response.OCRStreamEvent;
 import com.datum.redsoft.dto.response.InvoiceDataResponse;
 import com.datum.redsoft.dto.response.StatusResponse;
+import com.datum.redsoft.exception.ImageQualityException;
+import com.datum.redsoft.exception.PayloadTooLargeException;
 import com.datum.redsoft.exception.OCRException;
 import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.datum.redsoft.service.DocumentSpooler;
+import com.datum.redsoft.service.OCRBatchService;
+import com.datum.redsoft.service.OCRFileValidator;
+import com.datum.redsoft.service.OCRJobService;
+import com.datum.redsoft.service.OCRPipelineService;
+import com.datum.redsoft.service.preprocessing.ImageQualityGate;
 import com.datum.redsoft.service.interfaces.OCRService;
 import com.datum.redsoft.service.interfaces.InvoiceDataExtractionService;
 
+import io.smallrye.common.annotation.Blocking;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.jboss.resteasy.reactive.RestForm;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -40,11 +64,34 @@ public class OCRController {
     
     @Inject
     InvoiceDataExtractionService invoiceExtractionService;
+    
+    @Inject
+    OCRPipelineService pipelineService;
+    
+    @Inject
+    OCRJobService jobService;
+    
+    @Inject
+    OCRBatchService batchService;
+    
+    @Inject
+    OCRFileValidator fileValidator;
+    
+    @Inject
+    DocumentSpooler documentSpooler;
+    
+    @Inject
+    DependencyGuards dependencyGuards;
+    
+    @Inject
+    ImageQualityGate imageQualityGate;
 
     /**
      * Analiza una imagen o PDF de factura para extraer información estructurada.
      * <p>Coordina los servicios de OCR (extracción de texto) y de IA (análisis de datos),
      * retornando tanto el texto completo como los campos específicos de la factura.</p>
+     * <p>Las fotos borrosas, oscuras o con el texto demasiado pequeño se rechazan con 422
+     * antes de llamar a Azure ({@link ImageQualityGate}).</p>
      * 
      * @param fileStream Stream del archivo de imagen/PDF
      * @param contentType Tipo MIME del archivo (image/jpeg, image/png, application/pdf, etc.)
@@ -53,87 +100,271 @@ public class OCRController {
      * @throws InvoiceExtractionException si hay error en el análisis de IA
      * @throws IOException si hay error al leer el archivo
      * @throws IllegalArgumentException si el archivo o Content-Type son inválidos
+     * @throws ImageQualityException si la foto no alcanza la calidad mínima para el OCR
      * 
      * @apiNote POST /api/ocr
-     *          Acepta: image/jpeg, image/png, image/tiff, image/bmp, application/pdf
+     *          Acepta: image/jpeg, image/png, image/tiff, image/bmp, application/pdf,
+     *          application/json, application/xml (DTE)
      *          Produce: application/json
      */
     @POST
     @Path("/ocr")
-    @Consumes({"image/jpeg", "image/png", "image/tiff", "image/bmp", "application/pdf"})
+    @RunOnVirtualThread
+    @Consumes({"image/jpeg", "image/png", "image/tiff", "image/bmp", "application/pdf",
+               "application/json", "application/xml", "text/xml"})
     @Produces(MediaType.APPLICATION_JSON)
-    public OCRAnalysisResponse analyze(InputStream fileStream, @HeaderParam("Content-Type") String contentType) 
+    public OCRAnalysisResponse analyze(InputStream fileStream, @HeaderParam("Content-Type") String contentType,
+                                       @HeaderParam("Content-Length") Long contentLength) 
             throws OCRException, InvoiceExtractionException, IOException {
         
         logger.info("=== INICIO OCR REQUEST ===");
         logger.info("Content-Type recibido: " + contentType);
         
         validateInput(fileStream, contentType);
-        byte[] imageData = inputStreamToByteArray(fileStream);
-        validateFileData(imageData);
-
-        logger.info("Tamaño del archivo: " + imageData.length + " bytes");
         
-        long startTime = System.currentTimeMillis();
+        try (OCRDocument document = documentSpooler.spool(fileStream, resolveContentType(contentType), contentLength)) {
+            logger.info("Tamaño del archivo: " + document.getSize() + " bytes");
+            imageQualityGate.check(document);
+            
+            OCRAnalysisResponse response = pipelineService.analyze(document);
+            
+            logger.info("=== FIN OCR REQUEST ===");
+            return response;
+        }
+    }
+    
+    /**
+     * Analiza una factura sin bloquear hilos, usando los clientes asíncronos de Azure y
+     * Hugging Face.
+     * <p>Se ejecuta en el event loop: el cuerpo llega ya leído en memoria (acotado por
+     * {@code quarkus.http.limits.max-body-size}) y las esperas de red no ocupan hilos de
+     * trabajo.</p>
+     * <p>No tiene paridad con {@code POST /api/ocr}, y es intencionado: es la vía mínima
+     * no bloqueante (control de calidad de la foto, OCR de Azure, reglas y LLM asíncrono) y
+     * el endpoint principal sigue en el pipeline bloqueante sobre hilos virtuales. Frente a
+     * {@code POST /api/ocr}, aquí:</p>
+     * <ul>
+     *   <li>el archivo no se copia a disco;</li>
+     *   <li>no se consultan la caché de resultados OCR ni la capa de texto de los PDF;</li>
+     *   <li>no se aplica el pre-procesamiento de fotos (tampoco el modo progresivo);</li>
+     *   <li>no se decodifican QR ni DTE;</li>
+     *   <li>no se analizan por rangos ni por subconjunto de páginas los documentos largos;</li>
+     *   <li>no se repite el OCR con otro modelo cuando la calidad del texto es baja.</li>
+     * </ul>
+     * <p>Los clientes que necesiten esas etapas deben usar {@code POST /api/ocr}.</p>
+     * 
+     * @param fileData Contenido del archivo de imagen/PDF
+     * @param contentType Tipo MIME del archivo
+     * @return Uni con OCRAnalysisResponse (texto, datos estructurados y tiempos por etapa)
+     * @throws IllegalArgumentException si el archivo o Content-Type son inválidos
+     * 
+     * @apiNote POST /api/ocr/reactive
+     *          Acepta: image/jpeg, image/png, image/tiff, image/bmp, application/pdf
+     *          Produce: application/json
+     */
+    @POST
+    @Path("/ocr/reactive")
+    @Consumes({"image/jpeg", "image/png", "image/tiff", "image/bmp", "application/pdf"})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Uni<OCRAnalysisResponse> analyzeReactive(byte[] fileData, @HeaderParam("Content-Type") String contentType) {
+        if (fileData == null) {
+            throw new IllegalArgumentException("No se recibió archivo");
+        }
+        if (contentType != null && !contentType.isEmpty()) {
+            fileValidator.validateContentType(contentType);
+        }
+        fileValidator.validateFileData(fileData);
         
-        String extractedText = ocrService.extractTextFromImage(imageData);
-        logger.info("Texto extraído exitosamente. Longitud: " + extractedText.length());
+        logger.info("OCR reactivo, tamaño del archivo: " + fileData.length + " bytes");
+        // Decodificar la foto es trabajo de CPU: el control de calidad no corre en el event loop
+        return Uni.createFrom().item(fileData)
+                .invoke(imageQualityGate::check)
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool())
+                .chain(pipelineService::analyzeReactive);
+    }
+    
+    /**
+     * Analiza una factura y envía el resultado como Server-Sent Events a medida que está
+     * disponible: primero el texto OCR y luego cada campo en cuanto el LLM lo genera.
+     * <p>La pantalla de revisión puede mostrar el texto y los campos sin esperar a que
+     * termine la respuesta completa del modelo.</p>
+     * 
+     * @param fileStream Stream del archivo de imagen/PDF
+     * @param contentType Tipo MIME del archivo
+     * @return Stream SSE de OCRStreamEvent ({@code ocr_text}, {@code field}, {@code complete} o {@code error})
+     * @throws OCRException si hay error en la extracción de texto
+     * @throws IOException si hay error al leer el archivo
+     * @throws IllegalArgumentException si el archivo o Content-Type son inválidos
+     * 
+     * @apiNote POST /api/ocr/stream
+     *          Acepta: image/jpeg, image/png, image/tiff, image/bmp, application/pdf,
+     *          application/json, application/xml (DTE)
+     *          Produce: text/event-stream
+     */
+    @POST
+    @Path("/ocr/stream")
+    @Blocking
+    @Consumes({"image/jpeg", "image/png", "image/tiff", "image/bmp", "application/pdf",
+               "application/json", "application/xml", "text/xml"})
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<OCRStreamEvent> analyzeStream(InputStream fileStream, @HeaderParam("Content-Type") String contentType,
+                                               @HeaderParam("Content-Length") Long contentLength)
+            throws OCRException, IOException {
         
-        OCRResponseDTO invoiceData = invoiceExtractionService.extractBasicInvoiceData(extractedText);
-        logger.info("Datos de factura extraídos exitosamente");
+        validateInput(fileStream, contentType);
         
-        long processingTime = System.currentTimeMillis() - startTime;
+        try (OCRDocument document = documentSpooler.spool(fileStream, resolveContentType(contentType), contentLength)) {
+            logger.info("OCR en streaming, tamaño del archivo: " + document.getSize() + " bytes");
+            imageQualityGate.check(document);
+            return pipelineService.analyzeStreaming(document);
+        }
+    }
+    
+    /**
+     * Encola una imagen o PDF de factura para su análisis asíncrono.
+     * <p>Valida el archivo y responde de inmediato con el identificador del trabajo;
+     * el OCR y la extracción con IA se ejecutan en un executor acotado. Si la cola está
+     * llena responde 503 con cabecera Retry-After.</p>
+     * 
+     * @param fileStream Stream del archivo de imagen/PDF
+     * @param contentType Tipo MIME del archivo
+     * @return 202 Accepted con el estado inicial del trabajo y cabecera Location para polling
+     * @throws IOException si hay error al leer el archivo
+     * @throws IllegalArgumentException si el archivo o Content-Type son inválidos
+     * 
+     * @apiNote POST /api/ocr/jobs
+     *          Acepta: image/jpeg, image/png, image/tiff, image/bmp, application/pdf,
+     *          application/json, application/xml (DTE)
+     *          Produce: application/json
+     */
+    @POST
+    @Path("/ocr/jobs")
+    @RunOnVirtualThread
+    @Consumes({"image/jpeg", "image/png", "image/tiff", "image/bmp", "application/pdf",
+               "application/json", "application/xml", "text/xml"})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response submitJob(InputStream fileStream, @HeaderParam("Content-Type") String contentType,
+                              @HeaderParam("Content-Length") Long contentLength) 
+            throws IOException {
         
-        OCRAnalysisResponse response = new OCRAnalysisResponse(
-            extractedText,
-            invoiceData,
-            processingTime
-        );
+        validateInput(fileStream, contentType);
+        OCRDocument document = documentSpooler.spool(fileStream, resolveContentType(contentType), contentLength);
+        try {
+            imageQualityGate.check(document);
+        } catch (ImageQualityException e) {
+            document.close();
+            throw e;
+        }
+        // La foto decodificada no debe ocupar el heap mientras el trabajo espera en cola
+        document.releaseDecodedImage();
         
-        logger.info("=== FIN OCR REQUEST ===");
-        return response;
+        OCRJobResponse job = jobService.submit(document);
+        
+        return Response.accepted(job)
+                .location(URI.create("/api/ocr/jobs/" + job.getJobId()))
+                .build();
+    }
+    
+    /**
+     * Consulta el estado de un trabajo OCR asíncrono.
+     * 
+     * @param jobId Identificador devuelto por POST /api/ocr/jobs
+     * @return Estado del trabajo con desglose de tiempos por etapa y, si terminó, su resultado
+     * 
+     * @apiNote GET /api/ocr/jobs/{id}
+     */
+    @GET
+    @Path("/ocr/jobs/{id}")
+    @RunOnVirtualThread
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getJob(@PathParam("id") String jobId) {
+        return jobService.getJob(jobId)
+                .map(job -> Response.ok(job).build())
+                .orElseGet(() -> Response.status(Response.Status.NOT_FOUND)
+                        .entity(new ErrorResponse("JOB_NOT_FOUND", "Trabajo OCR no encontrado o expirado", jobId))
+                        .build());
+    }
+    
+    /**
+     * Analiza en paralelo todas las facturas contenidas en un archivo ZIP.
+     * <p>Las entradas se leen en streaming y cada archivo se procesa (OCR + IA) con un
+     * paralelismo acotado por lote y global. Cada resultado se devuelve como una línea
+     * NDJSON en cuanto termina, sin esperar al resto del lote. Si el ZIP no se puede leer, o
+     * supera {@code ocr.batch.max-files} u {@code ocr.batch.max-total-size-mb} a mitad de
+     * lectura, se cancelan los archivos en vuelo y el stream termina con ese error.</p>
+     * 
+     * @param zipStream Stream del archivo ZIP con imágenes/PDFs
+     * @return Stream NDJSON con un OCRBatchItemResponse por archivo
+     * 
+     * @apiNote POST /api/ocr/batch
+     *          Acepta: application/zip
+     *          Produce: application/x-ndjson
+     */
+    @POST
+    @Path("/ocr/batch")
+    @Blocking
+    @Consumes({"application/zip", "application/x-zip-compressed"})
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<OCRBatchItemResponse> analyzeZipBatch(InputStream zipStream) {
+        if (zipStream == null) {
+            throw new IllegalArgumentException("No se recibió archivo");
+        }
+        return batchService.processZip(zipStream);
+    }
+    
+    /**
+     * Analiza en paralelo varias facturas enviadas en una petición multipart.
+     * 
+     * @param files Archivos de imagen/PDF enviados en el campo {@code files}
+     * @return Stream NDJSON con un OCRBatchItemResponse por archivo
+     * @throws IllegalArgumentException (400) si el lote supera {@code ocr.batch.max-files}
+     * @throws PayloadTooLargeException (413) si la suma de los archivos supera {@code ocr.batch.max-total-size-mb}
+     * 
+     * @apiNote POST /api/ocr/batch
+     *          Acepta: multipart/form-data (campo "files", repetible)
+     *          Produce: application/x-ndjson
+     */
+    @POST
+    @Path("/ocr/batch")
+    @Blocking
+    @Consumes(MediaType.MULTIPART_FORM_DATA)
+    @Produces("application/x-ndjson")
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<OCRBatchItemResponse> analyzeMultipartBatch(@RestForm("files") List<FileUpload> files) {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No se recibieron archivos");
+        }
+        return batchService.processFiles(files);
     }
     
     /**
      * Verifica el estado de salud de los servicios OCR y de extracción.
+     * <p>Incluye el estado del circuit breaker y el límite de concurrencia de Azure y de
+     * Hugging Face; con algún circuito abierto el estado es "degraded".</p>
      * 
-     * @return StatusResponse con disponibilidad de cada servicio y método de extracción
+     * @return StatusResponse con disponibilidad de cada servicio, método de extracción y estado de las dependencias
      * @apiNote GET /api/status
      */
     @GET
     @Path("/status")
+    @RunOnVirtualThread
     @Produces(MediaType.APPLICATION_JSON)
     public StatusResponse getStatus() {
         boolean ocrAvailable = ocrService.isServiceAvailable();
         boolean extractionAvailable = invoiceExtractionService.isServiceAvailable();
         
-        String status = (ocrAvailable && extractionAvailable) ? "healthy" : "degraded";
+        String status = (ocrAvailable && extractionAvailable && !dependencyGuards.isAnyOpen()) ? "healthy" : "degraded";
         
-        return new StatusResponse(
+        StatusResponse response = new StatusResponse(
             status,
             ocrAvailable,
             extractionAvailable,
             invoiceExtractionService.getExtractionMethod()
         );
-    }
-    
-    /**
-     * Convierte un InputStream a array de bytes para procesamiento.
-     * 
-     * @param inputStream Stream de entrada del archivo
-     * @return Array de bytes del contenido completo
-     * @throws IOException si hay error al leer el stream
-     */
-    private byte[] inputStreamToByteArray(InputStream inputStream) throws IOException {
-        ByteArrayOutputStream baos = new ByteArrayOutputStream();
-        byte[] buffer = new byte[8192];
-        int bytesRead;
-        
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            baos.write(buffer, 0, bytesRead);
-        }
-        
-        return baos.toByteArray();
+        response.setDependencies(dependencyGuards.getStatus());
+        return response;
     }
     
     /**
@@ -151,54 +382,14 @@ public class OCRController {
         if (contentType == null || contentType.isEmpty()) {
             logger.warning("Content-Type no especificado, asumiendo image/jpeg");
         } else {
-            validateContentType(contentType);
-        }
-    }
-    
-    /**
-     * Valida que el Content-Type esté en la lista de tipos soportados.
-     * 
-     * @param contentType Tipo MIME a validar
-     * @throws IllegalArgumentException si el tipo no es soportado
-     */
-    private void validateContentType(String contentType) {
-        String[] allowedTypes = {
-            "image/jpeg", "image/png", "image/tiff", "image/bmp", 
-            "application/pdf"
-        };
-        
-        boolean isValid = false;
-        for (String allowedType : allowedTypes) {
-            if (contentType.toLowerCase().contains(allowedType.toLowerCase())) {
-                isValid = true;
-                break;
-            }
-        }
-        
-        if (!isValid) {
-            throw new IllegalArgumentException("Tipo de archivo no soportado: " + contentType);
+            fileValidator.validateContentType(contentType);
         }
     }
     
     /**
-     * Valida el tamaño del archivo para asegurar que esté dentro de los límites aceptables.
-     * 
-     * @param imageData Datos del archivo en bytes
-     * @throws IllegalArgumentException si el archivo está vacío, es muy pequeño (&lt;1KB) o muy grande (&gt;10MB)
+     * Normaliza el Content-Type recibido, asumiendo image/jpeg si no se especificó.
      */
-    private void validateFileData(byte[] imageData) {
-        if (imageData.length == 0) {
-            throw new IllegalArgumentException("El archivo está vacío");
-        }
-        
-        final int MAX_FILE_SIZE = 10 * 1024 * 1024;
-        if (imageData.length > MAX_FILE_SIZE) {
-            throw new IllegalArgumentException("El archivo es demasiado grande. Máximo permitido: 10MB");
-        }
-        
-        final int MIN_FILE_SIZE = 1024;
-        if (imageData.length < MIN_FILE_SIZE) {
-            throw new IllegalArgumentException("El archivo es demasiado pequeño. Mínimo requerido: 1KB");
-        }
+    private String resolveContentType(String contentType) {
+        return (contentType == null || contentType.isEmpty()) ? "image/jpeg" : contentType;
     }
 }
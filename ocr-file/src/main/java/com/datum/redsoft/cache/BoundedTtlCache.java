@@ -0,0 +1,104 @@
+package com.datum.redsoft.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caché en memoria acotada por número de entradas y por tiempo de vida.
+ * <p>Usa un {@link LinkedHashMap} en orden de acceso: al superar el máximo se descarta
+ * la entrada menos usada recientemente (LRU) y las entradas vencidas se descartan al
+ * leerlas o al insertar nuevas.</p>
+ *
+ * @param <K> tipo de la clave
+ * @param <V> tipo del valor almacenado
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final AtomicLong evictions = new AtomicLong();
+    private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+    public BoundedTtlCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+                boolean evict = size() > BoundedTtlCache.this.maxEntries;
+                if (evict) {
+                    evictions.incrementAndGet();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * Obtiene un valor si existe y no ha vencido.
+     */
+    public synchronized Optional<V> get(K key) {
+        CacheEntry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key);
+            evictions.incrementAndGet();
+            return Optional.empty();
+        }
+        return Optional.of(entry.value);
+    }
+
+    /**
+     * Almacena un valor, descartando entradas vencidas y la menos usada si se supera el máximo.
+     */
+    public synchronized void put(K key, V value) {
+        purgeExpired();
+        entries.put(key, new CacheEntry<>(value, System.currentTimeMillis() + ttlMillis));
+    }
+
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<CacheEntry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().isExpired(now)) {
+                iterator.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private static final class CacheEntry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private CacheEntry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+    }
+}
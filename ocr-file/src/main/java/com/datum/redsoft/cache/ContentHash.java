@@ -0,0 +1,38 @@
+package com.datum.redsoft.cache;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Utilidades para calcular la huella SHA-256 del contenido usada como clave de caché.
+ */
+public final class ContentHash {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private ContentHash() {
+    }
+
+    /**
+     * Crea un nuevo digest SHA-256 (los digests no son thread-safe, se crea uno por uso)
+     */
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible en la JVM", e);
+        }
+    }
+
+    /**
+     * Calcula el SHA-256 del contenido y lo devuelve en hexadecimal
+     */
+    public static String sha256Hex(byte[] content) {
+        return toHex(newDigest().digest(content));
+    }
+
+    public static String toHex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+}
@@ -0,0 +1,108 @@
+package com.datum.redsoft.cache;
+
+import com.datum.redsoft.config.ExtractionCacheConfig;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Caché de extracciones de facturas realizadas por el LLM.
+ * <p>La clave combina el modelo, la versión del prompt y el SHA-256 del texto OCR
+ * normalizado con {@link OCRTextNormalizer}. Cuando cambia {@code huggingface.model}
+ * la caché completa se invalida, ya que las respuestas de otro modelo no son
+ * intercambiables.</p>
+ */
+@ApplicationScoped
+public class ExtractionResultCache {
+
+    private static final Logger logger = Logger.getLogger(ExtractionResultCache.class.getName());
+
+    @Inject
+    ExtractionCacheConfig cacheConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<String, OCRResponseDTO> cache;
+
+    private volatile String currentModel;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedTtlCache<>(
+            cacheConfig.getMaxEntries(),
+            TimeUnit.MINUTES.toMillis(cacheConfig.getTtlMinutes())
+        );
+        Gauge.builder("extraction.cache.size", cache, BoundedTtlCache::size)
+                .description("Entradas en la caché de extracciones con IA")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Busca una extracción previa para un texto OCR equivalente.
+     *
+     * @return copia de la extracción almacenada, vacía si no existe o la caché está deshabilitada
+     */
+    public Optional<OCRResponseDTO> get(String model, String promptVersion, String ocrText) {
+        if (!cacheConfig.isEnabled()) {
+            return Optional.empty();
+        }
+        invalidateIfModelChanged(model);
+
+        Optional<OCRResponseDTO> cached = cache.get(keyFor(model, promptVersion, ocrText));
+        meterRegistry.counter("extraction.cache.requests", "result", cached.isPresent() ? "hit" : "miss").increment();
+        return cached.map(ExtractionResultCache::copyOf);
+    }
+
+    /**
+     * Almacena una extracción válida del LLM.
+     */
+    public void put(String model, String promptVersion, String ocrText, OCRResponseDTO extraction) {
+        if (!cacheConfig.isEnabled()) {
+            return;
+        }
+        invalidateIfModelChanged(model);
+        cache.put(keyFor(model, promptVersion, ocrText), copyOf(extraction));
+    }
+
+    private void invalidateIfModelChanged(String model) {
+        if (model.equals(currentModel)) {
+            return;
+        }
+        synchronized (this) {
+            if (!model.equals(currentModel)) {
+                if (currentModel != null) {
+                    logger.info("Modelo cambió de " + currentModel + " a " + model + ", invalidando caché de extracciones");
+                }
+                cache.clear();
+                currentModel = model;
+            }
+        }
+    }
+
+    private static String keyFor(String model, String promptVersion, String ocrText) {
+        byte[] normalized = OCRTextNormalizer.normalize(ocrText).getBytes(StandardCharsets.UTF_8);
+        return model + "|" + promptVersion + "|" + ContentHash.sha256Hex(normalized);
+    }
+
+    /**
+     * Los DTO son mutables: se almacenan y entregan copias para que los consumidores
+     * no alteren la entrada compartida.
+     */
+    private static OCRResponseDTO copyOf(OCRResponseDTO source) {
+        return new OCRResponseDTO(
+            source.getVendorName(),
+            source.getInvoiceDate(),
+            source.getTotalAmount(),
+            source.getCurrency()
+        );
+    }
+}
@@ -0,0 +1,58 @@
+package com.datum.redsoft.cache;
+
+import com.datum.redsoft.config.OCRCacheConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.arc.DefaultBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Almacén de resultados OCR en memoria del proceso, acotado por tamaño y TTL.
+ * <p>Es el almacén por defecto: cualquier otro bean {@link OCRResultStore} lo reemplaza.</p>
+ */
+@DefaultBean
+@ApplicationScoped
+public class InMemoryOCRResultStore implements OCRResultStore {
+
+    @Inject
+    OCRCacheConfig cacheConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<String, String> cache;
+
+    @PostConstruct
+    void init() {
+        cache = new BoundedTtlCache<>(
+            cacheConfig.getMaxEntries(),
+            TimeUnit.MINUTES.toMillis(cacheConfig.getTtlMinutes())
+        );
+        Gauge.builder("ocr.cache.size", cache, BoundedTtlCache::size)
+                .description("Entradas en la caché de resultados OCR")
+                .register(meterRegistry);
+        Gauge.builder("ocr.cache.evictions", cache, BoundedTtlCache::getEvictionCount)
+                .description("Entradas descartadas por tamaño o TTL")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<String> get(String fileHash) {
+        return cache.get(fileHash);
+    }
+
+    @Override
+    public void put(String fileHash, String extractedText) {
+        cache.put(fileHash, extractedText);
+    }
+
+    @Override
+    public long size() {
+        return cache.size();
+    }
+}
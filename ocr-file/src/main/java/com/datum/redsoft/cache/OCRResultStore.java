@@ -0,0 +1,34 @@
+package com.datum.redsoft.cache;
+
+import java.util.Optional;
+
+/**
+ * Almacén de resultados OCR indexado por el hash SHA-256 del archivo original.
+ * <p>La implementación por defecto vive en memoria del proceso; en despliegues con
+ * varios nodos se puede registrar otro bean de este tipo respaldado por un almacén
+ * compartido (Redis, Infinispan, base de datos) y reemplazará automáticamente al
+ * almacén en memoria.</p>
+ */
+public interface OCRResultStore {
+
+    /**
+     * Obtiene el texto OCR almacenado para un archivo
+     *
+     * @param fileHash hash SHA-256 (hexadecimal) del archivo
+     * @return texto extraído previamente, vacío si no existe o expiró
+     */
+    Optional<String> get(String fileHash);
+
+    /**
+     * Almacena el texto OCR de un archivo
+     *
+     * @param fileHash hash SHA-256 (hexadecimal) del archivo
+     * @param extractedText texto extraído por el servicio OCR
+     */
+    void put(String fileHash, String extractedText);
+
+    /**
+     * Número de entradas almacenadas, o -1 si el almacén no puede calcularlo
+     */
+    long size();
+}
@@ -0,0 +1,49 @@
+package com.datum.redsoft.cache;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normaliza texto OCR para detectar recibos equivalentes.
+ * <p>Dos escaneos del mismo recibo suelen diferir solo en espacios, saltos de línea,
+ * mayúsculas o en tokens que cambian en cada reimpresión: la fecha y hora de impresión y
+ * el contador de copias. Solo se eliminan esos tokens cuando llevan su etiqueta
+ * ("Impreso:", "Reimpresión N° 2"); fechas, horas y números sueltos se conservan porque
+ * pueden ser la fecha de emisión, el número de factura o el total.</p>
+ */
+public final class OCRTextNormalizer {
+
+    /** Fecha y hora de impresión con su etiqueta: "Impreso: 12/03/2024 10:32", "Fecha de impresión 10:32 PM" */
+    private static final Pattern PRINT_TIMESTAMP = Pattern.compile(
+            "\\b(?:(?:fecha|hora)\\s+(?:y\\s+hora\\s+)?de\\s+impresi[oó]n|impreso(?:\\s+el)?|printed(?:\\s+(?:at|on))?)"
+                    + "\\s*:?\\s*[\\d/.:-]+(?:\\s+\\d{1,2}:\\d{2}(?::\\d{2})?)?(?:\\s?[ap]\\.?\\s?m\\b\\.?)?",
+            Pattern.CASE_INSENSITIVE);
+
+    /** Contador de reimpresiones o copias con su etiqueta: "Reimpresión N° 3", "Copia #2" */
+    private static final Pattern REPRINT_COUNTER = Pattern.compile(
+            "\\b(?:reimpresi[oó]n|copia|duplicado)\\s*(?:n[°ºo]?\\.?|#)?\\s*:?\\s*\\d+\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    /** Marcas de copia o reimpresión */
+    private static final Pattern REPRINT_MARKERS =
+            Pattern.compile("\\b(reimpresi[oó]n|copia|duplicado|original)\\b", Pattern.CASE_INSENSITIVE);
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private OCRTextNormalizer() {
+    }
+
+    /**
+     * Devuelve la forma canónica del texto usada para calcular la clave de caché
+     */
+    public static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = PRINT_TIMESTAMP.matcher(text).replaceAll(" ");
+        normalized = REPRINT_COUNTER.matcher(normalized).replaceAll(" ");
+        normalized = REPRINT_MARKERS.matcher(normalized).replaceAll(" ");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return normalized.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -24,6 +24,18 @@ public class AzureConfig {
                    defaultValue = "30")
     private Integer timeoutSeconds;
     
+    @ConfigProperty(name = "azure.document-intelligence.connect-timeout-seconds", 
+                   defaultValue = "10")
+    private Integer connectTimeoutSeconds;
+    
+    @ConfigProperty(name = "azure.document-intelligence.max-connections", 
+                   defaultValue = "32")
+    private Integer maxConnections;
+    
+    @ConfigProperty(name = "azure.document-intelligence.warm-up", 
+                   defaultValue = "true")
+    private Boolean warmUp;
+    
     @ConfigProperty(name = "azure.document-intelligence.retry.max-attempts", 
                    defaultValue = "3")
     private Integer maxRetryAttempts;
@@ -49,6 +61,18 @@ public class AzureConfig {
         return timeoutSeconds;
     }
 
+    public Integer getConnectTimeoutSeconds() {
+        return connectTimeoutSeconds;
+    }
+
+    public Integer getMaxConnections() {
+        return maxConnections;
+    }
+
+    public Boolean isWarmUp() {
+        return warmUp;
+    }
+
     public Integer getMaxRetryAttempts() {
         return maxRetryAttempts;
     }
@@ -74,6 +98,9 @@ public class AzureConfig {
                 ", apiKey='***HIDDEN***'" +
                 ", model='" + model + '\'' +
                 ", timeoutSeconds=" + timeoutSeconds +
+                ", connectTimeoutSeconds=" + connectTimeoutSeconds +
+                ", maxConnections=" + maxConnections +
+                ", warmUp=" + warmUp +
                 ", maxRetryAttempts=" + maxRetryAttempts +
                 ", retryDelayMs=" + retryDelayMs +
                 '}';
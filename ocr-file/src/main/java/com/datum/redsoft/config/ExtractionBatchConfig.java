@@ -0,0 +1,73 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la extracción agrupada con el LLM en los lotes OCR
+ * Varios textos OCR viajan en una sola chat completion, dentro del presupuesto de tokens
+ */
+@ApplicationScoped
+public class ExtractionBatchConfig {
+
+    @ConfigProperty(name = "extraction.batch.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "extraction.batch.max-items",
+                   defaultValue = "8")
+    private Integer maxItems;
+
+    @ConfigProperty(name = "extraction.batch.max-wait-ms",
+                   defaultValue = "200")
+    private Long maxWaitMs;
+
+    @ConfigProperty(name = "extraction.batch.max-prompt-tokens",
+                   defaultValue = "6000")
+    private Integer maxPromptTokens;
+
+    @ConfigProperty(name = "extraction.batch.output-tokens-per-item",
+                   defaultValue = "80")
+    private Integer outputTokensPerItem;
+
+    @ConfigProperty(name = "extraction.batch.max-concurrent-requests",
+                   defaultValue = "2")
+    private Integer maxConcurrentRequests;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getMaxItems() {
+        return maxItems;
+    }
+
+    public Long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public Integer getMaxPromptTokens() {
+        return maxPromptTokens;
+    }
+
+    public Integer getOutputTokensPerItem() {
+        return outputTokensPerItem;
+    }
+
+    public Integer getMaxConcurrentRequests() {
+        return maxConcurrentRequests;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionBatchConfig{" +
+                "enabled=" + enabled +
+                ", maxItems=" + maxItems +
+                ", maxWaitMs=" + maxWaitMs +
+                ", maxPromptTokens=" + maxPromptTokens +
+                ", outputTokensPerItem=" + outputTokensPerItem +
+                ", maxConcurrentRequests=" + maxConcurrentRequests +
+                '}';
+    }
+}
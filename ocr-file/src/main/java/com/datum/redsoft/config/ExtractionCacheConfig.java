@@ -0,0 +1,46 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la caché de extracciones con IA
+ * Controla la reutilización de respuestas del LLM para textos OCR equivalentes
+ */
+@ApplicationScoped
+public class ExtractionCacheConfig {
+
+    @ConfigProperty(name = "extraction.cache.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "extraction.cache.max-entries",
+                   defaultValue = "1000")
+    private Integer maxEntries;
+
+    @ConfigProperty(name = "extraction.cache.ttl-minutes",
+                   defaultValue = "120")
+    private Integer ttlMinutes;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Integer getTtlMinutes() {
+        return ttlMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionCacheConfig{" +
+                "enabled=" + enabled +
+                ", maxEntries=" + maxEntries +
+                ", ttlMinutes=" + ttlMinutes +
+                '}';
+    }
+}
@@ -0,0 +1,96 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Optional;
+
+/**
+ * Configuración de las peticiones de respaldo (hedging) al LLM
+ * Define el modelo secundario, el percentil de latencia que dispara el respaldo y el presupuesto de carga extra
+ */
+@ApplicationScoped
+public class ExtractionHedgingConfig {
+
+    @ConfigProperty(name = "extraction.hedging.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    /**
+     * Modelo o proveedor del router para la petición de respaldo (p. ej. {@code modelo:proveedor});
+     * si no se configura se repite con {@code huggingface.model}
+     */
+    @ConfigProperty(name = "extraction.hedging.secondary-model")
+    private Optional<String> secondaryModel;
+
+    @ConfigProperty(name = "extraction.hedging.percentile",
+                   defaultValue = "0.9")
+    private Double percentile;
+
+    @ConfigProperty(name = "extraction.hedging.initial-delay-ms",
+                   defaultValue = "3000")
+    private Long initialDelayMs;
+
+    @ConfigProperty(name = "extraction.hedging.min-delay-ms",
+                   defaultValue = "500")
+    private Long minDelayMs;
+
+    @ConfigProperty(name = "extraction.hedging.min-samples",
+                   defaultValue = "20")
+    private Integer minSamples;
+
+    @ConfigProperty(name = "extraction.hedging.budget-ratio",
+                   defaultValue = "0.1")
+    private Double budgetRatio;
+
+    @ConfigProperty(name = "extraction.hedging.budget-burst",
+                   defaultValue = "3")
+    private Integer budgetBurst;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<String> getSecondaryModel() {
+        return secondaryModel.filter(model -> !model.isBlank());
+    }
+
+    public Double getPercentile() {
+        return percentile;
+    }
+
+    public Long getInitialDelayMs() {
+        return initialDelayMs;
+    }
+
+    public Long getMinDelayMs() {
+        return minDelayMs;
+    }
+
+    public Integer getMinSamples() {
+        return minSamples;
+    }
+
+    public Double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public Integer getBudgetBurst() {
+        return budgetBurst;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionHedgingConfig{" +
+                "enabled=" + enabled +
+                ", secondaryModel='" + secondaryModel.orElse("") + '\'' +
+                ", percentile=" + percentile +
+                ", initialDelayMs=" + initialDelayMs +
+                ", minDelayMs=" + minDelayMs +
+                ", minSamples=" + minSamples +
+                ", budgetRatio=" + budgetRatio +
+                ", budgetBurst=" + budgetBurst +
+                '}';
+    }
+}
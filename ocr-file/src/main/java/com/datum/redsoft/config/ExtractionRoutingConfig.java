@@ -0,0 +1,103 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.Optional;
+
+/**
+ * Configuración del enrutamiento entre el extractor por reglas y el LLM
+ * El LLM solo se llama cuando la confianza del extractor por reglas queda bajo el umbral
+ * La calidad del texto OCR (confianza de las palabras según Azure) ajusta ese umbral o evita el LLM
+ */
+@ApplicationScoped
+public class ExtractionRoutingConfig {
+
+    @ConfigProperty(name = "extraction.rules.enabled",
+                   defaultValue = "true")
+    private Boolean rulesEnabled;
+
+    @ConfigProperty(name = "extraction.rules.confidence-threshold",
+                   defaultValue = "0.8")
+    private Double confidenceThreshold;
+
+    @ConfigProperty(name = "extraction.rules.default-currency",
+                   defaultValue = "USD")
+    private String defaultCurrency;
+
+    @ConfigProperty(name = "extraction.quality.enabled",
+                   defaultValue = "true")
+    private Boolean qualityEnabled;
+
+    @ConfigProperty(name = "extraction.quality.high-score",
+                   defaultValue = "0.95")
+    private Double highQualityScore;
+
+    @ConfigProperty(name = "extraction.quality.high-rules-threshold",
+                   defaultValue = "0.6")
+    private Double highQualityRulesThreshold;
+
+    @ConfigProperty(name = "extraction.quality.low-score",
+                   defaultValue = "0.6")
+    private Double lowQualityScore;
+
+    @ConfigProperty(name = "extraction.quality.retry-model",
+                   defaultValue = "prebuilt-layout")
+    private Optional<String> qualityRetryModel;
+
+    // Getters
+    public Boolean isRulesEnabled() {
+        return rulesEnabled;
+    }
+
+    public Double getConfidenceThreshold() {
+        return confidenceThreshold;
+    }
+
+    public String getDefaultCurrency() {
+        return defaultCurrency;
+    }
+
+    public Boolean isQualityEnabled() {
+        return qualityEnabled;
+    }
+
+    /**
+     * Calidad OCR desde la que el texto se considera fiable y basta {@link #getHighQualityRulesThreshold()}
+     */
+    public Double getHighQualityScore() {
+        return highQualityScore;
+    }
+
+    public Double getHighQualityRulesThreshold() {
+        return highQualityRulesThreshold;
+    }
+
+    /**
+     * Calidad OCR bajo la cual el texto no se envía al LLM
+     */
+    public Double getLowQualityScore() {
+        return lowQualityScore;
+    }
+
+    /**
+     * Modelo de Azure con el que se repite el OCR de un texto de baja calidad; vacío para no repetirlo
+     */
+    public Optional<String> getQualityRetryModel() {
+        return qualityRetryModel;
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractionRoutingConfig{" +
+                "rulesEnabled=" + rulesEnabled +
+                ", confidenceThreshold=" + confidenceThreshold +
+                ", defaultCurrency='" + defaultCurrency + '\'' +
+                ", qualityEnabled=" + qualityEnabled +
+                ", highQualityScore=" + highQualityScore +
+                ", highQualityRulesThreshold=" + highQualityRulesThreshold +
+                ", lowQualityScore=" + lowQualityScore +
+                ", qualityRetryModel=" + qualityRetryModel +
+                '}';
+    }
+}
@@ -33,6 +33,18 @@ public class HuggingFaceConfig {
                    defaultValue = "30")
     private Integer timeoutSeconds;
     
+    @ConfigProperty(name = "huggingface.connect-timeout-seconds", 
+                   defaultValue = "5")
+    private Integer connectTimeoutSeconds;
+    
+    @ConfigProperty(name = "huggingface.http.executor-threads", 
+                   defaultValue = "16")
+    private Integer httpExecutorThreads;
+    
+    @ConfigProperty(name = "huggingface.http.warm-up", 
+                   defaultValue = "true")
+    private Boolean httpWarmUp;
+    
     @ConfigProperty(name = "huggingface.retry.max-attempts", 
                    defaultValue = "3")
     private Integer maxRetryAttempts;
@@ -40,6 +52,10 @@ public class HuggingFaceConfig {
     @ConfigProperty(name = "huggingface.retry.delay-ms", 
                    defaultValue = "1000")
     private Long retryDelayMs;
+    
+    @ConfigProperty(name = "huggingface.response-format", 
+                   defaultValue = "json_schema")
+    private String responseFormat;
 
     // Getters
     public String getToken() {
@@ -66,6 +82,18 @@ public class HuggingFaceConfig {
         return timeoutSeconds;
     }
 
+    public Integer getConnectTimeoutSeconds() {
+        return connectTimeoutSeconds;
+    }
+
+    public Integer getHttpExecutorThreads() {
+        return httpExecutorThreads;
+    }
+
+    public Boolean isHttpWarmUp() {
+        return httpWarmUp;
+    }
+
     public Integer getMaxRetryAttempts() {
         return maxRetryAttempts;
     }
@@ -73,6 +101,13 @@ public class HuggingFaceConfig {
     public Long getRetryDelayMs() {
         return retryDelayMs;
     }
+
+    /**
+     * Salida estructurada solicitada al modelo: json_schema, json_object o none
+     */
+    public String getResponseFormat() {
+        return responseFormat;
+    }
     
     /**
      * Valida que la configuración sea válida
@@ -94,8 +129,12 @@ public class HuggingFaceConfig {
                 ", maxTokens=" + maxTokens +
                 ", temperature=" + temperature +
                 ", timeoutSeconds=" + timeoutSeconds +
+                ", connectTimeoutSeconds=" + connectTimeoutSeconds +
+                ", httpExecutorThreads=" + httpExecutorThreads +
+                ", httpWarmUp=" + httpWarmUp +
                 ", maxRetryAttempts=" + maxRetryAttempts +
                 ", retryDelayMs=" + retryDelayMs +
+                ", responseFormat='" + responseFormat + '\'' +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,111 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.List;
+
+/**
+ * Configuración del pre-procesamiento de imágenes antes del OCR
+ * Define qué pasos se aplican y los parámetros de reducción y re-codificación
+ * En modo progresivo se prueba antes una versión de baja resolución
+ */
+@ApplicationScoped
+public class ImagePreprocessingConfig {
+
+    @ConfigProperty(name = "ocr.preprocessing.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.preprocessing.steps",
+                   defaultValue = "exif-orientation,crop,grayscale,downscale")
+    private List<String> steps;
+
+    @ConfigProperty(name = "ocr.preprocessing.target-dpi",
+                   defaultValue = "200")
+    private Integer targetDpi;
+
+    @ConfigProperty(name = "ocr.preprocessing.page-long-edge-inches",
+                   defaultValue = "11.7")
+    private Double pageLongEdgeInches;
+
+    @ConfigProperty(name = "ocr.preprocessing.jpeg-quality",
+                   defaultValue = "0.85")
+    private Float jpegQuality;
+
+    @ConfigProperty(name = "ocr.preprocessing.progressive.enabled",
+                   defaultValue = "false")
+    private Boolean progressiveEnabled;
+
+    @ConfigProperty(name = "ocr.preprocessing.progressive.target-dpi",
+                   defaultValue = "100")
+    private Integer progressiveTargetDpi;
+
+    @ConfigProperty(name = "ocr.preprocessing.progressive.min-quality",
+                   defaultValue = "0.9")
+    private Double progressiveMinQuality;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public List<String> getSteps() {
+        return steps;
+    }
+
+    public Integer getTargetDpi() {
+        return targetDpi;
+    }
+
+    public Double getPageLongEdgeInches() {
+        return pageLongEdgeInches;
+    }
+
+    public Float getJpegQuality() {
+        return jpegQuality;
+    }
+
+    /**
+     * Lado mayor máximo en píxeles: la resolución objetivo aplicada al lado mayor de una hoja.
+     */
+    public int getMaxLongEdgePixels() {
+        return (int) Math.round(targetDpi * pageLongEdgeInches);
+    }
+
+    public Boolean isProgressiveEnabled() {
+        return progressiveEnabled;
+    }
+
+    public Integer getProgressiveTargetDpi() {
+        return progressiveTargetDpi;
+    }
+
+    /**
+     * Calidad OCR mínima para aceptar el texto de la versión de baja resolución
+     */
+    public Double getProgressiveMinQuality() {
+        return progressiveMinQuality;
+    }
+
+    /**
+     * Lado mayor máximo en píxeles de la versión de baja resolución del modo progresivo.
+     */
+    public int getProgressiveMaxLongEdgePixels() {
+        return (int) Math.round(progressiveTargetDpi * pageLongEdgeInches);
+    }
+
+    @Override
+    public String toString() {
+        return "ImagePreprocessingConfig{" +
+                "enabled=" + enabled +
+                ", steps=" + steps +
+                ", targetDpi=" + targetDpi +
+                ", pageLongEdgeInches=" + pageLongEdgeInches +
+                ", jpegQuality=" + jpegQuality +
+                ", progressiveEnabled=" + progressiveEnabled +
+                ", progressiveTargetDpi=" + progressiveTargetDpi +
+                ", progressiveMinQuality=" + progressiveMinQuality +
+                '}';
+    }
+}
@@ -0,0 +1,76 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración del control local de calidad de fotos antes del OCR
+ * Define los umbrales de nitidez, exposición y tamaño del texto bajo los cuales se rechaza la foto
+ */
+@ApplicationScoped
+public class ImageQualityGateConfig {
+
+    @ConfigProperty(name = "ocr.quality-gate.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.quality-gate.min-sharpness",
+                   defaultValue = "25")
+    private Double minSharpness;
+
+    @ConfigProperty(name = "ocr.quality-gate.min-brightness",
+                   defaultValue = "45")
+    private Integer minBrightness;
+
+    @ConfigProperty(name = "ocr.quality-gate.max-overexposed-fraction",
+                   defaultValue = "0.5")
+    private Double maxOverexposedFraction;
+
+    @ConfigProperty(name = "ocr.quality-gate.min-text-region-fraction",
+                   defaultValue = "0.03")
+    private Double minTextRegionFraction;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Varianza mínima del Laplaciano, medida sobre la foto reducida a la resolución de análisis
+     */
+    public Double getMinSharpness() {
+        return minSharpness;
+    }
+
+    /**
+     * Luminancia media mínima (0-255)
+     */
+    public Integer getMinBrightness() {
+        return minBrightness;
+    }
+
+    /**
+     * Fracción máxima de píxeles saturados en blanco cuando además falta texto visible
+     */
+    public Double getMaxOverexposedFraction() {
+        return maxOverexposedFraction;
+    }
+
+    /**
+     * Fracción mínima de la foto que debe ocupar la región con texto
+     */
+    public Double getMinTextRegionFraction() {
+        return minTextRegionFraction;
+    }
+
+    @Override
+    public String toString() {
+        return "ImageQualityGateConfig{" +
+                "enabled=" + enabled +
+                ", minSharpness=" + minSharpness +
+                ", minBrightness=" + minBrightness +
+                ", maxOverexposedFraction=" + maxOverexposedFraction +
+                ", minTextRegionFraction=" + minTextRegionFraction +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la decodificación de facturas estructuradas (QR y DTE JSON/XML)
+ * Controla dónde se buscan códigos QR y a qué resolución, para acotar el costo cuando no hay
+ */
+@ApplicationScoped
+public class InvoiceDecodingConfig {
+
+    @ConfigProperty(name = "ocr.decoding.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.decoding.qr-max-edge-pixels",
+                   defaultValue = "1600")
+    private Integer qrMaxEdgePixels;
+
+    @ConfigProperty(name = "ocr.decoding.qr-in-pdf",
+                   defaultValue = "true")
+    private Boolean qrInPdf;
+
+    @ConfigProperty(name = "ocr.decoding.pdf-render-dpi",
+                   defaultValue = "150")
+    private Integer pdfRenderDpi;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getQrMaxEdgePixels() {
+        return qrMaxEdgePixels;
+    }
+
+    public Boolean isQrInPdf() {
+        return qrInPdf;
+    }
+
+    public Integer getPdfRenderDpi() {
+        return pdfRenderDpi;
+    }
+
+    @Override
+    public String toString() {
+        return "InvoiceDecodingConfig{" +
+                "enabled=" + enabled +
+                ", qrMaxEdgePixels=" + qrMaxEdgePixels +
+                ", qrInPdf=" + qrInPdf +
+                ", pdfRenderDpi=" + pdfRenderDpi +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración del procesamiento OCR por lotes
+ * Limita el paralelismo por lote y global para respetar los límites de Azure y Hugging Face
+ */
+@ApplicationScoped
+public class OCRBatchConfig {
+
+    @ConfigProperty(name = "ocr.batch.per-batch-parallelism",
+                   defaultValue = "4")
+    private Integer perBatchParallelism;
+
+    @ConfigProperty(name = "ocr.batch.global-parallelism",
+                   defaultValue = "8")
+    private Integer globalParallelism;
+
+    @ConfigProperty(name = "ocr.batch.max-files",
+                   defaultValue = "100")
+    private Integer maxFiles;
+
+    @ConfigProperty(name = "ocr.batch.max-total-size-mb",
+                   defaultValue = "50")
+    private Integer maxTotalSizeMb;
+
+    // Getters
+    public Integer getPerBatchParallelism() {
+        return perBatchParallelism;
+    }
+
+    public Integer getGlobalParallelism() {
+        return globalParallelism;
+    }
+
+    public Integer getMaxFiles() {
+        return maxFiles;
+    }
+
+    /**
+     * Tamaño máximo de la suma de los archivos de un lote (descomprimidos, en el caso de un ZIP)
+     */
+    public Integer getMaxTotalSizeMb() {
+        return maxTotalSizeMb;
+    }
+
+    public long getMaxTotalSizeBytes() {
+        return maxTotalSizeMb * 1024L * 1024L;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRBatchConfig{" +
+                "perBatchParallelism=" + perBatchParallelism +
+                ", globalParallelism=" + globalParallelism +
+                ", maxFiles=" + maxFiles +
+                ", maxTotalSizeMb=" + maxTotalSizeMb +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la caché de resultados OCR
+ * Controla si se reutiliza el texto de archivos ya procesados y los límites de memoria/tiempo
+ */
+@ApplicationScoped
+public class OCRCacheConfig {
+
+    @ConfigProperty(name = "ocr.cache.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.cache.max-entries",
+                   defaultValue = "500")
+    private Integer maxEntries;
+
+    @ConfigProperty(name = "ocr.cache.ttl-minutes",
+                   defaultValue = "60")
+    private Integer ttlMinutes;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getMaxEntries() {
+        return maxEntries;
+    }
+
+    public Integer getTtlMinutes() {
+        return ttlMinutes;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRCacheConfig{" +
+                "enabled=" + enabled +
+                ", maxEntries=" + maxEntries +
+                ", ttlMinutes=" + ttlMinutes +
+                '}';
+    }
+}
@@ -0,0 +1,55 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración para la ejecución asíncrona de trabajos OCR
+ * Define el tamaño del pool de workers, la profundidad de la cola y la retención de resultados
+ */
+@ApplicationScoped
+public class OCRJobConfig {
+
+    @ConfigProperty(name = "ocr.jobs.worker-threads",
+                   defaultValue = "4")
+    private Integer workerThreads;
+
+    @ConfigProperty(name = "ocr.jobs.queue-capacity",
+                   defaultValue = "50")
+    private Integer queueCapacity;
+
+    @ConfigProperty(name = "ocr.jobs.retention-minutes",
+                   defaultValue = "30")
+    private Integer retentionMinutes;
+
+    @ConfigProperty(name = "ocr.jobs.retry-after-seconds",
+                   defaultValue = "5")
+    private Integer retryAfterSeconds;
+
+    // Getters
+    public Integer getWorkerThreads() {
+        return workerThreads;
+    }
+
+    public Integer getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public Integer getRetentionMinutes() {
+        return retentionMinutes;
+    }
+
+    public Integer getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRJobConfig{" +
+                "workerThreads=" + workerThreads +
+                ", queueCapacity=" + queueCapacity +
+                ", retentionMinutes=" + retentionMinutes +
+                ", retryAfterSeconds=" + retryAfterSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,92 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración del OCR paralelo por rangos de páginas
+ * Los PDF y TIFF multipágina se dividen en rangos que Azure analiza de forma concurrente
+ * Los documentos largos se analizan primero por sus páginas iniciales y finales (subconjunto)
+ */
+@ApplicationScoped
+public class OCRPageConfig {
+
+    @ConfigProperty(name = "ocr.pages.parallel-enabled",
+                   defaultValue = "true")
+    private Boolean parallelEnabled;
+
+    @ConfigProperty(name = "ocr.pages.chunk-size",
+                   defaultValue = "4")
+    private Integer chunkSize;
+
+    @ConfigProperty(name = "ocr.pages.max-concurrency",
+                   defaultValue = "4")
+    private Integer maxConcurrency;
+
+    @ConfigProperty(name = "ocr.pages.subset.enabled",
+                   defaultValue = "true")
+    private Boolean subsetEnabled;
+
+    @ConfigProperty(name = "ocr.pages.subset.min-pages",
+                   defaultValue = "4")
+    private Integer subsetMinPages;
+
+    @ConfigProperty(name = "ocr.pages.subset.edge-pages",
+                   defaultValue = "1")
+    private Integer subsetEdgePages;
+
+    @ConfigProperty(name = "ocr.pages.subset.max-attempts",
+                   defaultValue = "2")
+    private Integer subsetMaxAttempts;
+
+    // Getters
+    public Boolean isParallelEnabled() {
+        return parallelEnabled;
+    }
+
+    public Integer getChunkSize() {
+        return chunkSize;
+    }
+
+    public Integer getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public Boolean isSubsetEnabled() {
+        return subsetEnabled;
+    }
+
+    /**
+     * Páginas mínimas para analizar primero un subconjunto
+     */
+    public Integer getSubsetMinPages() {
+        return subsetMinPages;
+    }
+
+    /**
+     * Páginas iniciales y finales del primer subconjunto; se duplican en cada ampliación
+     */
+    public Integer getSubsetEdgePages() {
+        return subsetEdgePages;
+    }
+
+    /**
+     * Subconjuntos que se prueban antes de analizar el documento completo
+     */
+    public Integer getSubsetMaxAttempts() {
+        return subsetMaxAttempts;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRPageConfig{" +
+                "parallelEnabled=" + parallelEnabled +
+                ", chunkSize=" + chunkSize +
+                ", maxConcurrency=" + maxConcurrency +
+                ", subsetEnabled=" + subsetEnabled +
+                ", subsetMinPages=" + subsetMinPages +
+                ", subsetEdgePages=" + subsetEdgePages +
+                ", subsetMaxAttempts=" + subsetMaxAttempts +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la extracción local de la capa de texto de PDF digitales
+ * Define cuándo una página se considera con texto utilizable y no necesita OCR
+ */
+@ApplicationScoped
+public class PdfTextLayerConfig {
+
+    @ConfigProperty(name = "ocr.pdf-text-layer.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.pdf-text-layer.min-chars-per-page",
+                   defaultValue = "20")
+    private Integer minCharsPerPage;
+
+    @ConfigProperty(name = "ocr.pdf-text-layer.max-invalid-char-ratio",
+                   defaultValue = "0.05")
+    private Double maxInvalidCharRatio;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Integer getMinCharsPerPage() {
+        return minCharsPerPage;
+    }
+
+    public Double getMaxInvalidCharRatio() {
+        return maxInvalidCharRatio;
+    }
+
+    @Override
+    public String toString() {
+        return "PdfTextLayerConfig{" +
+                "enabled=" + enabled +
+                ", minCharsPerPage=" + minCharsPerPage +
+                ", maxInvalidCharRatio=" + maxInvalidCharRatio +
+                '}';
+    }
+}
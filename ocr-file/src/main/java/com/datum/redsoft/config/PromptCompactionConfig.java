@@ -0,0 +1,62 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de la compactación del texto OCR antes de enviarlo al LLM
+ * El presupuesto se expresa en tokens estimados (caracteres / chars-per-token)
+ */
+@ApplicationScoped
+public class PromptCompactionConfig {
+
+    @ConfigProperty(name = "extraction.prompt.compaction-enabled",
+                   defaultValue = "true")
+    private Boolean compactionEnabled;
+
+    @ConfigProperty(name = "extraction.prompt.token-budget",
+                   defaultValue = "700")
+    private Integer tokenBudget;
+
+    @ConfigProperty(name = "extraction.prompt.chars-per-token",
+                   defaultValue = "3.5")
+    private Double charsPerToken;
+
+    @ConfigProperty(name = "extraction.prompt.header-lines",
+                   defaultValue = "6")
+    private Integer headerLines;
+
+    // Getters
+    public Boolean isCompactionEnabled() {
+        return compactionEnabled;
+    }
+
+    public Integer getTokenBudget() {
+        return tokenBudget;
+    }
+
+    public Double getCharsPerToken() {
+        return charsPerToken;
+    }
+
+    public Integer getHeaderLines() {
+        return headerLines;
+    }
+
+    /**
+     * Estima los tokens de un texto sin tokenizador (suficiente para presupuestar)
+     */
+    public int estimateTokens(String text) {
+        return text == null ? 0 : (int) Math.ceil(text.length() / charsPerToken);
+    }
+
+    @Override
+    public String toString() {
+        return "PromptCompactionConfig{" +
+                "compactionEnabled=" + compactionEnabled +
+                ", tokenBudget=" + tokenBudget +
+                ", charsPerToken=" + charsPerToken +
+                ", headerLines=" + headerLines +
+                '}';
+    }
+}
@@ -0,0 +1,172 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de los circuit breakers, del límite adaptativo de concurrencia y de la política de reintentos
+ * Se aplica por separado a Azure Document Intelligence y a Hugging Face; el presupuesto de reintentos es global
+ */
+@ApplicationScoped
+public class ResilienceConfig {
+
+    @ConfigProperty(name = "resilience.enabled",
+                   defaultValue = "true")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "resilience.breaker.failure-rate-threshold",
+                   defaultValue = "0.5")
+    private Double failureRateThreshold;
+
+    @ConfigProperty(name = "resilience.breaker.window-size",
+                   defaultValue = "20")
+    private Integer windowSize;
+
+    @ConfigProperty(name = "resilience.breaker.minimum-calls",
+                   defaultValue = "10")
+    private Integer minimumCalls;
+
+    @ConfigProperty(name = "resilience.breaker.open-seconds",
+                   defaultValue = "30")
+    private Integer openSeconds;
+
+    @ConfigProperty(name = "resilience.breaker.half-open-calls",
+                   defaultValue = "3")
+    private Integer halfOpenCalls;
+
+    @ConfigProperty(name = "resilience.limiter.initial-limit",
+                   defaultValue = "8")
+    private Integer initialLimit;
+
+    @ConfigProperty(name = "resilience.limiter.min-limit",
+                   defaultValue = "1")
+    private Integer minLimit;
+
+    @ConfigProperty(name = "resilience.limiter.max-limit",
+                   defaultValue = "64")
+    private Integer maxLimit;
+
+    @ConfigProperty(name = "resilience.limiter.backoff-ratio",
+                   defaultValue = "0.9")
+    private Double backoffRatio;
+
+    @ConfigProperty(name = "resilience.limiter.retry-after-seconds",
+                   defaultValue = "2")
+    private Integer limiterRetryAfterSeconds;
+
+    @ConfigProperty(name = "resilience.azure.latency-target-ms",
+                   defaultValue = "15000")
+    private Long azureLatencyTargetMs;
+
+    @ConfigProperty(name = "resilience.huggingface.latency-target-ms",
+                   defaultValue = "8000")
+    private Long huggingFaceLatencyTargetMs;
+
+    @ConfigProperty(name = "resilience.retry.max-delay-ms",
+                   defaultValue = "20000")
+    private Long retryMaxDelayMs;
+
+    @ConfigProperty(name = "resilience.retry.max-retry-after-ms",
+                   defaultValue = "30000")
+    private Long retryMaxRetryAfterMs;
+
+    @ConfigProperty(name = "resilience.retry.budget-ratio",
+                   defaultValue = "0.2")
+    private Double retryBudgetRatio;
+
+    @ConfigProperty(name = "resilience.retry.budget-burst",
+                   defaultValue = "10")
+    private Integer retryBudgetBurst;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Double getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public Integer getWindowSize() {
+        return windowSize;
+    }
+
+    public Integer getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public Integer getOpenSeconds() {
+        return openSeconds;
+    }
+
+    public Integer getHalfOpenCalls() {
+        return halfOpenCalls;
+    }
+
+    public Integer getInitialLimit() {
+        return initialLimit;
+    }
+
+    public Integer getMinLimit() {
+        return minLimit;
+    }
+
+    public Integer getMaxLimit() {
+        return maxLimit;
+    }
+
+    public Double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    public Integer getLimiterRetryAfterSeconds() {
+        return limiterRetryAfterSeconds;
+    }
+
+    public Long getAzureLatencyTargetMs() {
+        return azureLatencyTargetMs;
+    }
+
+    public Long getHuggingFaceLatencyTargetMs() {
+        return huggingFaceLatencyTargetMs;
+    }
+
+    public Long getRetryMaxDelayMs() {
+        return retryMaxDelayMs;
+    }
+
+    public Long getRetryMaxRetryAfterMs() {
+        return retryMaxRetryAfterMs;
+    }
+
+    public Double getRetryBudgetRatio() {
+        return retryBudgetRatio;
+    }
+
+    public Integer getRetryBudgetBurst() {
+        return retryBudgetBurst;
+    }
+
+    @Override
+    public String toString() {
+        return "ResilienceConfig{" +
+                "enabled=" + enabled +
+                ", failureRateThreshold=" + failureRateThreshold +
+                ", windowSize=" + windowSize +
+                ", minimumCalls=" + minimumCalls +
+                ", openSeconds=" + openSeconds +
+                ", halfOpenCalls=" + halfOpenCalls +
+                ", initialLimit=" + initialLimit +
+                ", minLimit=" + minLimit +
+                ", maxLimit=" + maxLimit +
+                ", backoffRatio=" + backoffRatio +
+                ", limiterRetryAfterSeconds=" + limiterRetryAfterSeconds +
+                ", azureLatencyTargetMs=" + azureLatencyTargetMs +
+                ", huggingFaceLatencyTargetMs=" + huggingFaceLatencyTargetMs +
+                ", retryMaxDelayMs=" + retryMaxDelayMs +
+                ", retryMaxRetryAfterMs=" + retryMaxRetryAfterMs +
+                ", retryBudgetRatio=" + retryBudgetRatio +
+                ", retryBudgetBurst=" + retryBudgetBurst +
+                '}';
+    }
+}
@@ -0,0 +1,46 @@
+package com.datum.redsoft.config;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Configuración de ejecución en hilos virtuales
+ * El modo se activa con quarkus.virtual-threads.enabled; aquí se controla la detección de pinning
+ */
+@ApplicationScoped
+public class VirtualThreadConfig {
+
+    @ConfigProperty(name = "quarkus.virtual-threads.enabled",
+                   defaultValue = "false")
+    private Boolean enabled;
+
+    @ConfigProperty(name = "ocr.virtual-threads.pinning-monitor.enabled",
+                   defaultValue = "true")
+    private Boolean pinningMonitorEnabled;
+
+    @ConfigProperty(name = "ocr.virtual-threads.pinning-monitor.threshold-ms",
+                   defaultValue = "20")
+    private Integer pinningThresholdMs;
+
+    // Getters
+    public Boolean isEnabled() {
+        return enabled;
+    }
+
+    public Boolean isPinningMonitorEnabled() {
+        return pinningMonitorEnabled;
+    }
+
+    public Integer getPinningThresholdMs() {
+        return pinningThresholdMs;
+    }
+
+    @Override
+    public String toString() {
+        return "VirtualThreadConfig{" +
+                "enabled=" + enabled +
+                ", pinningMonitorEnabled=" + pinningMonitorEnabled +
+                ", pinningThresholdMs=" + pinningThresholdMs +
+                '}';
+    }
+}
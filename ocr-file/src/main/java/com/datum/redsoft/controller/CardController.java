@@ -7,6 +7,7 @@ import com.datum.redsoft.dto.response.ExpenseGroupResponseDTO;
 import com.datum.redsoft.enums.CardStatus;
 import com.datum.redsoft.enums.CardType;
 import com.datum.redsoft.service.interfaces.ICardService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -26,6 +27,7 @@ import java.util.logging.Logger;
 @Path("/api/cards")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class CardController {
     
     private static final Logger logger = Logger.getLogger(CardController.class.getName());
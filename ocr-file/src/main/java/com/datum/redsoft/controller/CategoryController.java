@@ -4,6 +4,7 @@ import com.datum.redsoft.dto.request.CreateCategoryRequest;
 import com.datum.redsoft.dto.request.UpdateCategoryRequest;
 import com.datum.redsoft.dto.response.CategoryResponseDTO;
 import com.datum.redsoft.service.interfaces.ICategoryService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -21,6 +22,7 @@ import java.util.logging.Logger;
 @Path("/api/categories")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class CategoryController {
     
     private static final Logger logger = Logger.getLogger(CategoryController.class.getName());
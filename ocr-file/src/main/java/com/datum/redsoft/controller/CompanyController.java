@@ -4,6 +4,7 @@ import com.datum.redsoft.dto.request.CompanyCreateRequest;
 import com.datum.redsoft.dto.request.CompanyUpdateRequest;
 import com.datum.redsoft.dto.response.CompanyDTO;
 import com.datum.redsoft.service.CompanyService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -19,6 +20,7 @@ import java.util.Optional;
 @Path("/api/companies")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class CompanyController {
 
     @Inject
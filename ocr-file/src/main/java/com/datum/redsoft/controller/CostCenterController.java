@@ -4,6 +4,7 @@ import com.datum.redsoft.dto.request.CreateCostCenterRequest;
 import com.datum.redsoft.dto.request.UpdateCostCenterRequest;
 import com.datum.redsoft.dto.response.CostCenterResponseDTO;
 import com.datum.redsoft.service.interfaces.ICostCenterService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -21,6 +22,7 @@ import java.util.logging.Logger;
 @Path("/api/cost-centers")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class CostCenterController {
     
     private static final Logger logger = Logger.getLogger(CostCenterController.class.getName());
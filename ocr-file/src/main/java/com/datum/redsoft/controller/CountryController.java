@@ -4,6 +4,7 @@ import com.datum.redsoft.dto.request.CountryCreateRequest;
 import com.datum.redsoft.dto.request.CountryUpdateRequest;
 import com.datum.redsoft.dto.response.CountryDTO;
 import com.datum.redsoft.service.CountryService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -19,6 +20,7 @@ import java.util.Optional;
 @Path("/api/countries")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class CountryController {
 
     @Inject
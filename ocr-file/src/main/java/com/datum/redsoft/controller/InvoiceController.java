@@ -8,6 +8,7 @@ import com.datum.redsoft.dto.response.InvoiceResponseDTO;
 import com.datum.redsoft.dto.response.CompleteInvoiceResponseDTO;
 import com.datum.redsoft.enums.InvoiceStatus;
 import com.datum.redsoft.service.interfaces.IInvoiceService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -26,6 +27,7 @@ import java.util.logging.Logger;
 @Path("/api/invoices")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class InvoiceController {
     
     private static final Logger logger = Logger.getLogger(InvoiceController.class.getName());
@@ -4,6 +4,7 @@ import com.datum.redsoft.dto.request.CreateInvoiceFieldRequest;
 import com.datum.redsoft.dto.request.UpdateInvoiceFieldRequest;
 import com.datum.redsoft.dto.response.InvoiceFieldResponseDTO;
 import com.datum.redsoft.service.InvoiceFieldService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -22,6 +23,7 @@ import java.util.logging.Logger;
 @Path("/api/invoice-fields")
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class InvoiceFieldController {
     
     private static final Logger logger = Logger.getLogger(InvoiceFieldController.class.getName());
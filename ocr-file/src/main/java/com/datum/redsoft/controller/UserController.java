@@ -5,6 +5,7 @@ import com.datum.redsoft.dto.request.UpdateUserRequest;
 import com.datum.redsoft.dto.response.UserResponseDTO;
 import com.datum.redsoft.enums.UserStatus;
 import com.datum.redsoft.service.interfaces.IUserService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -22,6 +23,7 @@ import java.util.logging.Logger;
 @Path("/api/users")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
 public class UserController {
     
     private static final Logger logger = Logger.getLogger(UserController.class.getName());
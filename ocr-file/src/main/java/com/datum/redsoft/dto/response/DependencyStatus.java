@@ -0,0 +1,75 @@
+package com.datum.redsoft.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO con el estado del circuit breaker y del límite de concurrencia de una dependencia externa
+ */
+public class DependencyStatus {
+
+    @JsonProperty("circuit_state")
+    private String circuitState;
+
+    @JsonProperty("failure_rate")
+    private double failureRate;
+
+    @JsonProperty("concurrency_limit")
+    private int concurrencyLimit;
+
+    @JsonProperty("in_flight")
+    private int inFlight;
+
+    // Constructor vacío
+    public DependencyStatus() {}
+
+    // Constructor completo
+    public DependencyStatus(String circuitState, double failureRate, int concurrencyLimit, int inFlight) {
+        this.circuitState = circuitState;
+        this.failureRate = failureRate;
+        this.concurrencyLimit = concurrencyLimit;
+        this.inFlight = inFlight;
+    }
+
+    // Getters y Setters
+    public String getCircuitState() {
+        return circuitState;
+    }
+
+    public void setCircuitState(String circuitState) {
+        this.circuitState = circuitState;
+    }
+
+    public double getFailureRate() {
+        return failureRate;
+    }
+
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    public int getConcurrencyLimit() {
+        return concurrencyLimit;
+    }
+
+    public void setConcurrencyLimit(int concurrencyLimit) {
+        this.concurrencyLimit = concurrencyLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight;
+    }
+
+    public void setInFlight(int inFlight) {
+        this.inFlight = inFlight;
+    }
+
+    @Override
+    public String toString() {
+        return "DependencyStatus{" +
+                "circuitState='" + circuitState + '\'' +
+                ", failureRate=" + failureRate +
+                ", concurrencyLimit=" + concurrencyLimit +
+                ", inFlight=" + inFlight +
+                '}';
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 
+import java.util.Map;
+
 /**
  * DTO para respuestas de análisis OCR
  * Encapsula tanto el texto extraído como los datos estructurados de la factura
@@ -21,9 +23,18 @@ public class OCRAnalysisResponse {
     @JsonProperty("invoice_data")
     private OCRResponseDTO invoiceData;
     
+    @JsonProperty("extraction_method")
+    private String extractionMethod;
+    
     @JsonProperty("processing_time_ms")
     private Long processingTimeMs;
     
+    @JsonProperty("stage_timings_ms")
+    private Map<String, Long> stageTimingsMs;
+    
+    @JsonProperty("ocr_quality")
+    private Double ocrQuality;
+    
     @JsonProperty("error_message")
     private String errorMessage;
 
@@ -69,6 +80,14 @@ public class OCRAnalysisResponse {
         this.invoiceData = invoiceData;
     }
 
+    public String getExtractionMethod() {
+        return extractionMethod;
+    }
+
+    public void setExtractionMethod(String extractionMethod) {
+        this.extractionMethod = extractionMethod;
+    }
+
     public Long getProcessingTimeMs() {
         return processingTimeMs;
     }
@@ -77,6 +96,25 @@ public class OCRAnalysisResponse {
         this.processingTimeMs = processingTimeMs;
     }
 
+    public Map<String, Long> getStageTimingsMs() {
+        return stageTimingsMs;
+    }
+
+    public void setStageTimingsMs(Map<String, Long> stageTimingsMs) {
+        this.stageTimingsMs = stageTimingsMs;
+    }
+
+    /**
+     * Calidad del texto OCR (0 a 1, confianza media de las palabras); null si no se conoce
+     */
+    public Double getOcrQuality() {
+        return ocrQuality;
+    }
+
+    public void setOcrQuality(Double ocrQuality) {
+        this.ocrQuality = ocrQuality;
+    }
+
     public String getErrorMessage() {
         return errorMessage;
     }
@@ -91,7 +129,9 @@ public class OCRAnalysisResponse {
                 "status='" + status + '\'' +
                 ", ocrText='" + (ocrText != null ? ocrText.substring(0, Math.min(50, ocrText.length())) + "..." : null) + '\'' +
                 ", invoiceData=" + invoiceData +
+                ", extractionMethod='" + extractionMethod + '\'' +
                 ", processingTimeMs=" + processingTimeMs +
+                ", stageTimingsMs=" + stageTimingsMs +
                 ", errorMessage='" + errorMessage + '\'' +
                 '}';
     }
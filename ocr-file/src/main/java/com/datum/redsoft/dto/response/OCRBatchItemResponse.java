@@ -0,0 +1,95 @@
+package com.datum.redsoft.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO para el resultado de un archivo dentro de un lote OCR
+ * Se emite como una línea NDJSON en cuanto el archivo termina de procesarse
+ */
+public class OCRBatchItemResponse {
+
+    @JsonProperty("index")
+    private Integer index;
+
+    @JsonProperty("file_name")
+    private String fileName;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("result")
+    private OCRAnalysisResponse result;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    // Constructor vacío
+    public OCRBatchItemResponse() {}
+
+    // Constructor para éxito
+    public OCRBatchItemResponse(Integer index, String fileName, OCRAnalysisResponse result) {
+        this.index = index;
+        this.fileName = fileName;
+        this.status = "success";
+        this.result = result;
+    }
+
+    // Constructor para error
+    public OCRBatchItemResponse(Integer index, String fileName, String errorMessage) {
+        this.index = index;
+        this.fileName = fileName;
+        this.status = "error";
+        this.errorMessage = errorMessage;
+    }
+
+    // Getters y Setters
+    public Integer getIndex() {
+        return index;
+    }
+
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public OCRAnalysisResponse getResult() {
+        return result;
+    }
+
+    public void setResult(OCRAnalysisResponse result) {
+        this.result = result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRBatchItemResponse{" +
+                "index=" + index +
+                ", fileName='" + fileName + '\'' +
+                ", status='" + status + '\'' +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
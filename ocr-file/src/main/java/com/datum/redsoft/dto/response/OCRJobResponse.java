@@ -0,0 +1,118 @@
+package com.datum.redsoft.dto.response;
+
+import com.datum.redsoft.enums.OCRJobStatus;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * DTO para el estado de un trabajo OCR asíncrono
+ * Incluye el resultado final (cuando existe) y el desglose de tiempos por etapa
+ */
+public class OCRJobResponse {
+
+    @JsonProperty("job_id")
+    private String jobId;
+
+    @JsonProperty("status")
+    private OCRJobStatus status;
+
+    @JsonProperty("submitted_at")
+    private Long submittedAt;
+
+    @JsonProperty("started_at")
+    private Long startedAt;
+
+    @JsonProperty("completed_at")
+    private Long completedAt;
+
+    @JsonProperty("stage_timings_ms")
+    private Map<String, Long> stageTimingsMs;
+
+    @JsonProperty("result")
+    private OCRAnalysisResponse result;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    // Constructor vacío
+    public OCRJobResponse() {}
+
+    // Getters y Setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public OCRJobStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OCRJobStatus status) {
+        this.status = status;
+    }
+
+    public Long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(Long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Map<String, Long> getStageTimingsMs() {
+        return stageTimingsMs;
+    }
+
+    public void setStageTimingsMs(Map<String, Long> stageTimingsMs) {
+        this.stageTimingsMs = stageTimingsMs;
+    }
+
+    public OCRAnalysisResponse getResult() {
+        return result;
+    }
+
+    public void setResult(OCRAnalysisResponse result) {
+        this.result = result;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRJobResponse{" +
+                "jobId='" + jobId + '\'' +
+                ", status=" + status +
+                ", submittedAt=" + submittedAt +
+                ", startedAt=" + startedAt +
+                ", completedAt=" + completedAt +
+                ", stageTimingsMs=" + stageTimingsMs +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,152 @@
+package com.datum.redsoft.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * DTO para los eventos del análisis OCR en streaming (Server-Sent Events)
+ * Secuencia: ocr_text, un field por cada campo extraído y complete (o error)
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OCRStreamEvent {
+
+    public static final String TYPE_OCR_TEXT = "ocr_text";
+    public static final String TYPE_FIELD = "field";
+    public static final String TYPE_COMPLETE = "complete";
+    public static final String TYPE_ERROR = "error";
+
+    @JsonProperty("type")
+    private String type;
+
+    @JsonProperty("ocr_text")
+    private String ocrText;
+
+    @JsonProperty("field")
+    private String field;
+
+    @JsonProperty("value")
+    private String value;
+
+    @JsonProperty("invoice_data")
+    private OCRResponseDTO invoiceData;
+
+    @JsonProperty("extraction_method")
+    private String extractionMethod;
+
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+
+    @JsonProperty("error_message")
+    private String errorMessage;
+
+    // Constructor vacío
+    public OCRStreamEvent() {}
+
+    private OCRStreamEvent(String type, long elapsedMs) {
+        this.type = type;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public static OCRStreamEvent ocrText(String ocrText, long elapsedMs) {
+        OCRStreamEvent event = new OCRStreamEvent(TYPE_OCR_TEXT, elapsedMs);
+        event.ocrText = ocrText;
+        return event;
+    }
+
+    public static OCRStreamEvent field(String field, String value, long elapsedMs) {
+        OCRStreamEvent event = new OCRStreamEvent(TYPE_FIELD, elapsedMs);
+        event.field = field;
+        event.value = value;
+        return event;
+    }
+
+    public static OCRStreamEvent complete(OCRResponseDTO invoiceData, String extractionMethod, long elapsedMs) {
+        OCRStreamEvent event = new OCRStreamEvent(TYPE_COMPLETE, elapsedMs);
+        event.invoiceData = invoiceData;
+        event.extractionMethod = extractionMethod;
+        return event;
+    }
+
+    public static OCRStreamEvent error(String errorMessage, long elapsedMs) {
+        OCRStreamEvent event = new OCRStreamEvent(TYPE_ERROR, elapsedMs);
+        event.errorMessage = errorMessage;
+        return event;
+    }
+
+    // Getters y Setters
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getOcrText() {
+        return ocrText;
+    }
+
+    public void setOcrText(String ocrText) {
+        this.ocrText = ocrText;
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public void setField(String field) {
+        this.field = field;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public void setValue(String value) {
+        this.value = value;
+    }
+
+    public OCRResponseDTO getInvoiceData() {
+        return invoiceData;
+    }
+
+    public void setInvoiceData(OCRResponseDTO invoiceData) {
+        this.invoiceData = invoiceData;
+    }
+
+    public String getExtractionMethod() {
+        return extractionMethod;
+    }
+
+    public void setExtractionMethod(String extractionMethod) {
+        this.extractionMethod = extractionMethod;
+    }
+
+    public Long getElapsedMs() {
+        return elapsedMs;
+    }
+
+    public void setElapsedMs(Long elapsedMs) {
+        this.elapsedMs = elapsedMs;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public void setErrorMessage(String errorMessage) {
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRStreamEvent{" +
+                "type='" + type + '\'' +
+                ", field='" + field + '\'' +
+                ", value='" + value + '\'' +
+                ", extractionMethod='" + extractionMethod + '\'' +
+                ", elapsedMs=" + elapsedMs +
+                ", errorMessage='" + errorMessage + '\'' +
+                '}';
+    }
+}
@@ -2,6 +2,8 @@ package com.datum.redsoft.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 
+import java.util.Map;
+
 /**
  * DTO para respuestas de estado del servicio
  */
@@ -19,6 +21,9 @@ public class StatusResponse {
     @JsonProperty("extraction_method")
     private String extractionMethod;
     
+    @JsonProperty("dependencies")
+    private Map<String, DependencyStatus> dependencies;
+    
     @JsonProperty("timestamp")
     private Long timestamp;
 
@@ -70,6 +75,14 @@ public class StatusResponse {
         this.extractionMethod = extractionMethod;
     }
 
+    public Map<String, DependencyStatus> getDependencies() {
+        return dependencies;
+    }
+
+    public void setDependencies(Map<String, DependencyStatus> dependencies) {
+        this.dependencies = dependencies;
+    }
+
     public Long getTimestamp() {
         return timestamp;
     }
@@ -85,6 +98,7 @@ public class StatusResponse {
                 ", ocrServiceAvailable=" + ocrServiceAvailable +
                 ", extractionServiceAvailable=" + extractionServiceAvailable +
                 ", extractionMethod='" + extractionMethod + '\'' +
+                ", dependencies=" + dependencies +
                 ", timestamp=" + timestamp +
                 '}';
     }
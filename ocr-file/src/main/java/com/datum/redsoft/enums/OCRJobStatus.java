@@ -0,0 +1,34 @@
+package com.datum.redsoft.enums;
+
+/**
+ * Enumeración que define los estados de un trabajo OCR asíncrono
+ * Permite al cliente consultar el avance de su solicitud mediante polling
+ */
+public enum OCRJobStatus {
+    QUEUED("En cola"),
+    RUNNING("En proceso"),
+    COMPLETED("Completado"),
+    FAILED("Fallido");
+
+    private final String displayName;
+
+    OCRJobStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Indica si el trabajo ya terminó (con éxito o con error)
+     */
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
@@ -0,0 +1,31 @@
+package com.datum.redsoft.exception;
+
+/**
+ * Excepción para rechazar fotos que el OCR no podrá leer (borrosas, oscuras, texto muy pequeño)
+ * Se traduce en una respuesta 422 con una indicación para repetir la foto
+ */
+public class ImageQualityException extends RuntimeException {
+
+    private final String reason;
+    private final String details;
+
+    public ImageQualityException(String reason, String message, String details) {
+        super(message);
+        this.reason = reason;
+        this.details = details;
+    }
+
+    /**
+     * @return motivo del rechazo: {@code BLURRY}, {@code TOO_DARK}, {@code OVEREXPOSED} o {@code TEXT_TOO_SMALL}
+     */
+    public String getReason() {
+        return reason;
+    }
+
+    /**
+     * @return valores medidos frente a los umbrales configurados
+     */
+    public String getDetails() {
+        return details;
+    }
+}
@@ -0,0 +1,12 @@
+package com.datum.redsoft.exception;
+
+/**
+ * Excepción para rechazar solicitudes cuyo contenido supera el tamaño total permitido
+ * Se traduce en una respuesta 413
+ */
+public class PayloadTooLargeException extends RuntimeException {
+
+    public PayloadTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,24 @@
+package com.datum.redsoft.exception;
+
+/**
+ * Excepción para rechazar solicitudes cuando el servicio está saturado
+ * Se traduce en una respuesta 503 con cabecera Retry-After
+ */
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public ServiceOverloadedException(String message, int retryAfterSeconds, Throwable cause) {
+        super(message, cause);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,56 @@
+package com.datum.redsoft.exception;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Excepción para respuestas HTTP de error de una dependencia externa (Hugging Face)
+ * Conserva el código de estado y la cabecera Retry-After para decidir si se reintenta y cuándo
+ */
+public class UpstreamHttpException extends RuntimeException {
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    /**
+     * @param retryAfterMillis espera indicada por la cabecera Retry-After, o -1 si no vino
+     */
+    public UpstreamHttpException(String message, int statusCode, long retryAfterMillis) {
+        super(message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * Interpreta Retry-After en segundos o como fecha HTTP (RFC 1123).
+     *
+     * @return milisegundos de espera, o -1 si la cabecera no existe o no es válida
+     */
+    public static long parseRetryAfter(String headerValue) {
+        if (headerValue == null || headerValue.isBlank()) {
+            return -1;
+        }
+        String value = headerValue.trim();
+        try {
+            return Math.max(0, Long.parseLong(value) * 1000);
+        } catch (NumberFormatException e) {
+            // No son segundos: se intenta como fecha
+        }
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toMillis());
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+}
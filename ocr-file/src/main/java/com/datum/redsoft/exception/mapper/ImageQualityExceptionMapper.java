@@ -0,0 +1,38 @@
+package com.datum.redsoft.exception.mapper;
+
+import com.datum.redsoft.dto.response.ErrorResponse;
+import com.datum.redsoft.exception.ImageQualityException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.logging.Logger;
+
+/**
+ * Exception Mapper para fotos rechazadas por calidad
+ * Convierte ImageQualityException en 422 con el motivo y cómo repetir la foto
+ */
+@Provider
+public class ImageQualityExceptionMapper implements ExceptionMapper<ImageQualityException> {
+
+    private static final Logger logger = Logger.getLogger(ImageQualityExceptionMapper.class.getName());
+
+    private static final int UNPROCESSABLE_ENTITY = 422;
+
+    @Override
+    public Response toResponse(ImageQualityException exception) {
+        logger.warning("Image Quality Exception: " + exception.getReason() + " (" + exception.getDetails() + ")");
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "IMAGE_QUALITY_" + exception.getReason(),
+            exception.getMessage(),
+            exception.getDetails()
+        );
+
+        return Response.status(UNPROCESSABLE_ENTITY)
+                      .entity(errorResponse)
+                      .type(MediaType.APPLICATION_JSON)
+                      .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.datum.redsoft.exception.mapper;
+
+import com.datum.redsoft.dto.response.ErrorResponse;
+import com.datum.redsoft.exception.PayloadTooLargeException;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.logging.Logger;
+
+/**
+ * Exception Mapper para solicitudes demasiado grandes
+ * Convierte PayloadTooLargeException en 413
+ */
+@Provider
+public class PayloadTooLargeExceptionMapper implements ExceptionMapper<PayloadTooLargeException> {
+
+    private static final Logger logger = Logger.getLogger(PayloadTooLargeExceptionMapper.class.getName());
+
+    @Override
+    public Response toResponse(PayloadTooLargeException exception) {
+        logger.warning("Payload Too Large Exception: " + exception.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "PAYLOAD_TOO_LARGE",
+            "Solicitud demasiado grande",
+            exception.getMessage()
+        );
+
+        return Response.status(Response.Status.REQUEST_ENTITY_TOO_LARGE)
+                      .entity(errorResponse)
+                      .type(MediaType.APPLICATION_JSON)
+                      .build();
+    }
+}
@@ -0,0 +1,38 @@
+package com.datum.redsoft.exception.mapper;
+
+import com.datum.redsoft.dto.response.ErrorResponse;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.ExceptionMapper;
+import jakarta.ws.rs.ext.Provider;
+
+import java.util.logging.Logger;
+
+/**
+ * Exception Mapper para saturación del servicio
+ * Convierte ServiceOverloadedException en 503 con cabecera Retry-After
+ */
+@Provider
+public class ServiceOverloadedExceptionMapper implements ExceptionMapper<ServiceOverloadedException> {
+
+    private static final Logger logger = Logger.getLogger(ServiceOverloadedExceptionMapper.class.getName());
+
+    @Override
+    public Response toResponse(ServiceOverloadedException exception) {
+        logger.warning("Service Overloaded: " + exception.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "SERVICE_OVERLOADED",
+            "El servicio está saturado, intente nuevamente más tarde",
+            exception.getMessage()
+        );
+
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE)
+                      .header(HttpHeaders.RETRY_AFTER, exception.getRetryAfterSeconds())
+                      .entity(errorResponse)
+                      .type(MediaType.APPLICATION_JSON)
+                      .build();
+    }
+}
@@ -0,0 +1,27 @@
+package com.datum.redsoft.model.extraction;
+
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+
+/**
+ * Datos básicos de una factura junto con el método que los obtuvo ({@code REGEX}, {@code AI}...).
+ * <p>El método viaja con el resultado porque el mismo servicio resuelve unas facturas por
+ * reglas y otras con el LLM.</p>
+ */
+public class ExtractionResult {
+
+    private final OCRResponseDTO invoiceData;
+    private final String method;
+
+    public ExtractionResult(OCRResponseDTO invoiceData, String method) {
+        this.invoiceData = invoiceData;
+        this.method = method;
+    }
+
+    public OCRResponseDTO getInvoiceData() {
+        return invoiceData;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+}
@@ -0,0 +1,69 @@
+package com.datum.redsoft.model.extraction;
+
+import com.datum.redsoft.dto.response.InvoiceDataResponse;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Resultado del extractor por reglas: los campos encontrados y la confianza de cada uno.
+ * <p>La confianza global es la del campo más débil, porque una respuesta con un solo
+ * campo dudoso ya no es confiable para registrar el gasto.</p>
+ */
+public class RuleExtractionResult {
+
+    public static final String FIELD_VENDOR = "vendor_name";
+    public static final String FIELD_DATE = "invoice_date";
+    public static final String FIELD_TOTAL = "total_amount";
+    public static final String FIELD_CURRENCY = "currency";
+
+    private static final String NOT_FOUND = "No encontrado";
+
+    private final String vendorName;
+    private final String invoiceDate;
+    private final String totalAmount;
+    private final String currency;
+    private final String invoiceNumber;
+    private final Map<String, Double> fieldConfidence;
+
+    public RuleExtractionResult(String vendorName, String invoiceDate, String totalAmount, String currency,
+                                String invoiceNumber, Map<String, Double> fieldConfidence) {
+        this.vendorName = vendorName;
+        this.invoiceDate = invoiceDate;
+        this.totalAmount = totalAmount;
+        this.currency = currency;
+        this.invoiceNumber = invoiceNumber;
+        this.fieldConfidence = Collections.unmodifiableMap(new LinkedHashMap<>(fieldConfidence));
+    }
+
+    /**
+     * Confianza global entre 0.0 y 1.0 (mínimo de los cuatro campos; 0.0 si falta alguno).
+     */
+    public double getConfidence() {
+        double confidence = 1.0;
+        for (String field : new String[] {FIELD_VENDOR, FIELD_DATE, FIELD_TOTAL, FIELD_CURRENCY}) {
+            confidence = Math.min(confidence, fieldConfidence.getOrDefault(field, 0.0));
+        }
+        return confidence;
+    }
+
+    public Map<String, Double> getFieldConfidence() {
+        return fieldConfidence;
+    }
+
+    public OCRResponseDTO toResponse() {
+        return new OCRResponseDTO(orNotFound(vendorName), orNotFound(invoiceDate),
+                orNotFound(totalAmount), orNotFound(currency));
+    }
+
+    public InvoiceDataResponse toInvoiceDataResponse(String extractionMethod) {
+        return new InvoiceDataResponse(orNotFound(vendorName), orNotFound(invoiceDate), orNotFound(totalAmount),
+                orNotFound(currency), orNotFound(invoiceNumber), extractionMethod, getConfidence());
+    }
+
+    private String orNotFound(String value) {
+        return value != null ? value : NOT_FOUND;
+    }
+}
@@ -1,7 +1,9 @@
 package com.datum.redsoft.model.llama;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import java.util.Map;
 
 public class LlamaRequest {
     
@@ -19,6 +21,10 @@ public class LlamaRequest {
     
     @JsonProperty("temperature")
     private Double temperature;
+    
+    @JsonProperty("response_format")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Object> responseFormat;
 
     // Constructor vacío
     public LlamaRequest() {}
@@ -72,4 +78,12 @@ public class LlamaRequest {
     public void setTemperature(Double temperature) {
         this.temperature = temperature;
     }
+
+    public Map<String, Object> getResponseFormat() {
+        return responseFormat;
+    }
+
+    public void setResponseFormat(Map<String, Object> responseFormat) {
+        this.responseFormat = responseFormat;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package com.datum.redsoft.model.ocr;
+
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+
+/**
+ * Resultado de decodificar una factura estructurada (código QR o DTE JSON/XML) sin OCR ni IA.
+ * <p>Un resultado incompleto (QR que solo trae fecha y total) no evita el OCR: sus campos se
+ * imponen a los de la extracción.</p>
+ */
+public class DecodedInvoice {
+
+    public static final String SOURCE_QR = "qr";
+    public static final String SOURCE_ELECTRONIC_INVOICE = "e-invoice";
+
+    private final String source;
+    private final String rawContent;
+    private final OCRResponseDTO invoiceData;
+    private final boolean complete;
+
+    public DecodedInvoice(String source, String rawContent, OCRResponseDTO invoiceData) {
+        this(source, rawContent, invoiceData, true);
+    }
+
+    public DecodedInvoice(String source, String rawContent, OCRResponseDTO invoiceData, boolean complete) {
+        this.source = source;
+        this.rawContent = rawContent;
+        this.invoiceData = invoiceData;
+        this.complete = complete;
+    }
+
+    /**
+     * Origen de los datos: {@link #SOURCE_QR} o {@link #SOURCE_ELECTRONIC_INVOICE}.
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Contenido decodificado tal cual (texto del QR o documento JSON/XML).
+     */
+    public String getRawContent() {
+        return rawContent;
+    }
+
+    public OCRResponseDTO getInvoiceData() {
+        return invoiceData;
+    }
+
+    /**
+     * Indica si los datos bastan para responder sin OCR.
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+}
@@ -0,0 +1,169 @@
+package com.datum.redsoft.model.ocr;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Logger;
+
+/**
+ * Documento recibido para OCR, respaldado por un archivo temporal en disco.
+ * <p>Evita mantener el archivo completo en el heap mientras espera en cola o mientras
+ * se envía a Azure. El hash SHA-256 se calcula durante la copia a disco y sirve como
+ * clave de caché sin volver a leer el contenido.</p>
+ * <p>El servicio OCR que extrae el texto registra su calidad ({@link #getTextQuality()}) para
+ * que las etapas siguientes decidan cómo tratarlo.</p>
+ * <p>Con {@link #setPageSelection(String)} se pide analizar solo algunas páginas; las etapas
+ * que devuelven el texto completo (caché, capa de texto del PDF) anulan la selección, de modo
+ * que si sigue presente tras el OCR el texto cubre solo esas páginas.</p>
+ * <p>En el modo progresivo del pre-procesamiento, {@link #isLowResolutionText()} indica que el
+ * texto salió de una versión reducida de la foto; con {@link #setFullResolutionRequired(boolean)}
+ * se pide repetir el OCR a resolución completa.</p>
+ * <p>Las fotos se decodifican una sola vez ({@link #getDecodedImage()}) y la imagen la comparten
+ * el control de calidad, la lectura del QR y el pre-procesamiento.</p>
+ * <p>Al cerrarse elimina el archivo temporal; el dueño del documento (controlador,
+ * trabajo o lote) es responsable de cerrarlo.</p>
+ */
+public class OCRDocument implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(OCRDocument.class.getName());
+
+    private final Path path;
+    private final String contentType;
+    private final long size;
+    private final String sha256;
+    private final boolean temporary;
+
+    private OCRTextQuality textQuality;
+    private String pageSelection;
+    private boolean lowResolutionText;
+    private boolean fullResolutionRequired;
+    private BufferedImage decodedImage;
+    private boolean imageDecoded;
+
+    public OCRDocument(Path path, String contentType, long size, String sha256, boolean temporary) {
+        this.path = path;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.temporary = temporary;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    /**
+     * @return calidad del texto extraído, o null si no se conoce (p. ej. resultado de caché)
+     */
+    public OCRTextQuality getTextQuality() {
+        return textQuality;
+    }
+
+    public void setTextQuality(OCRTextQuality textQuality) {
+        this.textQuality = textQuality;
+    }
+
+    /**
+     * @return páginas a analizar en el formato de Azure (p. ej. {@code "1,9-10"}), o null para el documento completo
+     */
+    public String getPageSelection() {
+        return pageSelection;
+    }
+
+    public void setPageSelection(String pageSelection) {
+        this.pageSelection = pageSelection;
+    }
+
+    /**
+     * @return true si el último texto OCR se obtuvo de la versión de baja resolución
+     */
+    public boolean isLowResolutionText() {
+        return lowResolutionText;
+    }
+
+    public void setLowResolutionText(boolean lowResolutionText) {
+        this.lowResolutionText = lowResolutionText;
+    }
+
+    /**
+     * @return true si el OCR debe omitir la versión de baja resolución (y la caché)
+     */
+    public boolean isFullResolutionRequired() {
+        return fullResolutionRequired;
+    }
+
+    public void setFullResolutionRequired(boolean fullResolutionRequired) {
+        this.fullResolutionRequired = fullResolutionRequired;
+    }
+
+    /**
+     * Imagen decodificada, leída del disco la primera vez que se pide.
+     *
+     * @return la imagen, o null si ImageIO no reconoce el formato
+     */
+    public synchronized BufferedImage getDecodedImage() throws IOException {
+        if (!imageDecoded) {
+            decodedImage = ImageIO.read(path.toFile());
+            imageDecoded = true;
+        }
+        return decodedImage;
+    }
+
+    /**
+     * Libera la imagen decodificada, p. ej. mientras el documento espera en la cola de trabajos
+     * o cuando el OCR ya no la necesita; si se vuelve a pedir se decodifica otra vez.
+     */
+    public synchronized void releaseDecodedImage() {
+        decodedImage = null;
+        imageDecoded = false;
+    }
+
+    /**
+     * Lee el contenido completo en memoria. Solo para etapas que necesitan los bytes
+     * (por ejemplo, implementaciones de OCR sin soporte de streaming).
+     */
+    public byte[] readAllBytes() {
+        try {
+            return Files.readAllBytes(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el documento " + path, e);
+        }
+    }
+
+    @Override
+    public void close() {
+        releaseDecodedImage();
+        if (!temporary) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warning("No se pudo eliminar el archivo temporal " + path + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OCRDocument{" +
+                "contentType='" + contentType + '\'' +
+                ", size=" + size +
+                ", sha256='" + sha256 + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,116 @@
+package com.datum.redsoft.model.ocr;
+
+import com.datum.redsoft.dto.response.OCRAnalysisResponse;
+import com.datum.redsoft.dto.response.OCRJobResponse;
+import com.datum.redsoft.enums.OCRJobStatus;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Estado interno de un trabajo OCR asíncrono.
+ * <p>Es escrito por el worker que procesa el trabajo y leído por las peticiones de polling,
+ * por lo que todas las transiciones de estado están sincronizadas.</p>
+ */
+public class OCRJob {
+
+    public static final String STAGE_QUEUE_WAIT = "queue_wait";
+    public static final String STAGE_TOTAL = "total";
+
+    private final String id;
+    private final long submittedAt;
+    private OCRDocument document;
+
+    private OCRJobStatus status = OCRJobStatus.QUEUED;
+    private Long startedAt;
+    private Long completedAt;
+    private final Map<String, Long> stageTimingsMs = new LinkedHashMap<>();
+    private OCRAnalysisResponse result;
+    private String errorMessage;
+
+    public OCRJob(String id, OCRDocument document) {
+        this.id = id;
+        this.document = document;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Marca el trabajo como en ejecución y entrega el documento a procesar.
+     * <p>El trabajo deja de referenciar el documento: a partir de aquí el worker es
+     * responsable de cerrarlo (y eliminar su archivo temporal).</p>
+     *
+     * @return el documento, o null si el trabajo ya se descartó ({@link #discardIfQueued(String)})
+     */
+    public synchronized OCRDocument start() {
+        if (status != OCRJobStatus.QUEUED) {
+            return null;
+        }
+        OCRDocument data = document;
+        document = null;
+        startedAt = System.currentTimeMillis();
+        status = OCRJobStatus.RUNNING;
+        stageTimingsMs.put(STAGE_QUEUE_WAIT, startedAt - submittedAt);
+        return data;
+    }
+
+    public synchronized void complete(OCRAnalysisResponse analysis) {
+        result = analysis;
+        if (analysis.getStageTimingsMs() != null) {
+            stageTimingsMs.putAll(analysis.getStageTimingsMs());
+        }
+        finish(OCRJobStatus.COMPLETED);
+    }
+
+    public synchronized void fail(String message) {
+        if (document != null) {
+            document.close();
+            document = null;
+        }
+        errorMessage = message;
+        finish(OCRJobStatus.FAILED);
+    }
+
+    /**
+     * Descarta un trabajo que sigue en cola: cierra su documento y lo marca como fallido.
+     *
+     * @return false si el trabajo ya había empezado o terminado
+     */
+    public synchronized boolean discardIfQueued(String message) {
+        if (status != OCRJobStatus.QUEUED) {
+            return false;
+        }
+        fail(message);
+        return true;
+    }
+
+    private void finish(OCRJobStatus finalStatus) {
+        completedAt = System.currentTimeMillis();
+        stageTimingsMs.put(STAGE_TOTAL, completedAt - submittedAt);
+        status = finalStatus;
+    }
+
+    /**
+     * Indica si el trabajo terminó antes del instante indicado (para su expiración).
+     */
+    public synchronized boolean isFinishedBefore(long timestamp) {
+        return status.isFinished() && completedAt != null && completedAt < timestamp;
+    }
+
+    public synchronized OCRJobResponse toResponse() {
+        OCRJobResponse response = new OCRJobResponse();
+        response.setJobId(id);
+        response.setStatus(status);
+        response.setSubmittedAt(submittedAt);
+        response.setStartedAt(startedAt);
+        response.setCompletedAt(completedAt);
+        response.setStageTimingsMs(Collections.unmodifiableMap(new LinkedHashMap<>(stageTimingsMs)));
+        response.setResult(result);
+        response.setErrorMessage(errorMessage);
+        return response;
+    }
+}
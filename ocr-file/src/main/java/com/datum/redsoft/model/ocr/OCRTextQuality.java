@@ -0,0 +1,82 @@
+package com.datum.redsoft.model.ocr;
+
+import java.util.List;
+
+/**
+ * Calidad del texto obtenido por OCR, calculada con la confianza que Azure asigna a cada palabra.
+ * <p>{@code score} es la confianza media ponderada por la longitud de cada palabra (0 a 1);
+ * {@code lowConfidenceWords} cuenta las palabras bajo {@value #LOW_WORD_CONFIDENCE}, típicas de
+ * fotos movidas, papel térmico desgastado o texto manuscrito.</p>
+ */
+public class OCRTextQuality {
+
+    /**
+     * Confianza bajo la cual una palabra se considera dudosa.
+     */
+    public static final double LOW_WORD_CONFIDENCE = 0.5;
+
+    private final double score;
+    private final int wordCount;
+    private final int lowConfidenceWords;
+
+    public OCRTextQuality(double score, int wordCount, int lowConfidenceWords) {
+        this.score = score;
+        this.wordCount = wordCount;
+        this.lowConfidenceWords = lowConfidenceWords;
+    }
+
+    /**
+     * Calidad de un texto leído de la capa de texto de un PDF: exacto, sin OCR.
+     */
+    public static OCRTextQuality exact(String text) {
+        int words = text == null || text.isBlank() ? 0 : text.trim().split("\\s+").length;
+        return new OCRTextQuality(1.0, words, 0);
+    }
+
+    /**
+     * Combina la calidad de varias partes del mismo documento ponderando por número de palabras.
+     * Las partes nulas (sin calidad conocida) se ignoran.
+     *
+     * @return la calidad combinada, o null si ninguna parte la tenía
+     */
+    public static OCRTextQuality combine(List<OCRTextQuality> parts) {
+        double weightedScore = 0;
+        int words = 0;
+        int lowWords = 0;
+        boolean known = false;
+        for (OCRTextQuality part : parts) {
+            if (part == null) {
+                continue;
+            }
+            known = true;
+            weightedScore += part.score * part.wordCount;
+            words += part.wordCount;
+            lowWords += part.lowConfidenceWords;
+        }
+        if (!known) {
+            return null;
+        }
+        return new OCRTextQuality(words == 0 ? 0.0 : weightedScore / words, words, lowWords);
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public int getWordCount() {
+        return wordCount;
+    }
+
+    public int getLowConfidenceWords() {
+        return lowConfidenceWords;
+    }
+
+    @Override
+    public String toString() {
+        return "OCRTextQuality{" +
+                "score=" + score +
+                ", wordCount=" + wordCount +
+                ", lowConfidenceWords=" + lowConfidenceWords +
+                '}';
+    }
+}
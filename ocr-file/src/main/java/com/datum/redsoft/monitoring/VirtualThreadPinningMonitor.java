@@ -0,0 +1,127 @@
+package com.datum.redsoft.monitoring;
+
+import com.datum.redsoft.config.VirtualThreadConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Detecta hilos virtuales que quedan fijados (pinned) a su hilo portador.
+ * <p>Escucha en streaming el evento JFR {@code jdk.VirtualThreadPinned}, que la JVM emite
+ * cuando un hilo virtual bloquea dentro de un {@code synchronized} o de código nativo
+ * (típico en drivers JDBC o SDKs). Cada evento incrementa la métrica
+ * {@code virtual_threads.pinned} etiquetada con el primer frame de aplicación o librería;
+ * la traza completa se registra en el log solo la primera vez que aparece cada ubicación.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = Logger.getLogger(VirtualThreadPinningMonitor.class.getName());
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 15;
+
+    @Inject
+    VirtualThreadConfig virtualThreadConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final Set<String> reportedLocations = ConcurrentHashMap.newKeySet();
+
+    private RecordingStream recordingStream;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!virtualThreadConfig.isEnabled() || !virtualThreadConfig.isPinningMonitorEnabled()) {
+            return;
+        }
+        try {
+            recordingStream = new RecordingStream();
+            recordingStream.enable(PINNED_EVENT)
+                    .withThreshold(Duration.ofMillis(virtualThreadConfig.getPinningThresholdMs()))
+                    .withStackTrace();
+            recordingStream.onEvent(PINNED_EVENT, this::report);
+            recordingStream.startAsync();
+            logger.info("Monitor de pinning de hilos virtuales iniciado: " + virtualThreadConfig);
+        } catch (Exception e) {
+            // JFR puede no estar disponible (p. ej. imagen nativa); la aplicación sigue sin monitor
+            logger.warning("No se pudo iniciar el monitor de pinning: " + e.getMessage());
+            recordingStream = null;
+        }
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        String location = pinningLocation(stackTrace);
+        Duration duration = event.getDuration();
+
+        Timer.builder("virtual_threads.pinned")
+                .description("Bloqueos de hilos virtuales fijados a su hilo portador")
+                .tag("location", location)
+                .register(meterRegistry)
+                .record(duration);
+
+        if (reportedLocations.add(location)) {
+            logger.warning("Hilo virtual fijado a su portador durante " + duration.toMillis()
+                    + " ms en " + location + formatFrames(stackTrace));
+        }
+    }
+
+    /**
+     * Devuelve el primer frame fuera del JDK, que es donde está el synchronized o la llamada nativa culpable.
+     */
+    private String pinningLocation(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (frame.isJavaFrame() && !isJdkType(type)) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+
+    private boolean isJdkType(String type) {
+        return type.startsWith("java.") || type.startsWith("jdk.") || type.startsWith("sun.");
+    }
+
+    private String formatFrames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "";
+        }
+        StringBuilder frames = new StringBuilder();
+        stackTrace.getFrames().stream()
+                .limit(LOGGED_FRAMES)
+                .forEach(frame -> frames.append("\n\tat ")
+                        .append(frame.getMethod().getType().getName())
+                        .append('.')
+                        .append(frame.getMethod().getName())
+                        .append(':')
+                        .append(frame.getLineNumber()));
+        return frames.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.datum.redsoft.resilience;
+
+/**
+ * Límite de llamadas concurrentes a una dependencia ajustado por AIMD.
+ * <p>Cada llamada que termina dentro de la latencia objetivo suma {@code 1/limit} al
+ * límite (aproximadamente +1 por cada "ronda" completa de llamadas); una llamada lenta,
+ * fallida o con timeout lo multiplica por {@code backoffRatio}. Así el límite converge a
+ * la concurrencia que la dependencia sostiene sin degradar su latencia, y cuando se
+ * satura las peticiones sobrantes se rechazan de inmediato en lugar de acumularse.</p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyTargetMs;
+
+    private double limit;
+    private int inFlight;
+
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit,
+                                      double backoffRatio, long latencyTargetMs) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTargetMs = latencyTargetMs;
+        this.limit = Math.max(minLimit, Math.min(initialLimit, maxLimit));
+    }
+
+    /**
+     * @return true si hay cupo; quien la obtiene debe llamar luego a {@link #onSuccess(long)}
+     *         o a {@link #onDropped()}
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * Libera el cupo de una llamada que respondió; si tardó más que la latencia objetivo
+     * cuenta como señal de saturación.
+     */
+    public synchronized void onSuccess(long latencyMs) {
+        inFlight--;
+        if (latencyMs > latencyTargetMs) {
+            decrease();
+        } else if (inFlight + 1 >= (int) limit) {
+            // Solo crece si el límite actual se estaba usando; con poca carga no hay señal
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    /**
+     * Libera el cupo de una llamada que falló por la dependencia (error 5xx, 429 o timeout).
+     */
+    public synchronized void onDropped() {
+        inFlight--;
+        decrease();
+    }
+
+    /**
+     * Libera el cupo sin ajustar el límite (p. ej. la llamada se canceló).
+     */
+    public synchronized void release() {
+        inFlight--;
+    }
+
+    private void decrease() {
+        limit = Math.max(minLimit, limit * backoffRatio);
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
@@ -0,0 +1,42 @@
+package com.datum.redsoft.resilience;
+
+import com.azure.core.http.HttpResponse;
+import com.azure.core.http.policy.RetryStrategy;
+
+import java.time.Duration;
+
+/**
+ * Adapta {@link DependencyRetryPolicy} al pipeline HTTP del SDK de Azure.
+ * <p>El {@code RetryPolicy} del SDK ya espera lo indicado en Retry-After
+ * ({@code retry-after-ms}, {@code x-ms-retry-after-ms} o {@code Retry-After}) cuando la
+ * respuesta lo trae; en los demás casos usa la espera con jitter de esta estrategia.</p>
+ */
+public class AzureRetryStrategy implements RetryStrategy {
+
+    private final DependencyRetryPolicy policy;
+
+    public AzureRetryStrategy(DependencyRetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    @Override
+    public int getMaxRetries() {
+        return policy.getMaxAttempts() - 1;
+    }
+
+    @Override
+    public Duration calculateRetryDelay(int retryAttempts) {
+        return Duration.ofMillis(policy.delayForAttemptMs(retryAttempts + 1));
+    }
+
+    @Override
+    public boolean shouldRetry(HttpResponse httpResponse) {
+        // Las respuestas correctas también pasan por aquí; solo se evalúan los errores
+        return httpResponse.getStatusCode() >= 400 && policy.shouldRetry(httpResponse.getStatusCode());
+    }
+
+    @Override
+    public boolean shouldRetryException(Throwable throwable) {
+        return policy.shouldRetry(throwable);
+    }
+}
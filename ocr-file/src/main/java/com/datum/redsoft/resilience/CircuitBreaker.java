@@ -0,0 +1,140 @@
+package com.datum.redsoft.resilience;
+
+/**
+ * Circuit breaker por conteo sobre las últimas llamadas a una dependencia.
+ * <p>En {@link State#CLOSED} registra el resultado de cada llamada en una ventana
+ * circular; cuando hay al menos {@code minimumCalls} resultados y la tasa de fallos
+ * alcanza el umbral pasa a {@link State#OPEN} y rechaza todo durante {@code openMillis}.
+ * Luego pasa a {@link State#HALF_OPEN} y deja pasar {@code halfOpenCalls} llamadas de
+ * prueba: si todas terminan bien se cierra, y con el primer fallo vuelve a abrirse.</p>
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long openMillis;
+    private final int halfOpenCalls;
+
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(double failureRateThreshold, int windowSize, int minimumCalls,
+                          long openMillis, int halfOpenCalls) {
+        this.failureRateThreshold = failureRateThreshold;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.openMillis = openMillis;
+        this.halfOpenCalls = halfOpenCalls;
+    }
+
+    /**
+     * Indica si se puede llamar a la dependencia; en HALF_OPEN consume uno de los permisos de prueba.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            transitionTo(State.HALF_OPEN);
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> false;
+            case HALF_OPEN -> {
+                if (halfOpenPermits < halfOpenCalls) {
+                    halfOpenPermits++;
+                    yield true;
+                }
+                yield false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve un permiso de prueba que no llegó a registrar resultado (llamada cancelada).
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State next) {
+        state = next;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (next == State.OPEN) {
+            openedAt = System.currentTimeMillis();
+        } else if (next == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+
+    public synchronized State getState() {
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openMillis) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * @return fracción de fallos en la ventana actual (0 si no hay llamadas registradas)
+     */
+    public synchronized double getFailureRate() {
+        return windowCount == 0 ? 0.0 : (double) windowFailures / windowCount;
+    }
+
+    /**
+     * @return segundos hasta que se admitan llamadas de prueba (al menos 1)
+     */
+    public synchronized int getRetryAfterSeconds() {
+        long remaining = openMillis - (System.currentTimeMillis() - openedAt);
+        return (int) Math.max(1, (remaining + 999) / 1000);
+    }
+}
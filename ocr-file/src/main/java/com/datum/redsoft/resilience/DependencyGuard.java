@@ -0,0 +1,174 @@
+package com.datum.redsoft.resilience;
+
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Protege las llamadas a una dependencia externa con un {@link CircuitBreaker} y un
+ * {@link AdaptiveConcurrencyLimiter}.
+ * <p>Si el circuito está abierto o no queda cupo, {@link #acquire()} lanza
+ * {@link ServiceOverloadedException} sin tocar la red, y el llamador responde 503 con
+ * Retry-After en vez de quedar esperando detrás de una dependencia saturada.</p>
+ * <p>Publica {@code dependency.rejected{dependency,reason}} con {@code circuit_open} o
+ * {@code limit}.</p>
+ */
+public class DependencyGuard {
+
+    private static final Logger logger = Logger.getLogger(DependencyGuard.class.getName());
+
+    private final String name;
+    private final boolean enabled;
+    private final CircuitBreaker breaker;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final int limiterRetryAfterSeconds;
+    private final Predicate<Throwable> failurePredicate;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * @param failurePredicate indica qué excepciones cuentan como fallo de la dependencia
+     *                         (las demás, p. ej. un 400 por documento inválido, no abren el circuito)
+     */
+    public DependencyGuard(String name, boolean enabled, CircuitBreaker breaker, AdaptiveConcurrencyLimiter limiter,
+                           int limiterRetryAfterSeconds, Predicate<Throwable> failurePredicate,
+                           MeterRegistry meterRegistry) {
+        this.name = name;
+        this.enabled = enabled;
+        this.breaker = breaker;
+        this.limiter = limiter;
+        this.limiterRetryAfterSeconds = limiterRetryAfterSeconds;
+        this.failurePredicate = failurePredicate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Reserva un cupo para una llamada.
+     *
+     * @return permiso que debe cerrarse con {@link Permit#success()}, {@link Permit#failure()}
+     *         o {@link Permit#complete(Throwable)}
+     * @throws ServiceOverloadedException si el circuito está abierto o se alcanzó el límite de concurrencia
+     */
+    public Permit acquire() {
+        if (!enabled) {
+            return new Permit(false);
+        }
+        if (!limiter.tryAcquire()) {
+            meterRegistry.counter("dependency.rejected", "dependency", name, "reason", "limit").increment();
+            logger.warning("Límite de concurrencia alcanzado para " + name + " (" + limiter.getLimit() + "), llamada rechazada");
+            throw new ServiceOverloadedException(
+                name + " está saturado: límite de concurrencia " + limiter.getLimit() + " alcanzado", limiterRetryAfterSeconds);
+        }
+        if (!breaker.tryAcquirePermission()) {
+            limiter.release();
+            meterRegistry.counter("dependency.rejected", "dependency", name, "reason", "circuit_open").increment();
+            logger.warning("Circuito abierto para " + name + ", llamada rechazada");
+            throw new ServiceOverloadedException(
+                name + " no está disponible (circuito abierto)", breaker.getRetryAfterSeconds());
+        }
+        return new Permit(true);
+    }
+
+    /**
+     * Ejecuta la llamada dentro de un permiso y registra su resultado.
+     */
+    public <T, E extends Exception> T call(GuardedCall<T, E> call) throws E {
+        Permit permit = acquire();
+        try {
+            T result = call.call();
+            permit.success();
+            return result;
+        } catch (Exception e) {
+            permit.complete(e);
+            throw e;
+        } catch (Error e) {
+            permit.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return true si el código HTTP indica un problema de la dependencia y no de la petición
+     */
+    public static boolean isDependencyFailure(int statusCode) {
+        return statusCode >= 500 || statusCode == 429 || statusCode == 408;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public CircuitBreaker.State getState() {
+        return breaker.getState();
+    }
+
+    public double getFailureRate() {
+        return breaker.getFailureRate();
+    }
+
+    public int getConcurrencyLimit() {
+        return limiter.getLimit();
+    }
+
+    public int getInFlight() {
+        return limiter.getInFlight();
+    }
+
+    @FunctionalInterface
+    public interface GuardedCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * Cupo reservado para una llamada. Solo el primer cierre tiene efecto.
+     */
+    public final class Permit {
+
+        private final boolean tracked;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Permit(boolean tracked) {
+            this.tracked = tracked;
+        }
+
+        public void success() {
+            if (tracked && closed.compareAndSet(false, true)) {
+                limiter.onSuccess(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                breaker.onSuccess();
+            }
+        }
+
+        public void failure() {
+            if (tracked && closed.compareAndSet(false, true)) {
+                limiter.onDropped();
+                breaker.onFailure();
+            }
+        }
+
+        /**
+         * Cierra el permiso según el resultado: sin error o con un error que no es de la
+         * dependencia cuenta como éxito.
+         */
+        public void complete(Throwable failure) {
+            if (failure != null && failurePredicate.test(failure)) {
+                failure();
+            } else {
+                success();
+            }
+        }
+
+        /**
+         * Libera el cupo sin registrar resultado (llamada cancelada).
+         */
+        public void release() {
+            if (tracked && closed.compareAndSet(false, true)) {
+                limiter.release();
+                breaker.releasePermission();
+            }
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.datum.redsoft.resilience;
+
+import com.azure.core.exception.HttpResponseException;
+import com.datum.redsoft.config.AzureConfig;
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.config.ResilienceConfig;
+import com.datum.redsoft.dto.response.DependencyStatus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Registro de los {@link DependencyGuard} de Azure Document Intelligence y de Hugging Face.
+ * <p>Cada dependencia tiene su propio circuito y límite, de modo que una degradación de
+ * Hugging Face no frena el OCR y viceversa. El estado se expone en {@code GET /api/status}
+ * y en las métricas {@code dependency.circuit.state{dependency}} (0 cerrado, 1 semiabierto,
+ * 2 abierto), {@code dependency.concurrency.limit} y {@code dependency.concurrency.in_flight}.</p>
+ * <p>También crea la {@link DependencyRetryPolicy} de cada dependencia. Ambas comparten un único
+ * {@link RetryBudget}, visible en {@code dependency.retry.budget}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class DependencyGuards {
+
+    private static final Logger logger = Logger.getLogger(DependencyGuards.class.getName());
+
+    public static final String AZURE = "azure-document-intelligence";
+    public static final String HUGGING_FACE = "huggingface";
+
+    @Inject
+    ResilienceConfig resilienceConfig;
+
+    @Inject
+    AzureConfig azureConfig;
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private DependencyGuard azure;
+    private DependencyGuard huggingFace;
+
+    private DependencyRetryPolicy azureRetryPolicy;
+    private DependencyRetryPolicy huggingFaceRetryPolicy;
+
+    @PostConstruct
+    void init() {
+        azure = create(AZURE, resilienceConfig.getAzureLatencyTargetMs(), DependencyGuards::isAzureFailure);
+        huggingFace = create(HUGGING_FACE, resilienceConfig.getHuggingFaceLatencyTargetMs(), failure -> true);
+
+        RetryBudget retryBudget = new RetryBudget(resilienceConfig.getRetryBudgetRatio(), resilienceConfig.getRetryBudgetBurst());
+        Gauge.builder("dependency.retry.budget", retryBudget, RetryBudget::getTokens)
+                .description("Reintentos disponibles en el presupuesto global")
+                .register(meterRegistry);
+        azureRetryPolicy = createRetryPolicy(AZURE, azureConfig.getMaxRetryAttempts(), azureConfig.getRetryDelayMs(), retryBudget);
+        huggingFaceRetryPolicy = createRetryPolicy(HUGGING_FACE, hfConfig.getMaxRetryAttempts(), hfConfig.getRetryDelayMs(), retryBudget);
+        logger.info("Circuit breakers, límites de concurrencia y reintentos inicializados: " + resilienceConfig);
+    }
+
+    private DependencyRetryPolicy createRetryPolicy(String name, int maxAttempts, long baseDelayMs, RetryBudget budget) {
+        return new DependencyRetryPolicy(
+            name,
+            maxAttempts,
+            baseDelayMs,
+            resilienceConfig.getRetryMaxDelayMs(),
+            resilienceConfig.getRetryMaxRetryAfterMs(),
+            budget,
+            meterRegistry);
+    }
+
+    private DependencyGuard create(String name, long latencyTargetMs, Predicate<Throwable> failurePredicate) {
+        DependencyGuard guard = new DependencyGuard(
+            name,
+            resilienceConfig.isEnabled(),
+            new CircuitBreaker(
+                resilienceConfig.getFailureRateThreshold(),
+                resilienceConfig.getWindowSize(),
+                resilienceConfig.getMinimumCalls(),
+                resilienceConfig.getOpenSeconds() * 1000L,
+                resilienceConfig.getHalfOpenCalls()),
+            new AdaptiveConcurrencyLimiter(
+                resilienceConfig.getInitialLimit(),
+                resilienceConfig.getMinLimit(),
+                resilienceConfig.getMaxLimit(),
+                resilienceConfig.getBackoffRatio(),
+                latencyTargetMs),
+            resilienceConfig.getLimiterRetryAfterSeconds(),
+            failurePredicate,
+            meterRegistry);
+
+        Gauge.builder("dependency.circuit.state", guard, g -> stateValue(g.getState()))
+                .description("Estado del circuit breaker: 0 cerrado, 1 semiabierto, 2 abierto")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("dependency.concurrency.limit", guard, DependencyGuard::getConcurrencyLimit)
+                .description("Límite adaptativo de llamadas concurrentes")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        Gauge.builder("dependency.concurrency.in_flight", guard, DependencyGuard::getInFlight)
+                .description("Llamadas en curso a la dependencia")
+                .tag("dependency", name)
+                .register(meterRegistry);
+        return guard;
+    }
+
+    private static double stateValue(CircuitBreaker.State state) {
+        return switch (state) {
+            case CLOSED -> 0;
+            case HALF_OPEN -> 1;
+            case OPEN -> 2;
+        };
+    }
+
+    /**
+     * Los errores HTTP de Azure por la petición (documento inválido, 4xx) no abren el
+     * circuito; sí los 5xx, 429, timeouts y errores de red.
+     */
+    private static boolean isAzureFailure(Throwable failure) {
+        if (failure instanceof HttpResponseException httpFailure && httpFailure.getResponse() != null) {
+            return DependencyGuard.isDependencyFailure(httpFailure.getResponse().getStatusCode());
+        }
+        return true;
+    }
+
+    public DependencyGuard azure() {
+        return azure;
+    }
+
+    public DependencyGuard huggingFace() {
+        return huggingFace;
+    }
+
+    public DependencyRetryPolicy azureRetryPolicy() {
+        return azureRetryPolicy;
+    }
+
+    public DependencyRetryPolicy huggingFaceRetryPolicy() {
+        return huggingFaceRetryPolicy;
+    }
+
+    /**
+     * @return true si algún circuito está abierto
+     */
+    public boolean isAnyOpen() {
+        return List.of(azure, huggingFace).stream()
+                .anyMatch(guard -> guard.getState() == CircuitBreaker.State.OPEN);
+    }
+
+    /**
+     * Estado actual de cada dependencia, indexado por nombre.
+     */
+    public Map<String, DependencyStatus> getStatus() {
+        Map<String, DependencyStatus> status = new LinkedHashMap<>();
+        for (DependencyGuard guard : List.of(azure, huggingFace)) {
+            status.put(guard.getName(), new DependencyStatus(
+                guard.getState().name(),
+                guard.getFailureRate(),
+                guard.getConcurrencyLimit(),
+                guard.getInFlight()
+            ));
+        }
+        return status;
+    }
+}
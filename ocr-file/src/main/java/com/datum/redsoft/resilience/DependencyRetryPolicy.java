@@ -0,0 +1,155 @@
+package com.datum.redsoft.resilience;
+
+import com.azure.core.exception.HttpResponseException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.exception.UpstreamHttpException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Política de reintentos de una dependencia externa.
+ * <ul>
+ *   <li>Solo se reintentan errores transitorios: 408, 425, 429, 500, 502, 503, 504, errores de
+ *       red y timeouts. Un 400, un error de parseo o un rechazo del circuit breaker no.</li>
+ *   <li>La espera usa "decorrelated jitter": {@code min(maxDelay, random(base, anterior * 3))},
+ *       para que los nodos que fallaron a la vez no reintenten sincronizados.</li>
+ *   <li>Si la respuesta trae Retry-After se espera al menos eso (acotado por {@code maxRetryAfterMs}).</li>
+ *   <li>Cada reintento consume un token del {@link RetryBudget} global.</li>
+ * </ul>
+ * <p>Publica {@code dependency.retries{dependency,outcome}} con {@code scheduled},
+ * {@code not_retryable} o {@code budget_exhausted}.</p>
+ */
+public class DependencyRetryPolicy {
+
+    private final String name;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final long maxRetryAfterMs;
+    private final RetryBudget budget;
+    private final MeterRegistry meterRegistry;
+
+    public DependencyRetryPolicy(String name, int maxAttempts, long baseDelayMs, long maxDelayMs, long maxRetryAfterMs,
+                                 RetryBudget budget, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseDelayMs = Math.max(1, baseDelayMs);
+        this.maxDelayMs = Math.max(this.baseDelayMs, maxDelayMs);
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.budget = budget;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Registra una petición lógica nueva (no un reintento); alimenta el presupuesto.
+     */
+    public void onRequest() {
+        budget.deposit();
+    }
+
+    /**
+     * Indica si el fallo se debe reintentar; si es así consume un token del presupuesto.
+     */
+    public boolean shouldRetry(Throwable failure) {
+        if (!isRetryable(failure)) {
+            record("not_retryable");
+            return false;
+        }
+        return tryAcquireBudget();
+    }
+
+    /**
+     * Variante para respuestas HTTP que el SDK de Azure evalúa antes de convertirlas en excepción.
+     */
+    public boolean shouldRetry(int statusCode) {
+        if (!isRetryableStatus(statusCode)) {
+            record("not_retryable");
+            return false;
+        }
+        return tryAcquireBudget();
+    }
+
+    private boolean tryAcquireBudget() {
+        if (!budget.tryAcquire()) {
+            record("budget_exhausted");
+            return false;
+        }
+        record("scheduled");
+        return true;
+    }
+
+    /**
+     * Espera antes del siguiente intento.
+     *
+     * @param previousDelayMs espera anterior (0 en el primer reintento)
+     * @param failure fallo del intento, para respetar su Retry-After
+     */
+    public long nextDelayMs(long previousDelayMs, Throwable failure) {
+        long upper = Math.min(maxDelayMs, Math.max(baseDelayMs, previousDelayMs) * 3);
+        long delay = upper <= baseDelayMs ? baseDelayMs : ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1);
+        long retryAfter = retryAfterMillis(failure);
+        if (retryAfter > 0) {
+            delay = Math.max(delay, Math.min(retryAfter, maxRetryAfterMs));
+        }
+        return delay;
+    }
+
+    /**
+     * Espera sin estado para el intento {@code attempt} (1 = primer reintento), con el mismo
+     * rango que alcanza {@link #nextDelayMs(long, Throwable)} tras ese número de reintentos.
+     */
+    public long delayForAttemptMs(int attempt) {
+        long upper = baseDelayMs;
+        for (int i = 0; i < attempt && upper < maxDelayMs; i++) {
+            upper = Math.min(maxDelayMs, upper * 3);
+        }
+        return upper <= baseDelayMs ? baseDelayMs : ThreadLocalRandom.current().nextLong(baseDelayMs, upper + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public static boolean isRetryable(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        if (cause instanceof ServiceOverloadedException || cause instanceof JsonProcessingException) {
+            return false;
+        }
+        if (cause instanceof UpstreamHttpException upstream) {
+            return isRetryableStatus(upstream.getStatusCode());
+        }
+        if (cause instanceof HttpResponseException httpFailure && httpFailure.getResponse() != null) {
+            return isRetryableStatus(httpFailure.getResponse().getStatusCode());
+        }
+        return cause instanceof IOException || cause instanceof UncheckedIOException || cause instanceof TimeoutException;
+    }
+
+    public static boolean isRetryableStatus(int statusCode) {
+        return statusCode == 408 || statusCode == 425 || statusCode == 429
+                || statusCode == 500 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    private static long retryAfterMillis(Throwable failure) {
+        Throwable cause = unwrap(failure);
+        return cause instanceof UpstreamHttpException upstream ? upstream.getRetryAfterMillis() : -1;
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        Throwable cause = failure;
+        while ((cause instanceof CompletionException || cause instanceof ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("dependency.retries", "dependency", name, "outcome", outcome).increment();
+    }
+}
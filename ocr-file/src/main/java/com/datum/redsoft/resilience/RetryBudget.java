@@ -0,0 +1,41 @@
+package com.datum.redsoft.resilience;
+
+/**
+ * Presupuesto de reintentos tipo token bucket, compartido por todo el proceso.
+ * <p>Cada petición lógica deposita {@code ratio} tokens (hasta {@code burst}) y cada
+ * reintento consume uno. Con un ratio de 0.2 los reintentos no superan el 20% del tráfico
+ * en régimen estable: durante una caída de la dependencia el presupuesto se agota y las
+ * peticiones fallan sin multiplicar la carga sobre ella.</p>
+ */
+public class RetryBudget {
+
+    private final double ratio;
+    private final double burst;
+
+    private double tokens;
+
+    public RetryBudget(double ratio, int burst) {
+        this.ratio = ratio;
+        this.burst = burst;
+        this.tokens = burst;
+    }
+
+    public synchronized void deposit() {
+        tokens = Math.min(burst, tokens + ratio);
+    }
+
+    /**
+     * @return true si quedaba presupuesto para un reintento (y lo consume)
+     */
+    public synchronized boolean tryAcquire() {
+        if (tokens >= 1.0) {
+            tokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized double getTokens() {
+        return tokens;
+    }
+}
@@ -0,0 +1,125 @@
+package com.datum.redsoft.service;
+
+import com.azure.ai.documentintelligence.DocumentIntelligenceAdministrationClientBuilder;
+import com.azure.ai.documentintelligence.DocumentIntelligenceAsyncClient;
+import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
+import com.azure.ai.documentintelligence.DocumentIntelligenceClientBuilder;
+import com.azure.core.credential.AzureKeyCredential;
+import com.azure.core.http.HttpClient;
+import com.azure.core.http.policy.RetryPolicy;
+import com.azure.core.util.HttpClientOptions;
+import com.datum.redsoft.config.AzureConfig;
+import com.datum.redsoft.resilience.AzureRetryStrategy;
+import com.datum.redsoft.resilience.DependencyGuards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Clientes síncrono y asíncrono de Azure Document Intelligence, creados una sola vez al arrancar.
+ * <p>Ambos comparten un mismo cliente HTTP del SDK, con su pool de conexiones
+ * ({@code azure.document-intelligence.max-connections}), el timeout de conexión
+ * ({@code azure.document-intelligence.connect-timeout-seconds}) y el de respuesta y lectura
+ * ({@code azure.document-intelligence.timeout}), además de la política de reintentos de
+ * {@link DependencyGuards}.</p>
+ * <p>Con {@code azure.document-intelligence.warm-up} se consulta el modelo configurado antes de
+ * que el servidor HTTP acepte tráfico: así se cargan las clases del SDK, se abre la conexión
+ * TLS y se comprueba que el modelo existe, y la primera petición tras un despliegue tarda lo
+ * mismo que las siguientes. El tiempo se publica en {@code azure.client.warmup}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class AzureDocumentIntelligenceClients {
+
+    private static final Logger logger = Logger.getLogger(AzureDocumentIntelligenceClients.class.getName());
+
+    @Inject
+    AzureConfig azureConfig;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private volatile DocumentIntelligenceClient client;
+    private volatile DocumentIntelligenceAsyncClient asyncClient;
+    private HttpClient httpClient;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!azureConfig.isValid()) {
+            logger.warning("Configuración de Azure incompleta, los clientes se crearán con la primera petición");
+            return;
+        }
+        initialize();
+        if (azureConfig.isWarmUp()) {
+            warmUp();
+        }
+    }
+
+    public DocumentIntelligenceClient client() {
+        if (client == null) {
+            initialize();
+        }
+        return client;
+    }
+
+    public DocumentIntelligenceAsyncClient asyncClient() {
+        if (asyncClient == null) {
+            initialize();
+        }
+        return asyncClient;
+    }
+
+    private synchronized void initialize() {
+        if (client != null) {
+            return;
+        }
+        logger.info("Inicializando clientes de Azure Document Intelligence: " + azureConfig);
+        httpClient = HttpClient.createDefault(new HttpClientOptions()
+                .setConnectTimeout(Duration.ofSeconds(azureConfig.getConnectTimeoutSeconds()))
+                .setResponseTimeout(Duration.ofSeconds(azureConfig.getTimeoutSeconds()))
+                .setReadTimeout(Duration.ofSeconds(azureConfig.getTimeoutSeconds()))
+                .setMaximumConnectionPoolSize(azureConfig.getMaxConnections()));
+        DocumentIntelligenceClientBuilder builder = new DocumentIntelligenceClientBuilder()
+                .credential(new AzureKeyCredential(azureConfig.getApiKey()))
+                .endpoint(azureConfig.getEndpoint())
+                .httpClient(httpClient)
+                .retryPolicy(new RetryPolicy(new AzureRetryStrategy(dependencyGuards.azureRetryPolicy())));
+        asyncClient = builder.buildAsyncClient();
+        client = builder.buildClient();
+    }
+
+    /**
+     * Consulta el modelo configurado con el mismo cliente HTTP. Un fallo solo se registra:
+     * la aplicación arranca igual y el circuit breaker se encarga si Azure no responde.
+     */
+    private void warmUp() {
+        long start = System.nanoTime();
+        try {
+            new DocumentIntelligenceAdministrationClientBuilder()
+                    .credential(new AzureKeyCredential(azureConfig.getApiKey()))
+                    .endpoint(azureConfig.getEndpoint())
+                    .httpClient(httpClient)
+                    .buildClient()
+                    .getModel(azureConfig.getModel());
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("azure.client.warmup")
+                    .description("Tiempo de precalentamiento del cliente de Azure al arrancar")
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Cliente de Azure precalentado en " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms");
+        } catch (Exception e) {
+            logger.warning("No se pudo precalentar el cliente de Azure: " + e.getMessage());
+        }
+    }
+}
@@ -1,17 +1,40 @@
 package com.datum.redsoft.service;
 
-import com.azure.ai.documentintelligence.DocumentIntelligenceClient;
-import com.azure.ai.documentintelligence.DocumentIntelligenceClientBuilder;
 import com.azure.ai.documentintelligence.models.AnalyzeResult;
-import com.azure.core.credential.AzureKeyCredential;
+import com.azure.core.http.rest.RequestOptions;
 import com.azure.core.util.BinaryData;
+import com.datum.redsoft.config.OCRPageConfig;
 import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
 import com.datum.redsoft.service.interfaces.OCRService;
 import com.datum.redsoft.config.AzureConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
 import java.util.logging.Logger;
 
 /**
@@ -20,6 +43,10 @@ import java.util.logging.Logger;
  * Document Intelligence (anteriormente Azure Form Recognizer).</p>
  * <p>Sigue el principio de <b>Responsabilidad Única (SRP)</b>: solo se encarga
  * de la extracción de texto mediante OCR.</p>
+ * <p>Cada análisis pasa por el circuit breaker y el límite de concurrencia de Azure
+ * ({@link DependencyGuards}); si Azure está saturado la petición falla de inmediato con
+ * {@link ServiceOverloadedException} (503 con Retry-After). Un documento analizado por
+ * rangos ocupa un solo cupo, no uno por rango.</p>
  * 
  * @author Datum Redsoft
  * @version 1.0
@@ -29,70 +56,332 @@ public class AzureOCRService implements OCRService {
     
     private static final Logger logger = Logger.getLogger(AzureOCRService.class.getName());
     
+    /**
+     * La API v4 de Document Intelligence solo acepta el documento dentro de un cuerpo JSON
+     * ({@code base64Source}), por lo que el cuerpo se arma con estos delimitadores alrededor
+     * del contenido codificado, sin pasar por String.format.
+     */
+    private static final byte[] REQUEST_PREFIX = "{\"base64Source\": \"".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] REQUEST_SUFFIX = "\"}".getBytes(StandardCharsets.US_ASCII);
+    
     @Inject
     AzureConfig azureConfig;
     
-    private DocumentIntelligenceClient client;
+    @Inject
+    OCRPageConfig pageConfig;
+    
+    @Inject
+    DocumentPageCounter pageCounter;
+    
+    @Inject
+    DependencyGuards dependencyGuards;
+    
+    @Inject
+    AzureDocumentIntelligenceClients azureClients;
+    
+    @Inject
+    PdfTextLayerExtractor textLayerExtractor;
+    
+    @Inject
+    TiffPageSplitter tiffPageSplitter;
     
     /**
-     * Inicializa el cliente de Azure Document Intelligence de forma lazy.
-     * <p>El cliente solo se crea la primera vez que se necesita y luego se reutiliza.</p>
+     * Executor compartido para los rangos de páginas; su tamaño es el presupuesto global
+     * de llamadas concurrentes a Azure por documentos multipágina.
      */
-    private void initializeClient() {
-        if (client == null) {
-            logger.info("Inicializando cliente de Azure Document Intelligence");
-            client = new DocumentIntelligenceClientBuilder()
-                    .credential(new AzureKeyCredential(azureConfig.getApiKey()))
-                    .endpoint(azureConfig.getEndpoint())
-                    .buildClient();
-        }
+    private ExecutorService pageExecutor;
+    
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        pageExecutor = Executors.newFixedThreadPool(pageConfig.getMaxConcurrency(), runnable -> {
+            Thread thread = new Thread(runnable, "ocr-page-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @PreDestroy
+    void shutdown() {
+        pageExecutor.shutdownNow();
     }
     
     @Override
     public String extractTextFromImage(byte[] imageData) throws OCRException {
+        return analyzeDocument(BinaryData.fromBytes(buildRequestBody(imageData)), null, azureConfig.getModel()).text;
+    }
+    
+    /**
+     * Extrae texto de un documento en disco sin cargarlo en el heap.
+     * <p>El cuerpo JSON se genera en un archivo temporal codificando el documento en Base64
+     * en streaming, y se envía a Azure con {@link BinaryData#fromFile(Path)}, que además es
+     * reintentable por el pipeline HTTP del SDK.</p>
+     * <p>Los PDF y TIFF con más páginas que {@code ocr.pages.chunk-size} se analizan por
+     * rangos en paralelo, de modo que el tiempo total se aproxima al del rango más lento y no
+     * a la suma de todas las páginas. Los PDF y TIFF se dividen localmente en un archivo por
+     * rango, de modo que cada petición sube solo sus páginas; un TIFF que ImageIO no puede
+     * reescribir se envía entero en una única petición.</p>
+     * <p>Si el documento trae una selección de páginas ({@link OCRDocument#getPageSelection()})
+     * se analizan solo esas, con el parámetro {@code pages} de Azure y en una única petición.</p>
+     * <p>Registra en el documento la calidad del texto ({@link OCRDocument#getTextQuality()}).</p>
+     */
+    @Override
+    public String extractText(OCRDocument document) throws OCRException {
+        return extractText(document, azureConfig.getModel());
+    }
+    
+    /**
+     * Igual que {@link #extractText(OCRDocument)} pero con otro modelo de Azure, p. ej. uno de
+     * mayor fidelidad para repetir el OCR de un texto de baja calidad.
+     */
+    public String extractText(OCRDocument document, String modelId) throws OCRException {
+        Path requestBody = null;
         try {
-            initializeClient();
-            logger.info("Iniciando extracción de texto con Azure OCR");
-            
-            String base64Data = Base64.getEncoder().encodeToString(imageData);
-            String requestBody = String.format("{\"base64Source\": \"%s\"}", base64Data);
-            
-            var poller = client.beginAnalyzeDocument(azureConfig.getModel(), BinaryData.fromString(requestBody), null);
-            BinaryData resultData = poller.getFinalResult();
-            AnalyzeResult analyzeResult = resultData.toObject(AnalyzeResult.class);
-            
-            StringBuilder extractedText = new StringBuilder();
-            
-            if (analyzeResult.getContent() != null) {
-                extractedText.append(analyzeResult.getContent());
-            }
-            
-            // Estrategia de fallback: si no hay contenido directo, extraer por páginas y líneas
-            if (extractedText.length() == 0 && analyzeResult.getPages() != null) {
-                analyzeResult.getPages().forEach(page -> {
-                    if (page.getLines() != null) {
-                        page.getLines().forEach(line -> {
-                            extractedText.append(line.getContent()).append("\n");
-                        });
+            AnalyzedText analyzed;
+            if (document.getPageSelection() != null) {
+                requestBody = writeRequestBody(document.getPath());
+                RequestOptions options = new RequestOptions().addQueryParam("pages", document.getPageSelection());
+                analyzed = analyzeDocument(BinaryData.fromFile(requestBody), options, modelId);
+            } else {
+                int pageCount = pageConfig.isParallelEnabled() ? pageCounter.countPages(document) : 1;
+                if (pageCount <= pageConfig.getChunkSize()) {
+                    requestBody = writeRequestBody(document.getPath());
+                    analyzed = analyzeDocument(BinaryData.fromFile(requestBody), null, modelId);
+                } else if (document.getContentType().startsWith("application/pdf")) {
+                    analyzed = analyzeParts(textLayerExtractor.splitPages(document.getPath(), pageConfig.getChunkSize()),
+                            pageCount, modelId);
+                } else {
+                    List<Path> parts = splitTiff(document.getPath());
+                    if (parts != null) {
+                        analyzed = analyzeParts(parts, pageCount, modelId);
+                    } else {
+                        requestBody = writeRequestBody(document.getPath());
+                        analyzed = analyzeDocument(BinaryData.fromFile(requestBody), null, modelId);
                     }
-                });
+                }
             }
+            document.setTextQuality(analyzed.quality);
+            return analyzed.text;
+        } catch (IOException e) {
+            logger.severe("Error al preparar el documento para Azure OCR: " + e.getMessage());
+            throw new OCRException("Error al procesar la imagen con Azure OCR", e);
+        } finally {
+            deleteQuietly(requestBody);
+        }
+    }
+    
+    private AnalyzedText analyzeDocument(BinaryData requestBody, RequestOptions options, String modelId) throws OCRException {
+        try {
+            logger.info("Iniciando extracción de texto con Azure OCR (" + modelId + ")");
             
-            String text = extractedText.toString().trim();
-            logger.info("Texto extraído exitosamente. Longitud: " + text.length());
+            AnalyzedText analyzed = analyze(requestBody, options, modelId);
+            logger.info("Texto extraído exitosamente. Longitud: " + analyzed.text.length() + ", " + analyzed.quality);
             
-            if (text.isEmpty()) {
+            if (analyzed.text.isEmpty()) {
                 throw new OCRException("No se pudo extraer texto de la imagen");
             }
             
-            return text;
+            return analyzed;
             
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             logger.severe("Error en extracción OCR: " + e.getMessage());
             throw new OCRException("Error al procesar la imagen con Azure OCR", e);
         }
     }
     
+    /**
+     * Analiza el documento por rangos de páginas en paralelo y une el texto en orden de página.
+     * <p>El documento ocupa un único cupo de {@link DependencyGuards#azure()} y una única
+     * petición del presupuesto de reintentos, igual que si se enviara entero: si Azure está
+     * saturado se rechaza antes de enviar ningún rango. Cuando un rango falla, los que aún no
+     * han empezado se descartan sin llamar a Azure.</p>
+     */
+    private AnalyzedText analyzePageRanges(int pageCount, List<String> ranges, IntFunction<AnalyzedText> rangeAnalyzer)
+            throws OCRException {
+        logger.info("Iniciando extracción de texto con Azure OCR: " + pageCount + " páginas en " + ranges.size() + " rangos");
+        
+        DependencyGuard.Permit permit = dependencyGuards.azure().acquire();
+        dependencyGuards.azureRetryPolicy().onRequest();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+        List<CompletableFuture<AnalyzedText>> chunks = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            int index = i;
+            chunks.add(CompletableFuture.supplyAsync(() -> {
+                if (firstFailure.get() != null) {
+                    throw new CancellationException("Rango " + ranges.get(index) + " descartado: falló otro rango del documento");
+                }
+                try {
+                    return rangeAnalyzer.apply(index);
+                } catch (RuntimeException e) {
+                    firstFailure.compareAndSet(null, e);
+                    throw e;
+                }
+            }, pageExecutor));
+        }
+        
+        StringBuilder merged = new StringBuilder();
+        List<OCRTextQuality> qualities = new ArrayList<>();
+        try {
+            for (CompletableFuture<AnalyzedText> chunk : chunks) {
+                AnalyzedText analyzed = chunk.join();
+                if (!analyzed.text.isEmpty()) {
+                    merged.append(analyzed.text).append("\n");
+                }
+                qualities.add(analyzed.quality);
+            }
+            permit.success();
+        } catch (CompletionException e) {
+            chunks.forEach(chunk -> chunk.cancel(false));
+            Throwable cause = firstFailure.get() != null ? firstFailure.get() : e.getCause() != null ? e.getCause() : e;
+            permit.complete(cause);
+            if (cause instanceof ServiceOverloadedException overloaded) {
+                throw overloaded;
+            }
+            logger.severe("Error en extracción OCR por rangos: " + cause.getMessage());
+            throw new OCRException("Error al procesar la imagen con Azure OCR", cause);
+        } catch (RuntimeException | Error e) {
+            permit.release();
+            throw e;
+        }
+        
+        String text = merged.toString().trim();
+        logger.info("Texto extraído exitosamente. Longitud: " + text.length());
+        if (text.isEmpty()) {
+            throw new OCRException("No se pudo extraer texto de la imagen");
+        }
+        return new AnalyzedText(text, OCRTextQuality.combine(qualities));
+    }
+    
+    /**
+     * Analiza cada parte del documento, ya dividido localmente en un archivo por rango, con su
+     * propio cuerpo, de modo que cada petición sube solo sus páginas y no el documento completo.
+     * Elimina las partes al terminar.
+     */
+    private AnalyzedText analyzeParts(List<Path> parts, int pageCount, String modelId) throws OCRException {
+        try {
+            return analyzePageRanges(pageCount, pageRanges(pageCount, pageConfig.getChunkSize()),
+                    index -> analyzePart(parts.get(index), modelId));
+        } finally {
+            parts.forEach(this::deleteQuietly);
+        }
+    }
+    
+    /**
+     * @return las partes del TIFF, o null si ImageIO no puede leerlo o reescribir su compresión
+     */
+    private List<Path> splitTiff(Path tiff) {
+        try {
+            return tiffPageSplitter.splitPages(tiff, pageConfig.getChunkSize());
+        } catch (IOException | RuntimeException e) {
+            logger.warning("No se pudo dividir el TIFF por rangos, se envía en una única petición: " + e.getMessage());
+            return null;
+        }
+    }
+    
+    private AnalyzedText analyzePart(Path part, String modelId) {
+        Path requestBody = null;
+        try {
+            requestBody = writeRequestBody(part);
+            return request(BinaryData.fromFile(requestBody), null, modelId);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteQuietly(requestBody);
+        }
+    }
+    
+    /**
+     * Ejecuta un análisis en Azure y arma el texto del resultado (puede estar vacío) con su calidad.
+     *
+     * @param options opciones de la petición, p. ej. el parámetro {@code pages}; null para el documento completo
+     */
+    private AnalyzedText analyze(BinaryData requestBody, RequestOptions options, String modelId) {
+        dependencyGuards.azureRetryPolicy().onRequest();
+        return dependencyGuards.azure().call(() -> request(requestBody, options, modelId));
+    }
+    
+    /**
+     * Llamada a Azure sin cupo propio; el llamador ya tiene el permiso del documento.
+     */
+    private AnalyzedText request(BinaryData requestBody, RequestOptions options, String modelId) {
+        var poller = azureClients.client().beginAnalyzeDocument(modelId, requestBody, options);
+        AnalyzeResult result = poller.getFinalResult().toObject(AnalyzeResult.class);
+        return new AnalyzedText(AzureResultTextAssembler.assemble(result), AzureResultTextAssembler.quality(result));
+    }
+    
+    /**
+     * Divide las páginas 1..pageCount en rangos consecutivos en el formato de Azure ("1-4", "5-8", ...).
+     */
+    static List<String> pageRanges(int pageCount, int chunkSize) {
+        List<String> ranges = new ArrayList<>();
+        for (int first = 1; first <= pageCount; first += chunkSize) {
+            int last = Math.min(first + chunkSize - 1, pageCount);
+            ranges.add(first == last ? String.valueOf(first) : first + "-" + last);
+        }
+        return ranges;
+    }
+    
+    /**
+     * Selección con las {@code edgePages} primeras y últimas páginas ("1-2,9-10"), que es donde
+     * suelen estar el emisor, la fecha y los totales.
+     *
+     * @return la selección, o null si ya abarcaría todo el documento
+     */
+    static String edgePageSelection(int pageCount, int edgePages) {
+        if (edgePages <= 0 || edgePages * 2 >= pageCount) {
+            return null;
+        }
+        String head = edgePages == 1 ? "1" : "1-" + edgePages;
+        int tailStart = pageCount - edgePages + 1;
+        String tail = tailStart == pageCount ? String.valueOf(pageCount) : tailStart + "-" + pageCount;
+        return head + "," + tail;
+    }
+    
+    /**
+     * Arma el cuerpo JSON en un único arreglo: prefijo + Base64 + sufijo.
+     * Compartido con {@link AzureReactiveOCRService}.
+     */
+    static byte[] buildRequestBody(byte[] imageData) {
+        byte[] encoded = Base64.getEncoder().encode(imageData);
+        byte[] body = new byte[REQUEST_PREFIX.length + encoded.length + REQUEST_SUFFIX.length];
+        System.arraycopy(REQUEST_PREFIX, 0, body, 0, REQUEST_PREFIX.length);
+        System.arraycopy(encoded, 0, body, REQUEST_PREFIX.length, encoded.length);
+        System.arraycopy(REQUEST_SUFFIX, 0, body, REQUEST_PREFIX.length + encoded.length, REQUEST_SUFFIX.length);
+        return body;
+    }
+    
+    /**
+     * Escribe el cuerpo JSON en un archivo temporal codificando el documento en streaming.
+     */
+    private Path writeRequestBody(Path document) throws IOException {
+        Path requestBody = Files.createTempFile("azure-di-request-", ".json");
+        try {
+            Files.write(requestBody, REQUEST_PREFIX);
+            try (OutputStream encoder = Base64.getEncoder().wrap(
+                    Files.newOutputStream(requestBody, StandardOpenOption.APPEND))) {
+                Files.copy(document, encoder);
+            }
+            Files.write(requestBody, REQUEST_SUFFIX, StandardOpenOption.APPEND);
+            return requestBody;
+        } catch (IOException e) {
+            deleteQuietly(requestBody);
+            throw e;
+        }
+    }
+    
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("No se pudo eliminar el archivo temporal " + file + ": " + e.getMessage());
+        }
+    }
+    
     @Override
     public boolean isServiceAvailable() {
         try {
@@ -102,4 +391,14 @@ public class AzureOCRService implements OCRService {
             return false;
         }
     }
-}
\ No newline at end of file
+    
+    private static final class AnalyzedText {
+        private final String text;
+        private final OCRTextQuality quality;
+        
+        private AnalyzedText(String text, OCRTextQuality quality) {
+            this.text = text;
+            this.quality = quality;
+        }
+    }
+}
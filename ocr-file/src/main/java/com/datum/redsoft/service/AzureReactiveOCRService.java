@@ -0,0 +1,84 @@
+package com.datum.redsoft.service;
+
+import com.azure.ai.documentintelligence.models.AnalyzeResult;
+import com.azure.core.util.BinaryData;
+import com.azure.core.util.polling.AsyncPollResponse;
+import com.datum.redsoft.config.AzureConfig;
+import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.datum.redsoft.service.interfaces.ReactiveOCRService;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.logging.Logger;
+
+/**
+ * Implementación no bloqueante del servicio OCR usando el cliente asíncrono de
+ * Azure Document Intelligence.
+ * <p>El polling de la operación de análisis lo realiza el SDK sobre su propio
+ * scheduler, por lo que ningún hilo queda bloqueado mientras Azure procesa el
+ * documento.</p>
+ * <p>Comparte con {@link AzureOCRService} el circuit breaker y el límite de concurrencia
+ * de Azure.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class AzureReactiveOCRService implements ReactiveOCRService {
+
+    private static final Logger logger = Logger.getLogger(AzureReactiveOCRService.class.getName());
+
+    @Inject
+    AzureConfig azureConfig;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    AzureDocumentIntelligenceClients azureClients;
+
+    @Override
+    public Uni<String> extractTextFromImage(byte[] imageData) {
+        return Uni.createFrom().deferred(() -> {
+                    DependencyGuard.Permit permit = dependencyGuards.azure().acquire();
+                    dependencyGuards.azureRetryPolicy().onRequest();
+                    return Uni.createFrom().completionStage(() -> {
+                                logger.info("Iniciando extracción de texto con Azure OCR (asíncrono)");
+                                BinaryData requestBody = BinaryData.fromBytes(AzureOCRService.buildRequestBody(imageData));
+                                return azureClients.asyncClient()
+                                        .beginAnalyzeDocument(azureConfig.getModel(), requestBody, null)
+                                        .last()
+                                        .flatMap(AsyncPollResponse::getFinalResult)
+                                        .toFuture();
+                            })
+                            .onItemOrFailure().invoke((item, failure) -> permit.complete(failure))
+                            .onCancellation().invoke(permit::release);
+                })
+                .onItem().transform(resultData -> AzureResultTextAssembler.assemble(resultData.toObject(AnalyzeResult.class)))
+                .onItem().transformToUni(text -> {
+                    if (text.isEmpty()) {
+                        return Uni.createFrom().failure(new OCRException("No se pudo extraer texto de la imagen"));
+                    }
+                    logger.info("Texto extraído exitosamente. Longitud: " + text.length());
+                    return Uni.createFrom().item(text);
+                })
+                .onFailure(failure -> !(failure instanceof ServiceOverloadedException)).transform(e -> {
+                    logger.severe("Error en extracción OCR: " + e.getMessage());
+                    return new OCRException("Error al procesar la imagen con Azure OCR", e);
+                });
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        try {
+            return azureConfig.isValid();
+        } catch (Exception e) {
+            logger.warning("Servicio Azure OCR no disponible: " + e.getMessage());
+            return false;
+        }
+    }
+}
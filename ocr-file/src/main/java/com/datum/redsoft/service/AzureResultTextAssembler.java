@@ -0,0 +1,72 @@
+package com.datum.redsoft.service;
+
+import com.azure.ai.documentintelligence.models.AnalyzeResult;
+import com.azure.ai.documentintelligence.models.DocumentPage;
+import com.azure.ai.documentintelligence.models.DocumentWord;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+
+/**
+ * Convierte el resultado de Azure Document Intelligence en texto plano y calcula su calidad.
+ * <p>Compartido por los clientes síncrono y asíncrono de Azure.</p>
+ */
+final class AzureResultTextAssembler {
+
+    private AzureResultTextAssembler() {
+    }
+
+    /**
+     * Usa el contenido directo del resultado y, si no existe, arma el texto línea por línea
+     * recorriendo las páginas.
+     *
+     * @return texto extraído sin espacios al inicio ni al final (puede estar vacío)
+     */
+    static String assemble(AnalyzeResult analyzeResult) {
+        StringBuilder extractedText = new StringBuilder();
+
+        if (analyzeResult.getContent() != null) {
+            extractedText.append(analyzeResult.getContent());
+        }
+
+        // Estrategia de fallback: si no hay contenido directo, extraer por páginas y líneas
+        if (extractedText.length() == 0 && analyzeResult.getPages() != null) {
+            analyzeResult.getPages().forEach(page -> {
+                if (page.getLines() != null) {
+                    page.getLines().forEach(line -> {
+                        extractedText.append(line.getContent()).append("\n");
+                    });
+                }
+            });
+        }
+
+        return extractedText.toString().trim();
+    }
+
+    /**
+     * Calcula la calidad del texto con la confianza de cada palabra, ponderada por su longitud.
+     *
+     * @return calidad 0 si el resultado no trae palabras
+     */
+    static OCRTextQuality quality(AnalyzeResult analyzeResult) {
+        double weightedConfidence = 0;
+        long characters = 0;
+        int words = 0;
+        int lowConfidenceWords = 0;
+        if (analyzeResult.getPages() != null) {
+            for (DocumentPage page : analyzeResult.getPages()) {
+                if (page.getWords() == null) {
+                    continue;
+                }
+                for (DocumentWord word : page.getWords()) {
+                    int length = word.getContent() != null ? word.getContent().length() : 0;
+                    weightedConfidence += word.getConfidence() * length;
+                    characters += length;
+                    words++;
+                    if (word.getConfidence() < OCRTextQuality.LOW_WORD_CONFIDENCE) {
+                        lowConfidenceWords++;
+                    }
+                }
+            }
+        }
+        return new OCRTextQuality(characters == 0 ? 0.0 : weightedConfidence / characters, words, lowConfidenceWords);
+    }
+}
@@ -0,0 +1,109 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.cache.ContentHash;
+import com.datum.redsoft.cache.OCRResultStore;
+import com.datum.redsoft.config.OCRCacheConfig;
+import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.service.interfaces.OCRService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Decorador de {@link OCRService} que reutiliza el texto de archivos ya procesados.
+ * <p>La clave es el SHA-256 de los bytes recibidos, de modo que un mismo recibo subido
+ * de nuevo tras un error de validación se resuelve en milisegundos sin volver a pagar
+ * un análisis de Azure Document Intelligence. Registra aciertos y fallos en las
+ * métricas {@code ocr.cache.requests}.</p>
+ * <p>Solo se guarda el texto: un acierto deja sin calidad OCR al documento
+ * ({@link OCRDocument#getTextQuality()} nulo) y la extracción sigue la ruta habitual.</p>
+ * <p>Con una selección de páginas ({@link OCRDocument#getPageSelection()}) se consulta la caché,
+ * que devuelve el texto completo, pero no se guarda el resultado parcial. Si se pide repetir el
+ * OCR a resolución completa ({@link OCRDocument#isFullResolutionRequired()}) la caché no se
+ * consulta y el nuevo texto reemplaza al guardado.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@Decorator
+@Priority(10)
+public class CachingOCRService implements OCRService {
+
+    private static final Logger logger = Logger.getLogger(CachingOCRService.class.getName());
+
+    @Inject
+    @Delegate
+    OCRService delegate;
+
+    @Inject
+    OCRResultStore resultStore;
+
+    @Inject
+    OCRCacheConfig cacheConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Override
+    public String extractTextFromImage(byte[] imageData) throws OCRException {
+        if (!cacheConfig.isEnabled()) {
+            return delegate.extractTextFromImage(imageData);
+        }
+
+        String fileHash = ContentHash.sha256Hex(imageData);
+        Optional<String> cached = lookup(fileHash);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        String extractedText = delegate.extractTextFromImage(imageData);
+        resultStore.put(fileHash, extractedText);
+        return extractedText;
+    }
+
+    /**
+     * Usa el hash calculado al copiar el documento a disco, sin volver a leerlo.
+     */
+    @Override
+    public String extractText(OCRDocument document) throws OCRException {
+        if (!cacheConfig.isEnabled()) {
+            return delegate.extractText(document);
+        }
+
+        Optional<String> cached = document.isFullResolutionRequired()
+                ? Optional.empty()
+                : lookup(document.getSha256());
+        if (cached.isPresent()) {
+            document.setPageSelection(null);
+            return cached.get();
+        }
+
+        String extractedText = delegate.extractText(document);
+        if (document.getPageSelection() == null) {
+            resultStore.put(document.getSha256(), extractedText);
+        }
+        return extractedText;
+    }
+
+    private Optional<String> lookup(String fileHash) {
+        Optional<String> cached = resultStore.get(fileHash);
+        if (cached.isPresent()) {
+            meterRegistry.counter("ocr.cache.requests", "result", "hit").increment();
+            logger.info("Resultado OCR obtenido de caché (sha256=" + fileHash + ")");
+        } else {
+            meterRegistry.counter("ocr.cache.requests", "result", "miss").increment();
+        }
+        return cached;
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return delegate.isServiceAvailable();
+    }
+}
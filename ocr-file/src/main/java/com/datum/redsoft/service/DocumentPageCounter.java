@@ -0,0 +1,70 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.model.ocr.OCRDocument;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.logging.Logger;
+
+/**
+ * Cuenta las páginas de un documento en disco sin decodificar su contenido.
+ * <p>Soporta PDF (PDFBox) y TIFF multipágina (ImageIO); cualquier otro formato, o un
+ * archivo que no se pueda leer, se considera de una sola página para que el OCR siga
+ * el camino de una única llamada.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class DocumentPageCounter {
+
+    private static final Logger logger = Logger.getLogger(DocumentPageCounter.class.getName());
+
+    /**
+     * @param document documento ya copiado a disco
+     * @return número de páginas, 1 si no se puede determinar
+     */
+    public int countPages(OCRDocument document) {
+        try {
+            String contentType = document.getContentType();
+            if (contentType.startsWith("application/pdf")) {
+                return countPdfPages(document);
+            }
+            if (contentType.startsWith("image/tiff")) {
+                return countTiffFrames(document);
+            }
+            return 1;
+        } catch (Exception e) {
+            logger.warning("No se pudo contar las páginas del documento: " + e.getMessage());
+            return 1;
+        }
+    }
+
+    private int countPdfPages(OCRDocument document) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(document.getPath().toFile())) {
+            return Math.max(1, pdf.getNumberOfPages());
+        }
+    }
+
+    private int countTiffFrames(OCRDocument document) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(document.getPath().toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return 1;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, true);
+                return Math.max(1, reader.getNumImages(true));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.cache.ContentHash;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.logging.Logger;
+
+/**
+ * Copia los archivos recibidos a disco en streaming, calculando su SHA-256 y
+ * aplicando los límites de tamaño sin cargarlos completos en memoria.
+ * <p>El límite superior se verifica primero contra {@code Content-Length} (cuando el
+ * cliente lo envía) y después durante la copia, deteniéndose en cuanto se supera.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class DocumentSpooler {
+
+    private static final Logger logger = Logger.getLogger(DocumentSpooler.class.getName());
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Inject
+    OCRFileValidator fileValidator;
+
+    /**
+     * Copia el stream a un archivo temporal.
+     *
+     * @param inputStream contenido del archivo
+     * @param contentType tipo MIME ya validado
+     * @param declaredLength valor de Content-Length, o null si no se conoce
+     * @return documento respaldado por un archivo temporal (se elimina al cerrarlo)
+     * @throws IOException si hay error de lectura o escritura
+     * @throws IllegalArgumentException si el tamaño está fuera de los límites permitidos
+     */
+    public OCRDocument spool(InputStream inputStream, String contentType, Long declaredLength) throws IOException {
+        if (declaredLength != null && declaredLength > OCRFileValidator.MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("El archivo es demasiado grande. Máximo permitido: 10MB");
+        }
+
+        Path target = Files.createTempFile("ocr-upload-", ".bin");
+        try {
+            MessageDigest digest = ContentHash.newDigest();
+            long size = copyBounded(inputStream, target, digest);
+            fileValidator.validateFileSize(size);
+            return new OCRDocument(target, contentType, size, ContentHash.toHex(digest.digest()), true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(target);
+            throw e;
+        }
+    }
+
+    /**
+     * Crea un documento a partir de un archivo que ya está en disco (por ejemplo, un
+     * upload multipart). El archivo no se elimina al cerrar el documento.
+     *
+     * @param file archivo existente
+     * @param contentType tipo MIME ya validado
+     * @return documento con tamaño y hash calculados
+     * @throws IOException si el archivo no se puede leer
+     */
+    public OCRDocument fromFile(Path file, String contentType) throws IOException {
+        long size = Files.size(file);
+        fileValidator.validateFileSize(size);
+
+        MessageDigest digest = ContentHash.newDigest();
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int bytesRead;
+            while ((bytesRead = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, bytesRead);
+            }
+        }
+        return new OCRDocument(file, contentType, size, ContentHash.toHex(digest.digest()), false);
+    }
+
+    private long copyBounded(InputStream inputStream, Path target, MessageDigest digest) throws IOException {
+        long total = 0;
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int bytesRead;
+
+        try (OutputStream out = Files.newOutputStream(target)) {
+            while ((bytesRead = inputStream.read(buffer)) != -1) {
+                total += bytesRead;
+                if (total > OCRFileValidator.MAX_FILE_SIZE) {
+                    throw new IllegalArgumentException("El archivo es demasiado grande. Máximo permitido: 10MB");
+                }
+                digest.update(buffer, 0, bytesRead);
+                out.write(buffer, 0, bytesRead);
+            }
+        }
+
+        logger.fine("Archivo copiado a " + target + " (" + total + " bytes)");
+        return total;
+    }
+}
@@ -0,0 +1,64 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.dto.response.InvoiceDataResponse;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+
+import java.util.Locale;
+
+/**
+ * Confianza de un resultado de extracción a partir de las señales disponibles.
+ * <p>Es la fracción de campos principales encontrados (emisor, fecha, total y moneda)
+ * multiplicada por la media de la calidad del texto OCR y la confianza del extractor por
+ * reglas, cuando se conocen. Sin ninguna de las dos queda solo la cobertura de campos.</p>
+ */
+final class ExtractionConfidence {
+
+    private static final String NOT_FOUND = "No encontrado";
+    /** Valor que el prompt del LLM pide para los campos ausentes */
+    private static final String LLM_NOT_FOUND = "Not found";
+
+    private ExtractionConfidence() {
+    }
+
+    /**
+     * @param quality calidad del texto OCR, o null si no se conoce
+     * @param ruleConfidence confianza de las reglas sobre el mismo texto, o null si no se evaluaron
+     * @return confianza entre 0.0 y 1.0
+     */
+    static double estimate(InvoiceDataResponse data, OCRTextQuality quality, Double ruleConfidence) {
+        double coverage = (found(data.getCompanyName()) + found(data.getInvoiceDate())
+                + foundAmount(data.getTotalAmount()) + found(data.getCurrency())) / 4.0;
+        double signals = 0;
+        int count = 0;
+        if (quality != null) {
+            signals += quality.getScore();
+            count++;
+        }
+        if (ruleConfidence != null) {
+            signals += ruleConfidence;
+            count++;
+        }
+        double confidence = count == 0 ? coverage : coverage * signals / count;
+        return Math.round(confidence * 1000) / 1000.0;
+    }
+
+    /**
+     * Indica si un campo extraído está vacío o trae el marcador de ausencia, sea el del
+     * servicio ("No encontrado") o el que devuelve el LLM ("Not found").
+     */
+    static boolean isMissing(String value) {
+        if (value == null || value.isBlank()) {
+            return true;
+        }
+        String trimmed = value.trim();
+        return NOT_FOUND.equalsIgnoreCase(trimmed) || LLM_NOT_FOUND.equalsIgnoreCase(trimmed);
+    }
+
+    private static int found(String value) {
+        return isMissing(value) ? 0 : 1;
+    }
+
+    private static int foundAmount(String value) {
+        return found(value) == 0 || value.trim().toLowerCase(Locale.ROOT).matches("0+([.,]0+)?") ? 0 : 1;
+    }
+}
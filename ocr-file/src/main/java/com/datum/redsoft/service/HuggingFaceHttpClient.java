@@ -0,0 +1,184 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.model.llama.LlamaRequest;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Cliente HTTP compartido por todas las llamadas al router de Hugging Face.
+ * <p>Un único {@link HttpClient} negocia HTTP/2 (con vuelta a HTTP/1.1 si el servidor no lo
+ * ofrece), de modo que las extracciones concurrentes multiplexan sobre la misma conexión TLS
+ * en lugar de abrir una por servicio. Aplica {@code huggingface.connect-timeout-seconds} al
+ * conectar y {@code huggingface.timeout-seconds} a cada petición, y completa las respuestas
+ * asíncronas en un executor propio de {@code huggingface.http.executor-threads} hilos.</p>
+ * <p>Al arrancar abre la conexión con una petición HEAD para que el handshake TLS no recaiga
+ * en la primera extracción. Publica {@code huggingface.http.responses{version}},
+ * {@code huggingface.http.connections{reused}} (inferido de la sesión TLS de cada respuesta),
+ * el timer {@code huggingface.http.warmup} y las métricas del executor
+ * ({@code executor.*{name=huggingface-http}}).</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class HuggingFaceHttpClient {
+
+    private static final Logger logger = Logger.getLogger(HuggingFaceHttpClient.class.getName());
+
+    /**
+     * Sesiones TLS recientes que se recuerdan para distinguir conexiones nuevas de reutilizadas.
+     */
+    private static final int TRACKED_SESSIONS = 256;
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ExecutorService executor;
+    private HttpClient httpClient;
+
+    private final Map<String, Boolean> seenSessions = new LinkedHashMap<>(TRACKED_SESSIONS, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+            return size() > TRACKED_SESSIONS;
+        }
+    };
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = ExecutorServiceMetrics.monitor(meterRegistry,
+            Executors.newFixedThreadPool(hfConfig.getHttpExecutorThreads(), runnable -> {
+                Thread thread = new Thread(runnable, "hf-http-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }),
+            "huggingface-http");
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(hfConfig.getConnectTimeoutSeconds()))
+                .executor(executor)
+                .build();
+        logger.info("Cliente HTTP de Hugging Face inicializado: " + hfConfig);
+    }
+
+    /**
+     * Abre la conexión con el router al arrancar sin bloquear el inicio de la aplicación.
+     * Cualquier respuesta (401, 405...) sirve: lo que interesa es el handshake.
+     */
+    void onStart(@Observes StartupEvent event) {
+        if (!hfConfig.isHttpWarmUp() || hfConfig.getApiUrl() == null || hfConfig.getApiUrl().isBlank()) {
+            return;
+        }
+        HttpRequest warmUp = HttpRequest.newBuilder()
+                .uri(URI.create(hfConfig.getApiUrl()))
+                .timeout(Duration.ofSeconds(hfConfig.getTimeoutSeconds()))
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        long start = System.nanoTime();
+        sendAsync(warmUp, HttpResponse.BodyHandlers.discarding()).whenComplete((response, failure) -> {
+            long elapsed = System.nanoTime() - start;
+            if (failure != null) {
+                logger.warning("No se pudo precalentar la conexión con Hugging Face: " + failure.getMessage());
+                return;
+            }
+            Timer.builder("huggingface.http.warmup")
+                    .description("Tiempo de apertura de la conexión con el router al arrancar")
+                    .register(meterRegistry)
+                    .record(elapsed, TimeUnit.NANOSECONDS);
+            logger.info("Conexión con Hugging Face precalentada en " + TimeUnit.NANOSECONDS.toMillis(elapsed)
+                    + " ms (" + response.version() + ")");
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpClient.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Construye la petición al router serializando el request una sola vez; el
+     * {@link HttpRequest} resultante es inmutable y se puede reenviar en cada reintento.
+     */
+    public HttpRequest buildRequest(LlamaRequest request) throws JsonProcessingException {
+        return requestBuilder(request).build();
+    }
+
+    /**
+     * Igual que {@link #buildRequest(LlamaRequest)} pero pidiendo la respuesta como SSE.
+     */
+    public HttpRequest buildStreamingRequest(LlamaRequest request) throws JsonProcessingException {
+        return requestBuilder(request)
+                .header("Accept", "text/event-stream")
+                .build();
+    }
+
+    private HttpRequest.Builder requestBuilder(LlamaRequest request) throws JsonProcessingException {
+        return HttpRequest.newBuilder()
+                .uri(URI.create(hfConfig.getApiUrl()))
+                .timeout(Duration.ofSeconds(hfConfig.getTimeoutSeconds()))
+                .header("Authorization", "Bearer " + hfConfig.getToken())
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(request)));
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HttpResponse<T> response = httpClient.send(request, bodyHandler);
+        recordResponse(response);
+        return response;
+    }
+
+    /**
+     * Envía sin bloquear; cancelar el future devuelto aborta la petición.
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        CompletableFuture<HttpResponse<T>> response = httpClient.sendAsync(request, bodyHandler);
+        response.thenAccept(this::recordResponse);
+        return response;
+    }
+
+    private void recordResponse(HttpResponse<?> response) {
+        meterRegistry.counter("huggingface.http.responses", "version", response.version().name()).increment();
+        response.sslSession().ifPresent(session -> {
+            String key = Base64.getEncoder().encodeToString(session.getId()) + ":" + session.getCreationTime();
+            boolean reused;
+            synchronized (seenSessions) {
+                reused = seenSessions.put(key, Boolean.TRUE) != null;
+            }
+            meterRegistry.counter("huggingface.http.connections", "reused", String.valueOf(reused)).increment();
+        });
+    }
+}
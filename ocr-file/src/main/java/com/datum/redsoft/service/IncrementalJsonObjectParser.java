@@ -0,0 +1,182 @@
+package com.datum.redsoft.service;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parser incremental de un objeto JSON plano que llega en fragmentos (deltas de un stream).
+ * <p>Cada llamada a {@link #feed(String)} procesa solo los caracteres nuevos y devuelve los
+ * pares clave/valor de primer nivel que se completaron en ese fragmento, de modo que cada
+ * campo puede emitirse en cuanto el modelo termina de escribirlo. Ignora el texto previo a
+ * la primera llave y deja de leer al cerrar el objeto ({@link #isComplete()}).</p>
+ * <p>Los valores anidados (objetos o arreglos) se saltan; la respuesta esperada es plana.</p>
+ * <p>No es thread-safe: una instancia por respuesta.</p>
+ */
+public class IncrementalJsonObjectParser {
+
+    private final Map<String, String> fields = new LinkedHashMap<>();
+    private final StringBuilder buffer = new StringBuilder();
+    private final StringBuilder unicode = new StringBuilder();
+
+    private int depth;
+    private boolean inString;
+    private boolean escaped;
+    private boolean unicodeEscape;
+    private boolean afterColon;
+    private boolean inLiteral;
+    private String currentKey;
+    private boolean complete;
+
+    /**
+     * @param chunk siguiente fragmento del contenido generado por el modelo
+     * @return campos completados en este fragmento, en orden de aparición
+     */
+    public List<Map.Entry<String, String>> feed(String chunk) {
+        List<Map.Entry<String, String>> completed = new ArrayList<>();
+        if (chunk == null) {
+            return completed;
+        }
+        for (int i = 0; i < chunk.length() && !complete; i++) {
+            accept(chunk.charAt(i), completed);
+        }
+        return completed;
+    }
+
+    /**
+     * @return true cuando ya llegó la llave de cierre del objeto
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * @return todos los campos completados hasta ahora
+     */
+    public Map<String, String> getFields() {
+        return fields;
+    }
+
+    private void accept(char c, List<Map.Entry<String, String>> completed) {
+        if (inString) {
+            acceptStringChar(c, completed);
+            return;
+        }
+        if (depth == 0) {
+            if (c == '{') {
+                depth = 1;
+            }
+            return;
+        }
+        if (depth > 1) {
+            // Dentro de un valor anidado: solo interesa detectar dónde termina
+            if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                if (depth == 1) {
+                    afterColon = false;
+                }
+            }
+            return;
+        }
+
+        switch (c) {
+            case '"' -> {
+                endLiteral(completed);
+                inString = true;
+                buffer.setLength(0);
+            }
+            case ':' -> afterColon = true;
+            case ',' -> {
+                endLiteral(completed);
+                afterColon = false;
+            }
+            case '{', '[' -> depth++;
+            case '}' -> {
+                endLiteral(completed);
+                depth = 0;
+                complete = true;
+            }
+            default -> {
+                if (afterColon && !Character.isWhitespace(c)) {
+                    if (!inLiteral) {
+                        inLiteral = true;
+                        buffer.setLength(0);
+                    }
+                    buffer.append(c);
+                }
+            }
+        }
+    }
+
+    private void acceptStringChar(char c, List<Map.Entry<String, String>> completed) {
+        if (unicodeEscape) {
+            unicode.append(c);
+            if (unicode.length() == 4) {
+                appendIfTopLevel((char) Integer.parseInt(unicode.toString(), 16));
+                unicode.setLength(0);
+                unicodeEscape = false;
+            }
+            return;
+        }
+        if (escaped) {
+            escaped = false;
+            switch (c) {
+                case 'n' -> appendIfTopLevel('\n');
+                case 't' -> appendIfTopLevel('\t');
+                case 'r' -> appendIfTopLevel('\r');
+                case 'b' -> appendIfTopLevel('\b');
+                case 'f' -> appendIfTopLevel('\f');
+                case 'u' -> unicodeEscape = true;
+                default -> appendIfTopLevel(c);
+            }
+            return;
+        }
+        if (c == '\\') {
+            escaped = true;
+        } else if (c == '"') {
+            inString = false;
+            if (depth == 1) {
+                if (afterColon) {
+                    emit(buffer.toString(), completed);
+                } else {
+                    currentKey = buffer.toString();
+                }
+            }
+        } else {
+            appendIfTopLevel(c);
+        }
+    }
+
+    private void appendIfTopLevel(char c) {
+        if (depth == 1) {
+            buffer.append(c);
+        }
+    }
+
+    /**
+     * Cierra un valor sin comillas (número, true, false, null).
+     */
+    private void endLiteral(List<Map.Entry<String, String>> completed) {
+        if (inLiteral) {
+            inLiteral = false;
+            String literal = buffer.toString();
+            emit("null".equals(literal) ? null : literal, completed);
+        }
+    }
+
+    private void emit(String value, List<Map.Entry<String, String>> completed) {
+        afterColon = false;
+        if (currentKey == null) {
+            return;
+        }
+        fields.put(currentKey, value);
+        completed.add(new AbstractMap.SimpleImmutableEntry<>(currentKey, value));
+        currentKey = null;
+    }
+}
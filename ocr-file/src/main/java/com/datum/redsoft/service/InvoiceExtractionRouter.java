@@ -0,0 +1,317 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.ExtractionRoutingConfig;
+import com.datum.redsoft.dto.response.InvoiceDataResponse;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.model.extraction.ExtractionResult;
+import com.datum.redsoft.model.extraction.RuleExtractionResult;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.service.interfaces.InvoiceDataExtractionService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Implementación por defecto de {@link InvoiceDataExtractionService}: prueba primero el
+ * extractor por reglas y solo llama al LLM cuando su confianza queda bajo
+ * {@code extraction.rules.confidence-threshold}.
+ * <p>Las facturas con formato regular (tickets de supermercado, facturas con TOTAL y
+ * fecha explícitos) se resuelven en microsegundos sin consumir tokens; las demás siguen
+ * el camino de siempre con {@link LlamaInvoiceExtractionService}.</p>
+ * <p>Publica {@code extraction.route{method}} con la ruta tomada y
+ * {@code extraction.rules.confidence} con la distribución de confianza, para ajustar el
+ * umbral con datos reales.</p>
+ * <p>Si Hugging Face rechaza la llamada por saturación o circuito abierto
+ * ({@link ServiceOverloadedException}) y las reglas encontraron algo, se responde con ese
+ * resultado aunque no alcance el umbral, en lugar de fallar la factura completa.</p>
+ * <p>Cuando se conoce la calidad del texto OCR ({@link OCRTextQuality}) la ruta se ajusta:
+ * con calidad alta ({@code extraction.quality.high-score}) basta una confianza de reglas de
+ * {@code extraction.quality.high-rules-threshold}, siempre que el emisor y la moneda salgan
+ * del texto y no sean supuestos; con calidad baja
+ * ({@code extraction.quality.low-score}) el pipeline repite el OCR con
+ * {@code extraction.quality.retry-model} y, si sigue siendo baja, se responde con las reglas
+ * sin gastar una llamada al LLM en texto ilegible, siempre que hayan encontrado emisor, fecha
+ * y total; si falta alguno se recurre igualmente al LLM. Publica {@code ocr.text.quality} y
+ * {@code extraction.quality.route{route}}.</p>
+ * <p>El método que resolvió cada factura se devuelve con el resultado
+ * ({@link ExtractionResult}); {@link #getExtractionMethod()} describe el servicio, no la
+ * última extracción.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class InvoiceExtractionRouter implements InvoiceDataExtractionService {
+
+    private static final Logger logger = Logger.getLogger(InvoiceExtractionRouter.class.getName());
+
+    public static final String METHOD_ROUTED = "REGEX+AI";
+
+    /**
+     * Tratamiento del texto según su calidad OCR.
+     */
+    public enum QualityRoute {
+        /** Calidad desconocida (caché, entrada sin OCR) o enrutamiento por calidad desactivado */
+        UNKNOWN,
+        /** Texto fiable: se aceptan las reglas con un umbral menor */
+        HIGH,
+        STANDARD,
+        /** Texto dudoso: no se envía al LLM */
+        LOW
+    }
+
+    @Inject
+    ExtractionRoutingConfig routingConfig;
+
+    @Inject
+    RuleBasedInvoiceExtractionService ruleExtractor;
+
+    @Inject
+    LlamaInvoiceExtractionService llmExtractor;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Override
+    public InvoiceDataResponse extractInvoiceData(String extractedText) throws InvoiceExtractionException {
+        return extractInvoiceData(extractedText, null);
+    }
+
+    /**
+     * Extrae los datos completos; la confianza combina la calidad del texto OCR con la de las
+     * reglas (ver {@link ExtractionConfidence}), tanto si resuelven las reglas como el LLM.
+     *
+     * @param quality calidad del texto, o null si no se conoce
+     */
+    public InvoiceDataResponse extractInvoiceData(String extractedText, OCRTextQuality quality)
+            throws InvoiceExtractionException {
+        QualityRoute qualityRoute = classify(quality);
+        Optional<RuleExtractionResult> rules = evaluateRules(extractedText);
+        Double ruleConfidence = rules.map(RuleExtractionResult::getConfidence).orElse(null);
+        if (rules.isPresent() && (isLowQualityAccepted(qualityRoute, rules.get(), quality)
+                || isAccepted(rules.get(), thresholdFor(qualityRoute, rules.get())))) {
+            return withConfidence(rules.get(), quality);
+        }
+        try {
+            InvoiceDataResponse response = llmExtractor.extractInvoiceData(extractedText, quality, ruleConfidence);
+            recordRoute(llmExtractor.getExtractionMethod());
+            return response;
+        } catch (ServiceOverloadedException e) {
+            return withConfidence(degrade(rules, e), quality);
+        }
+    }
+
+    private InvoiceDataResponse withConfidence(RuleExtractionResult rules, OCRTextQuality quality) {
+        InvoiceDataResponse response = rules.toInvoiceDataResponse(RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        response.setConfidenceScore(ExtractionConfidence.estimate(response, quality, rules.getConfidence()));
+        return response;
+    }
+
+    @Override
+    public OCRResponseDTO extractBasicInvoiceData(String extractedText) throws InvoiceExtractionException {
+        return extract(extractedText, null).getInvoiceData();
+    }
+
+    /**
+     * Extrae los datos básicos teniendo en cuenta la calidad del texto OCR.
+     *
+     * @param quality calidad del texto, o null si no se conoce
+     * @return los datos y el método que los resolvió
+     */
+    public ExtractionResult extract(String extractedText, OCRTextQuality quality) throws InvoiceExtractionException {
+        QualityRoute qualityRoute = classify(quality);
+        Optional<RuleExtractionResult> rules = evaluateRules(extractedText);
+        if (rules.isPresent() && (isLowQualityAccepted(qualityRoute, rules.get(), quality)
+                || isAccepted(rules.get(), thresholdFor(qualityRoute, rules.get())))) {
+            return new ExtractionResult(rules.get().toResponse(), RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        }
+        try {
+            OCRResponseDTO response = llmExtractor.extractBasicInvoiceData(extractedText);
+            recordRoute(llmExtractor.getExtractionMethod());
+            return new ExtractionResult(response, llmExtractor.getExtractionMethod());
+        } catch (ServiceOverloadedException e) {
+            return new ExtractionResult(degrade(rules, e).toResponse(), RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        }
+    }
+
+    /**
+     * Usa el resultado por reglas bajo el umbral cuando el LLM no está disponible; si las
+     * reglas ni siquiera encontraron el total propaga el rechazo (503).
+     */
+    private RuleExtractionResult degrade(Optional<RuleExtractionResult> rules, ServiceOverloadedException e) {
+        if (rules.isEmpty() || rules.get().getFieldConfidence().getOrDefault(RuleExtractionResult.FIELD_TOTAL, 0.0) <= 0.0) {
+            throw e;
+        }
+        logger.warning("LLM no disponible (" + e.getMessage() + "), se responde con el resultado por reglas (confianza "
+                + rules.get().getConfidence() + ")");
+        meterRegistry.counter("extraction.degraded").increment();
+        recordRoute(RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        return rules.get();
+    }
+
+    /**
+     * Aplica solo el extractor por reglas. Lo usa también el flujo reactivo antes de
+     * llamar al LLM asíncrono.
+     *
+     * @param extractedText texto OCR
+     * @return datos básicos si la confianza alcanza el umbral; vacío si hace falta el LLM
+     */
+    public Optional<OCRResponseDTO> tryRules(String extractedText) {
+        return tryRules(extractedText, null);
+    }
+
+    /**
+     * Igual que {@link #tryRules(String)} teniendo en cuenta la calidad del texto OCR: con
+     * calidad baja devuelve el resultado por reglas con cualquier confianza si encontró emisor,
+     * fecha y total.
+     *
+     * @param quality calidad del texto, o null si no se conoce
+     */
+    public Optional<OCRResponseDTO> tryRules(String extractedText, OCRTextQuality quality) {
+        QualityRoute qualityRoute = classify(quality);
+        return evaluateRules(extractedText)
+                .filter(result -> isLowQualityAccepted(qualityRoute, result, quality)
+                        || isAccepted(result, thresholdFor(qualityRoute, result)))
+                .map(RuleExtractionResult::toResponse);
+    }
+
+    /**
+     * Clasifica el texto según su calidad OCR y registra la ruta.
+     */
+    public QualityRoute classify(OCRTextQuality quality) {
+        if (!routingConfig.isQualityEnabled() || quality == null) {
+            return QualityRoute.UNKNOWN;
+        }
+        DistributionSummary.builder("ocr.text.quality")
+                .description("Calidad del texto OCR (confianza media de las palabras)")
+                .register(meterRegistry)
+                .record(quality.getScore());
+        QualityRoute qualityRoute;
+        if (quality.getScore() >= routingConfig.getHighQualityScore()) {
+            qualityRoute = QualityRoute.HIGH;
+        } else if (quality.getScore() < routingConfig.getLowQualityScore()) {
+            qualityRoute = QualityRoute.LOW;
+        } else {
+            qualityRoute = QualityRoute.STANDARD;
+        }
+        meterRegistry.counter("extraction.quality.route", "route", qualityRoute.name().toLowerCase()).increment();
+        return qualityRoute;
+    }
+
+    /**
+     * Modelo con el que repetir el OCR si la calidad es baja y hay uno configurado.
+     *
+     * @return vacío si la calidad no es baja o no hay modelo de reintento
+     */
+    public Optional<String> ocrRetryModel(OCRTextQuality quality) {
+        if (!routingConfig.isQualityEnabled() || quality == null || quality.getScore() >= routingConfig.getLowQualityScore()) {
+            return Optional.empty();
+        }
+        return routingConfig.getQualityRetryModel().filter(model -> !model.isBlank());
+    }
+
+    /**
+     * Cuenta una extracción resuelta por el método indicado. Lo usa también el flujo
+     * reactivo, que llama al LLM asíncrono sin pasar por este router.
+     */
+    public void recordRoute(String method) {
+        meterRegistry.counter("extraction.route", "method", method).increment();
+    }
+
+    /**
+     * Ejecuta el extractor por reglas y registra su confianza.
+     *
+     * @return el resultado con cualquier confianza; vacío si las reglas están desactivadas o no hay texto
+     */
+    private Optional<RuleExtractionResult> evaluateRules(String extractedText) {
+        if (!routingConfig.isRulesEnabled() || extractedText == null || extractedText.isBlank()) {
+            return Optional.empty();
+        }
+
+        RuleExtractionResult result = ruleExtractor.extract(extractedText);
+        DistributionSummary.builder("extraction.rules.confidence")
+                .description("Confianza del extractor por reglas (mínimo de los cuatro campos)")
+                .register(meterRegistry)
+                .record(result.getConfidence());
+        return Optional.of(result);
+    }
+
+    /**
+     * Indica si el resultado por reglas alcanza el umbral; en ese caso registra la ruta.
+     */
+    private boolean isAccepted(RuleExtractionResult result, double threshold) {
+        double confidence = result.getConfidence();
+        if (confidence >= threshold) {
+            logger.info("Factura resuelta por reglas (confianza " + confidence + "), se omite la llamada al LLM");
+            recordRoute(RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+            return true;
+        }
+        logger.fine("Confianza de reglas insuficiente " + result.getFieldConfidence() + ", se usa el LLM");
+        return false;
+    }
+
+    /**
+     * Con texto de baja calidad se acepta el resultado por reglas sea cual sea su confianza,
+     * pero solo si encontró emisor, fecha y total: si falta alguno las reglas son justo las
+     * menos fiables y se recurre al LLM.
+     */
+    private boolean isLowQualityAccepted(QualityRoute qualityRoute, RuleExtractionResult result, OCRTextQuality quality) {
+        if (qualityRoute != QualityRoute.LOW) {
+            return false;
+        }
+        if (!hasRequiredFields(result)) {
+            logger.info("Texto OCR de baja calidad (" + quality + ") y faltan campos en las reglas "
+                    + result.getFieldConfidence() + ", se usa el LLM");
+            return false;
+        }
+        logger.warning("Texto OCR de baja calidad (" + quality + "), se responde con las reglas (confianza "
+                + result.getConfidence() + ") sin llamar al LLM");
+        recordRoute(RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        return true;
+    }
+
+    private boolean hasRequiredFields(RuleExtractionResult result) {
+        for (String field : new String[] {RuleExtractionResult.FIELD_VENDOR, RuleExtractionResult.FIELD_DATE,
+                RuleExtractionResult.FIELD_TOTAL}) {
+            if (result.getFieldConfidence().getOrDefault(field, 0.0) <= 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * El umbral reducido de la calidad alta no alcanza para aceptar un emisor o una moneda
+     * supuestos: su confianza es justo la de un supuesto y el texto legible no los hace ciertos.
+     */
+    private double thresholdFor(QualityRoute qualityRoute, RuleExtractionResult result) {
+        return qualityRoute == QualityRoute.HIGH && isEvidenced(result, RuleExtractionResult.FIELD_VENDOR)
+                && isEvidenced(result, RuleExtractionResult.FIELD_CURRENCY)
+                ? Math.min(routingConfig.getConfidenceThreshold(), routingConfig.getHighQualityRulesThreshold())
+                : routingConfig.getConfidenceThreshold();
+    }
+
+    private boolean isEvidenced(RuleExtractionResult result, String field) {
+        return result.getFieldConfidence().getOrDefault(field, 0.0) > RuleBasedInvoiceExtractionService.GUESS_CONFIDENCE;
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return llmExtractor.isServiceAvailable();
+    }
+
+    /**
+     * @return {@value #METHOD_ROUTED}: cada factura se resuelve por reglas o con el LLM, y el
+     *         método concreto viaja en {@link ExtractionResult}
+     */
+    @Override
+    public String getExtractionMethod() {
+        return METHOD_ROUTED;
+    }
+}
@@ -0,0 +1,254 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.cache.ExtractionResultCache;
+import com.datum.redsoft.config.ExtractionBatchConfig;
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.config.PromptCompactionConfig;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Extracción con el LLM agrupando varias facturas en una sola chat completion.
+ * <p>Los hilos de un lote OCR llaman a {@link #extractBasicInvoiceData(String)} en cuanto
+ * terminan su OCR; las peticiones se acumulan hasta llenar el grupo (máximo de documentos,
+ * tokens de entrada o tokens de respuesta dentro de {@code huggingface.max-tokens}) o hasta
+ * que vence {@code extraction.batch.max-wait-ms}. Se envía un único request pidiendo un
+ * arreglo JSON con un objeto por id de documento, y la respuesta se reparte a cada llamador.</p>
+ * <p>Con el límite de peticiones por minuto del proveedor, N facturas por petición
+ * multiplican el throughput del lote. Los documentos que el modelo omite o devuelve
+ * incompletos se extraen de forma individual con {@link LlamaInvoiceExtractionService}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaBatchExtractionService {
+
+    private static final Logger logger = Logger.getLogger(LlamaBatchExtractionService.class.getName());
+
+    public static final String EXTRACTION_METHOD = "AI";
+
+    @Inject
+    ExtractionBatchConfig batchConfig;
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    PromptCompactionConfig compactionConfig;
+
+    @Inject
+    LlamaPromptBuilder promptBuilder;
+
+    @Inject
+    LlamaResponseParser responseParser;
+
+    @Inject
+    LlamaInvoiceExtractionService llmExtractor;
+
+    @Inject
+    ExtractionResultCache extractionCache;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private final AtomicInteger documentIds = new AtomicInteger();
+
+    private final Object lock = new Object();
+
+    /** Grupo en formación; se reemplaza por uno nuevo al despacharlo */
+    private List<PendingExtraction> pending = new ArrayList<>();
+    private int pendingPromptTokens;
+    private ScheduledFuture<?> pendingFlush;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService dispatcher;
+
+    @PostConstruct
+    void init() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "llm-batch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCounter = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(batchConfig.getMaxConcurrentRequests(), runnable -> {
+            Thread thread = new Thread(runnable, "llm-batch-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    /**
+     * Extrae los datos básicos de una factura compartiendo la petición al LLM con otras
+     * facturas en curso. Bloquea hasta que llega la respuesta de su grupo.
+     *
+     * @param extractedText texto extraído mediante OCR
+     * @return datos básicos de la factura
+     * @throws InvoiceExtractionException si la petición agrupada o la individual fallan
+     */
+    public OCRResponseDTO extractBasicInvoiceData(String extractedText) throws InvoiceExtractionException {
+        if (extractedText == null || extractedText.trim().isEmpty()) {
+            throw new InvoiceExtractionException("El texto extraído está vacío o es nulo");
+        }
+        if (!batchConfig.isEnabled() || maxItemsPerRequest() < 2) {
+            return llmExtractor.extractBasicInvoiceData(extractedText);
+        }
+
+        Optional<OCRResponseDTO> cached = extractionCache.get(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText);
+        if (cached.isPresent()) {
+            logger.info("Extracción básica obtenida de caché, se omite la llamada al LLM");
+            return cached.get();
+        }
+
+        String compacted = promptBuilder.compact(extractedText);
+        PendingExtraction extraction = new PendingExtraction(
+            String.valueOf(documentIds.incrementAndGet()), compacted, compactionConfig.estimateTokens(compacted));
+        enqueue(extraction);
+
+        Optional<OCRResponseDTO> result;
+        try {
+            result = extraction.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvoiceExtractionException("Extracción agrupada interrumpida", e);
+        } catch (ExecutionException e) {
+            throw new InvoiceExtractionException("Error al extraer datos básicos de la factura", e.getCause());
+        }
+
+        if (result.isEmpty()) {
+            meterRegistry.counter("extraction.batch.items", "outcome", "fallback").increment();
+            logger.info("Documento " + extraction.id + " sin resultado en la respuesta agrupada, se extrae de forma individual");
+            return llmExtractor.extractBasicInvoiceData(extractedText);
+        }
+        meterRegistry.counter("extraction.batch.items", "outcome", "batched").increment();
+        if (!responseParser.isParseFallback(result.get())) {
+            extractionCache.put(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText, result.get());
+        }
+        return result.get();
+    }
+
+    /**
+     * Agrega el documento al grupo en formación y despacha los grupos que ya no admiten más.
+     */
+    private void enqueue(PendingExtraction extraction) {
+        List<List<PendingExtraction>> ready = new ArrayList<>();
+        synchronized (lock) {
+            if (!pending.isEmpty() && pendingPromptTokens + extraction.promptTokens > batchConfig.getMaxPromptTokens()) {
+                ready.add(takePending());
+            }
+            pending.add(extraction);
+            pendingPromptTokens += extraction.promptTokens;
+            if (pending.size() >= maxItemsPerRequest()) {
+                ready.add(takePending());
+            } else if (pendingFlush == null) {
+                pendingFlush = scheduler.schedule(this::flushPending, batchConfig.getMaxWaitMs(), TimeUnit.MILLISECONDS);
+            }
+        }
+        ready.forEach(this::dispatch);
+    }
+
+    private void flushPending() {
+        List<PendingExtraction> ready;
+        synchronized (lock) {
+            pendingFlush = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = takePending();
+        }
+        dispatch(ready);
+    }
+
+    private List<PendingExtraction> takePending() {
+        List<PendingExtraction> ready = pending;
+        pending = new ArrayList<>();
+        pendingPromptTokens = 0;
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        return ready;
+    }
+
+    private void dispatch(List<PendingExtraction> group) {
+        dispatcher.execute(() -> send(group));
+    }
+
+    /**
+     * Envía el grupo y completa cada documento con su resultado (vacío si el modelo no lo
+     * devolvió); un grupo de un solo documento usa el prompt individual.
+     */
+    private void send(List<PendingExtraction> group) {
+        DistributionSummary.builder("extraction.batch.size")
+                .description("Documentos por petición agrupada al LLM")
+                .register(meterRegistry)
+                .record(group.size());
+
+        if (group.size() == 1) {
+            group.get(0).result.complete(Optional.empty());
+            return;
+        }
+
+        Map<String, String> textsById = new LinkedHashMap<>();
+        group.forEach(extraction -> textsById.put(extraction.id, extraction.compactedText));
+        try {
+            logger.info("Enviando extracción agrupada de " + group.size() + " documentos");
+            String jsonResponse = llmExtractor.makeHttpRequestWithRetry(
+                promptBuilder.buildBatchExtractionRequest(textsById, group.size() * batchConfig.getOutputTokensPerItem()));
+            Map<String, OCRResponseDTO> results = responseParser.parseBatchInvoiceResponse(jsonResponse);
+            group.forEach(extraction -> extraction.result.complete(Optional.ofNullable(results.get(extraction.id))));
+        } catch (Exception e) {
+            logger.severe("Error en extracción agrupada: " + e.getMessage());
+            group.forEach(extraction -> extraction.result.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Documentos por petición: el menor entre el máximo configurado y los que caben en
+     * {@code huggingface.max-tokens} de respuesta.
+     */
+    private int maxItemsPerRequest() {
+        return Math.min(batchConfig.getMaxItems(), hfConfig.getMaxTokens() / batchConfig.getOutputTokensPerItem());
+    }
+
+    private static final class PendingExtraction {
+        private final String id;
+        private final String compactedText;
+        private final int promptTokens;
+        private final CompletableFuture<Optional<OCRResponseDTO>> result = new CompletableFuture<>();
+
+        private PendingExtraction(String id, String compactedText, int promptTokens) {
+            this.id = id;
+            this.compactedText = compactedText;
+            this.promptTokens = promptTokens;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.ExtractionHedgingConfig;
+import com.datum.redsoft.exception.UpstreamHttpException;
+import com.datum.redsoft.model.llama.LlamaRequest;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * Ejecuta una extracción con el LLM enviando una petición de respaldo (hedging) cuando la
+ * primera tarda más de lo habitual.
+ * <p>Si la petición principal no respondió pasado el percentil {@code extraction.hedging.percentile}
+ * de las latencias recientes, se envía la misma extracción a
+ * {@code extraction.hedging.secondary-model}. Gana la primera respuesta con JSON válido y la
+ * otra se cancela. Un presupuesto tipo token bucket ({@code budget-ratio} por petición, hasta
+ * {@code budget-burst}) limita la carga extra: con 0.1 a lo sumo una de cada diez
+ * extracciones se duplica, aunque el proveedor esté lento para todas.</p>
+ * <p>Publica {@code extraction.llm.hedge{outcome}} ({@code primary_fast}, {@code primary_won},
+ * {@code hedge_won}, {@code budget_exhausted}, {@code hedge_rejected}) y el timer {@code extraction.llm.latency}
+ * con p50/p90/p99.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaHedgedRequestExecutor {
+
+    private static final Logger logger = Logger.getLogger(LlamaHedgedRequestExecutor.class.getName());
+
+    /**
+     * Latencias de la petición principal que se conservan para estimar el percentil.
+     */
+    private static final int LATENCY_WINDOW = 200;
+
+    private static final String SOURCE_PRIMARY = "primary";
+    private static final String SOURCE_HEDGE = "hedge";
+
+    @Inject
+    ExtractionHedgingConfig hedgingConfig;
+
+    @Inject
+    LlamaPromptBuilder promptBuilder;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    HuggingFaceHttpClient httpClient;
+
+    private final long[] latencies = new long[LATENCY_WINDOW];
+    private int latencyIndex;
+    private int latencyCount;
+
+    private double budgetTokens;
+
+    private Timer latencyTimer;
+
+    @PostConstruct
+    void init() {
+        budgetTokens = hedgingConfig.getBudgetBurst();
+        latencyTimer = Timer.builder("extraction.llm.latency")
+                .description("Latencia de la extracción con el LLM, incluido el respaldo")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        logger.info("Hedging de peticiones al LLM: " + hedgingConfig);
+    }
+
+    public boolean isEnabled() {
+        return hedgingConfig.isEnabled();
+    }
+
+    /**
+     * Envía la petición y, si no responde a tiempo y hay presupuesto, una de respaldo.
+     *
+     * @param request petición principal (la de respaldo es una copia con el modelo secundario)
+     * @param parser convierte el cuerpo de la respuesta en el resultado
+     * @param isValid indica si un resultado es aceptable para ganar la carrera
+     * @return el primer resultado válido; si ninguno lo es, el de la petición principal
+     * @throws Exception el error de la petición si ninguna respondió
+     */
+    public <T> T execute(LlamaRequest request, BodyParser<T> parser, Predicate<T> isValid) throws Exception {
+        long start = System.nanoTime();
+        long delayMs = hedgeDelayMs();
+        depositBudget();
+
+        CompletableFuture<T> primary = sendAsync(request, parser);
+        primary.whenComplete((result, failure) -> {
+            if (failure == null) {
+                recordLatency(elapsedMs(start));
+            }
+        });
+
+        try {
+            T result = await(() -> primary.get(delayMs, TimeUnit.MILLISECONDS));
+            record("primary_fast", start);
+            return result;
+        } catch (TimeoutException e) {
+            // La principal sigue en curso: se evalúa el respaldo
+        }
+
+        if (!tryConsumeBudget()) {
+            T result = await(primary::get);
+            record("budget_exhausted", start);
+            return result;
+        }
+
+        logger.info("Petición al LLM sin respuesta tras " + delayMs + " ms, se envía respaldo");
+        CompletableFuture<T> hedge;
+        try {
+            hedge = sendAsync(hedgeRequest(request), parser);
+        } catch (RuntimeException e) {
+            // Sin cupo para el respaldo: se sigue esperando a la principal
+            logger.fine("No se pudo enviar el respaldo: " + e.getMessage());
+            T result = await(primary::get);
+            record("hedge_rejected", start);
+            return result;
+        }
+
+        try {
+            Winner<T> winner = await(firstValid(primary, hedge, isValid)::get);
+            record(winner.source.equals(SOURCE_PRIMARY) ? "primary_won" : "hedge_won", start);
+            return winner.result;
+        } finally {
+            if (!primary.isDone()) {
+                // Latencia censurada: la principal tardó al menos esto
+                recordLatency(elapsedMs(start));
+            }
+            primary.cancel(true);
+            hedge.cancel(true);
+        }
+    }
+
+    /**
+     * Completa con el primer resultado válido; si ambas terminan sin resultado válido, con el
+     * de la principal (o el del respaldo), y si ambas fallan, con el último error.
+     */
+    private <T> CompletableFuture<Winner<T>> firstValid(CompletableFuture<T> primary, CompletableFuture<T> hedge,
+                                                        Predicate<T> isValid) {
+        CompletableFuture<Winner<T>> winner = new CompletableFuture<>();
+        AtomicInteger remaining = new AtomicInteger(2);
+        AtomicReference<Winner<T>> fallback = new AtomicReference<>();
+        AtomicReference<Throwable> lastFailure = new AtomicReference<>();
+
+        for (String source : Arrays.asList(SOURCE_PRIMARY, SOURCE_HEDGE)) {
+            CompletableFuture<T> candidate = source.equals(SOURCE_PRIMARY) ? primary : hedge;
+            candidate.whenComplete((result, failure) -> {
+                if (failure == null) {
+                    Winner<T> completed = new Winner<>(result, source);
+                    if (isValid.test(result)) {
+                        winner.complete(completed);
+                    } else if (source.equals(SOURCE_PRIMARY) || fallback.get() == null) {
+                        fallback.set(completed);
+                    }
+                } else {
+                    lastFailure.set(failure);
+                }
+                if (remaining.decrementAndGet() == 0) {
+                    if (fallback.get() != null) {
+                        winner.complete(fallback.get());
+                    } else {
+                        winner.completeExceptionally(lastFailure.get());
+                    }
+                }
+            });
+        }
+        return winner;
+    }
+
+    /**
+     * Envía la petición sin bloquear. Si el proveedor rechaza {@code response_format} (400),
+     * se reenvía una vez sin él, igual que la ruta sin hedging.
+     * Cancelar el future devuelto aborta la petición HTTP en curso y libera su permiso.
+     */
+    private <T> CompletableFuture<T> sendAsync(LlamaRequest request, BodyParser<T> parser) throws JsonProcessingException {
+        AtomicReference<CompletableFuture<HttpResponse<String>>> inFlight = new AtomicReference<>();
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<HttpResponse<String>> response = send(httpClient.buildRequest(request), inFlight)
+                .thenCompose(httpResponse -> {
+                    if (!LlamaInvoiceExtractionService.isResponseFormatRejected(request, httpResponse.statusCode(), httpResponse.body())) {
+                        return CompletableFuture.completedFuture(httpResponse);
+                    }
+                    promptBuilder.markResponseFormatUnsupported();
+                    request.setResponseFormat(null);
+                    try {
+                        CompletableFuture<HttpResponse<String>> retry = send(httpClient.buildRequest(request), inFlight);
+                        if (cancelled.get()) {
+                            retry.cancel(true);
+                        }
+                        return retry;
+                    } catch (JsonProcessingException e) {
+                        throw new CompletionException(e);
+                    }
+                });
+
+        CompletableFuture<T> result = response.thenApply(httpResponse -> {
+            if (httpResponse.statusCode() != 200) {
+                throw new UpstreamHttpException(
+                    "Error en API de Hugging Face: " + httpResponse.statusCode() + " - " + httpResponse.body(),
+                    httpResponse.statusCode(),
+                    UpstreamHttpException.parseRetryAfter(httpResponse.headers().firstValue("retry-after").orElse(null)));
+            }
+            try {
+                return parser.parse(httpResponse.body());
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        });
+        result.whenComplete((value, failure) -> {
+            if (result.isCancelled()) {
+                cancelled.set(true);
+                inFlight.get().cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Envía una petición HTTP dentro de un permiso de {@link DependencyGuards#huggingFace()} y
+     * la deja en {@code inFlight} para poder cancelarla.
+     */
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest httpRequest,
+                                                         AtomicReference<CompletableFuture<HttpResponse<String>>> inFlight) {
+        DependencyGuard.Permit permit = dependencyGuards.huggingFace().acquire();
+        CompletableFuture<HttpResponse<String>> response = httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString());
+        inFlight.set(response);
+        response.whenComplete((httpResponse, failure) -> {
+            if (response.isCancelled()) {
+                permit.release();
+            } else if (failure != null || DependencyGuard.isDependencyFailure(httpResponse.statusCode())) {
+                permit.failure();
+            } else {
+                permit.success();
+            }
+        });
+        return response;
+    }
+
+    private LlamaRequest hedgeRequest(LlamaRequest request) {
+        LlamaRequest hedge = new LlamaRequest(
+            request.getMessages(),
+            hedgingConfig.getSecondaryModel().orElse(request.getModel()),
+            request.isStream(),
+            request.getMaxTokens(),
+            request.getTemperature()
+        );
+        hedge.setResponseFormat(request.getResponseFormat());
+        return hedge;
+    }
+
+    /**
+     * Espera de respaldo: el percentil configurado de las latencias recientes, o
+     * {@code initial-delay-ms} mientras no haya suficientes muestras.
+     */
+    synchronized long hedgeDelayMs() {
+        if (latencyCount < hedgingConfig.getMinSamples()) {
+            return hedgingConfig.getInitialDelayMs();
+        }
+        long[] sorted = Arrays.copyOf(latencies, latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(hedgingConfig.getPercentile() * sorted.length) - 1;
+        long percentile = sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+        return Math.max(hedgingConfig.getMinDelayMs(), percentile);
+    }
+
+    private synchronized void recordLatency(long latencyMs) {
+        latencies[latencyIndex] = latencyMs;
+        latencyIndex = (latencyIndex + 1) % latencies.length;
+        latencyCount = Math.min(latencyCount + 1, latencies.length);
+    }
+
+    private synchronized void depositBudget() {
+        budgetTokens = Math.min(hedgingConfig.getBudgetBurst(), budgetTokens + hedgingConfig.getBudgetRatio());
+    }
+
+    private synchronized boolean tryConsumeBudget() {
+        if (budgetTokens >= 1.0) {
+            budgetTokens -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    private void record(String outcome, long start) {
+        meterRegistry.counter("extraction.llm.hedge", "outcome", outcome).increment();
+        latencyTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static long elapsedMs(long start) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Espera un future desenvolviendo la causa real del fallo.
+     */
+    private static <T> T await(Wait<T> wait) throws Exception {
+        try {
+            return wait.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException && e.getCause().getCause() != null
+                    ? e.getCause().getCause()
+                    : e.getCause();
+            if (cause instanceof Exception exception) {
+                throw exception;
+            }
+            throw e;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Wait<T> {
+        T get() throws Exception;
+    }
+
+    /**
+     * Convierte el cuerpo JSON de la respuesta del router en el resultado de la extracción.
+     */
+    @FunctionalInterface
+    public interface BodyParser<T> {
+        T parse(String jsonResponse) throws Exception;
+    }
+
+    private static final class Winner<T> {
+        private final T result;
+        private final String source;
+
+        private Winner(T result, String source) {
+            this.result = result;
+            this.source = source;
+        }
+    }
+}
@@ -1,25 +1,28 @@
 package com.datum.redsoft.service;
 
+import com.datum.redsoft.cache.ExtractionResultCache;
 import com.datum.redsoft.config.HuggingFaceConfig;
 import com.datum.redsoft.dto.response.InvoiceDataResponse;
 import com.datum.redsoft.dto.response.OCRResponseDTO;
 import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.exception.UpstreamHttpException;
 import com.datum.redsoft.model.llama.LlamaRequest;
-import com.datum.redsoft.model.llama.LlamaMessage;
-import com.datum.redsoft.model.llama.LlamaResponse;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.datum.redsoft.resilience.DependencyRetryPolicy;
 import com.datum.redsoft.service.interfaces.InvoiceDataExtractionService;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
 import jakarta.inject.Inject;
 
-import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Logger;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Implementación del servicio de extracción de datos de facturas usando modelos LLaMA.
@@ -27,11 +30,21 @@ import java.util.regex.Pattern;
  * y extraer campos estructurados de facturas mediante inteligencia artificial.</p>
  * <p>Sigue el principio de <b>Responsabilidad Única (SRP)</b>: solo se encarga
  * de extraer y estructurar datos de facturas usando IA.</p>
+ * <p>Se expone solo con su propio tipo: la implementación por defecto de
+ * {@link InvoiceDataExtractionService} es {@link InvoiceExtractionRouter}, que lo invoca
+ * cuando el extractor por reglas no alcanza la confianza necesaria.</p>
+ * <p>Cada petición pasa por el circuit breaker y el límite de concurrencia de Hugging Face
+ * ({@link DependencyGuards}): con el circuito abierto o sin cupo falla de inmediato con
+ * {@link ServiceOverloadedException} y no se reintenta.</p>
+ * <p>La extracción básica usa {@link LlamaHedgedRequestExecutor}: si el modelo principal
+ * tarda más que el percentil configurado se envía una petición de respaldo y gana la
+ * primera respuesta válida.</p>
  * 
  * @author Datum Redsoft
  * @version 1.0
  */
 @ApplicationScoped
+@Typed(LlamaInvoiceExtractionService.class)
 public class LlamaInvoiceExtractionService implements InvoiceDataExtractionService {
     
     private static final Logger logger = Logger.getLogger(LlamaInvoiceExtractionService.class.getName());
@@ -40,12 +53,40 @@ public class LlamaInvoiceExtractionService implements InvoiceDataExtractionServi
     HuggingFaceConfig hfConfig;
 
     @Inject
-    ObjectMapper objectMapper;
+    ExtractionResultCache extractionCache;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    @Inject
+    LlamaPromptBuilder promptBuilder;
+
+    @Inject
+    LlamaResponseParser responseParser;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    LlamaHedgedRequestExecutor hedgedExecutor;
+
+    @Inject
+    HuggingFaceHttpClient httpClient;
 
     @Override
     public InvoiceDataResponse extractInvoiceData(String extractedText) throws InvoiceExtractionException {
+        return extractInvoiceData(extractedText, null, null);
+    }
+
+    /**
+     * Extrae los datos completos y calcula su confianza con {@link ExtractionConfidence}.
+     * Si el modelo no devolvió un JSON reconocible la confianza es 0.0.
+     *
+     * @param quality calidad del texto OCR, o null si no se conoce
+     * @param ruleConfidence confianza del extractor por reglas sobre el mismo texto, o null si no se evaluó
+     */
+    public InvoiceDataResponse extractInvoiceData(String extractedText, OCRTextQuality quality, Double ruleConfidence)
+            throws InvoiceExtractionException {
         try {
             logger.info("Iniciando extracción de datos de factura con Llama AI");
             
@@ -53,17 +94,20 @@ public class LlamaInvoiceExtractionService implements InvoiceDataExtractionServi
                 throw new InvoiceExtractionException("El texto extraído está vacío o es nulo");
             }
             
-            String prompt = createInvoiceExtractionPrompt(extractedText);
-            LlamaRequest request = createLlamaRequest(prompt);
+            LlamaRequest request = promptBuilder.buildBasicExtractionRequest(extractedText);
             String jsonResponse = makeHttpRequestWithRetry(request);
             
-            InvoiceDataResponse response = parseInvoiceResponse(jsonResponse);
+            InvoiceDataResponse response = responseParser.parseInvoiceResponse(jsonResponse);
             response.setExtractionMethod("AI");
-            response.setConfidenceScore(0.85);
+            if (!LlamaResponseParser.PARSE_ERROR_VENDOR.equals(response.getCompanyName())) {
+                response.setConfidenceScore(ExtractionConfidence.estimate(response, quality, ruleConfidence));
+            }
             
             logger.info("Extracción AI completada exitosamente");
             return response;
             
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             logger.severe("Error en extracción AI: " + e.getMessage());
             throw new InvoiceExtractionException("Error al extraer datos de la factura", e);
@@ -79,14 +123,27 @@ public class LlamaInvoiceExtractionService implements InvoiceDataExtractionServi
                 throw new InvoiceExtractionException("El texto extraído está vacío o es nulo");
             }
             
-            String prompt = createInvoiceExtractionPrompt(extractedText);
-            LlamaRequest request = createLlamaRequest(prompt);
-            String jsonResponse = makeHttpRequestWithRetry(request);
-            OCRResponseDTO response = parseBasicInvoiceResponse(jsonResponse);
+            Optional<OCRResponseDTO> cached = extractionCache.get(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText);
+            if (cached.isPresent()) {
+                logger.info("Extracción básica obtenida de caché, se omite la llamada al LLM");
+                return cached.get();
+            }
+            
+            LlamaRequest request = promptBuilder.buildBasicExtractionRequest(extractedText);
+            OCRResponseDTO response = hedgedExecutor.isEnabled()
+                    ? withRetry(() -> hedgedExecutor.execute(request, responseParser::parseBasicInvoiceResponse,
+                        result -> !responseParser.isParseFallback(result)))
+                    : responseParser.parseBasicInvoiceResponse(makeHttpRequestWithRetry(request));
+            
+            if (!responseParser.isParseFallback(response)) {
+                extractionCache.put(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText, response);
+            }
             
             logger.info("Extracción básica AI completada exitosamente");
             return response;
             
+        } catch (ServiceOverloadedException e) {
+            throw e;
         } catch (Exception e) {
             logger.severe("Error en extracción básica AI: " + e.getMessage());
             throw new InvoiceExtractionException("Error al extraer datos básicos de la factura", e);
@@ -95,181 +152,140 @@ public class LlamaInvoiceExtractionService implements InvoiceDataExtractionServi
     
 
 
-    private String createInvoiceExtractionPrompt(String ocrText) {
-        return String.format("""
-            You are an AI assistant that extracts information from invoices and receipts.
-            
-            Extract ONLY the following 4 fields from this invoice/receipt text and return a valid JSON object:
-            
-            Text: %s
-            
-            Extract these fields:
-            - vendor_name: Name of the business/company that issued the invoice
-            - invoice_date: Date of the invoice (format YYYY-MM-DD)
-            - total_amount: Total amount (numbers only, no currency symbols)
-            - currency: Currency used (USD, EUR, MXN, PEN, etc.)
-            
-            Return ONLY this JSON format, no other text:
-            {"vendor_name":"...","invoice_date":"...","total_amount":"...","currency":"..."}
-            
-            Use "Not found" for missing information.
-            """, ocrText.replace("\"", "\\\""));
-    }
-
-    private LlamaRequest createLlamaRequest(String prompt) {
-        LlamaMessage userMessage = new LlamaMessage("user", prompt);
-        
-        return new LlamaRequest(
-            Arrays.asList(userMessage),
-            hfConfig.getModel(),
-            false,
-            hfConfig.getMaxTokens(),
-            hfConfig.getTemperature()
-        );
-    }
-
     /**
      * Realiza petición HTTP a Hugging Face con estrategia de reintentos automáticos.
-     * <p>Implementa backoff exponencial: el tiempo de espera aumenta con cada intento.</p>
+     * <p>Solo se reintentan los errores transitorios (408, 429, 5xx, red), con backoff con
+     * jitter que respeta Retry-After y mientras quede presupuesto global de reintentos
+     * (ver {@link DependencyRetryPolicy}). Si el circuito se abre o se alcanza el límite de
+     * concurrencia se abandona sin agotar los intentos restantes.</p>
+     * <p>La espera acumulada entre intentos no supera {@code huggingface.timeout-seconds}: un
+     * backoff o Retry-After que la excedería abandona en lugar de retener el hilo de la petición.</p>
+     * <p>También la usa {@link LlamaBatchExtractionService} para las peticiones agrupadas.</p>
      * 
      * @param request Request configurado para Llama
      * @return Respuesta JSON del servicio de IA
      * @throws InvoiceExtractionException si todos los reintentos fallan
      */
-    private String makeHttpRequestWithRetry(LlamaRequest request) throws Exception {
-        int maxRetries = hfConfig.getMaxRetryAttempts();
-        long delayMs = hfConfig.getRetryDelayMs();
+    String makeHttpRequestWithRetry(LlamaRequest request) throws Exception {
+        // Se serializa una vez y los reintentos reenvían la misma petición
+        AtomicReference<HttpRequest> httpRequest = new AtomicReference<>(httpClient.buildRequest(request));
+        return withRetry(() -> makeHttpRequest(request, httpRequest));
+    }
+    
+    /**
+     * Ejecuta un intento (petición simple o con respaldo) con los reintentos de
+     * {@code huggingface.retry.*}.
+     */
+    private <T> T withRetry(Attempt<T> call) throws Exception {
+        DependencyRetryPolicy retryPolicy = dependencyGuards.huggingFaceRetryPolicy();
+        int maxAttempts = retryPolicy.getMaxAttempts();
+        long delayMs = 0;
+        long sleptMs = 0;
+        long maxSleepMs = hfConfig.getTimeoutSeconds() * 1000L;
+        retryPolicy.onRequest();
         
         Exception lastException = null;
+        int attempt = 1;
         
-        for (int attempt = 1; attempt <= maxRetries; attempt++) {
+        for (; attempt <= maxAttempts; attempt++) {
             try {
-                return makeHttpRequest(request);
+                T response = call.run();
+                meterRegistry.counter("extraction.llm.requests", "outcome", "success").increment();
+                return response;
+            } catch (ServiceOverloadedException e) {
+                meterRegistry.counter("extraction.llm.requests", "outcome", "rejected").increment();
+                throw e;
             } catch (Exception e) {
                 lastException = e;
-                logger.warning(String.format("Intento %d/%d falló: %s", attempt, maxRetries, e.getMessage()));
+                logger.warning(String.format("Intento %d/%d falló: %s", attempt, maxAttempts, e.getMessage()));
                 
-                if (attempt < maxRetries) {
-                    Thread.sleep(delayMs * attempt);
+                if (attempt == maxAttempts || !retryPolicy.shouldRetry(e)) {
+                    break;
+                }
+                delayMs = retryPolicy.nextDelayMs(delayMs, e);
+                if (sleptMs + delayMs > maxSleepMs) {
+                    logger.warning("Se abandona el reintento: la espera de " + delayMs + " ms supera el timeout de "
+                            + hfConfig.getTimeoutSeconds() + " s");
+                    break;
                 }
+                meterRegistry.counter("extraction.llm.retries").increment();
+                sleptMs += delayMs;
+                Thread.sleep(delayMs);
             }
         }
         
-        throw new InvoiceExtractionException("Falló después de " + maxRetries + " intentos", lastException);
+        meterRegistry.counter("extraction.llm.requests", "outcome", "exhausted").increment();
+        throw new InvoiceExtractionException("Falló después de " + Math.min(attempt, maxAttempts) + " intentos", lastException);
     }
     
     /**
      * Realiza una petición HTTP individual a la API de Hugging Face.
+     * <p>Si el proveedor rechaza {@code response_format} (400), se reenvía una vez sin él
+     * y no se vuelve a solicitar salida estructurada.</p>
      * 
      * @param request Request configurado para Llama
+     * @param httpRequest petición ya serializada; se reemplaza si se quita {@code response_format}
      * @return Respuesta JSON del servicio
-     * @throws RuntimeException si el status code no es 200
+     * @throws UpstreamHttpException si el status code no es 200
      */
-    private String makeHttpRequest(LlamaRequest request) throws Exception {
+    private String makeHttpRequest(LlamaRequest request, AtomicReference<HttpRequest> httpRequest) throws Exception {
         logger.info("Enviando petición a Hugging Face Router API");
         
-        String requestBody = objectMapper.writeValueAsString(request);
-
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .uri(URI.create(hfConfig.getApiUrl()))
-                .header("Authorization", "Bearer " + hfConfig.getToken())
-                .header("Content-Type", "application/json")
-                .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                .build();
-
-        HttpResponse<String> response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        HttpResponse<String> response = send(httpRequest.get());
+        
+        if (isResponseFormatRejected(request, response.statusCode(), response.body())) {
+            promptBuilder.markResponseFormatUnsupported();
+            request.setResponseFormat(null);
+            httpRequest.set(httpClient.buildRequest(request));
+            response = send(httpRequest.get());
+        }
         
         if (response.statusCode() != 200) {
-            throw new RuntimeException("Error en API de Hugging Face: " + response.statusCode() + " - " + response.body());
+            throw new UpstreamHttpException(
+                "Error en API de Hugging Face: " + response.statusCode() + " - " + response.body(),
+                response.statusCode(),
+                UpstreamHttpException.parseRetryAfter(response.headers().firstValue("retry-after").orElse(null)));
         }
 
         return response.body();
     }
 
-    private InvoiceDataResponse parseInvoiceResponse(String jsonResponse) throws Exception {
-        logger.info("Parseando respuesta de Llama Router");
-        
-        LlamaResponse llamaResponse = objectMapper.readValue(jsonResponse, LlamaResponse.class);
-        
-        if (llamaResponse.getChoices() != null && !llamaResponse.getChoices().isEmpty()) {
-            String content = llamaResponse.getChoices().get(0).getMessage().getContent();
-            String jsonContent = extractJsonFromResponse(content);
-            
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> dataMap = objectMapper.readValue(jsonContent, java.util.Map.class);
-            
-            return new InvoiceDataResponse(
-                (String) dataMap.getOrDefault("company_name", "No encontrado"),
-                (String) dataMap.getOrDefault("invoice_date", "No encontrado"),
-                (String) dataMap.getOrDefault("total_amount", "0"),
-                (String) dataMap.getOrDefault("currency", "No encontrado"),
-                (String) dataMap.getOrDefault("invoice_number", "No encontrado"),
-                "AI",
-                0.85
-            );
+    /**
+     * Envía la petición dentro de un permiso de {@link DependencyGuards#huggingFace()}: los
+     * errores de red, 5xx y 429 cuentan como fallo de la dependencia; los demás códigos no.
+     */
+    private HttpResponse<String> send(HttpRequest httpRequest) throws Exception {
+        DependencyGuard.Permit permit = dependencyGuards.huggingFace().acquire();
+        HttpResponse<String> response;
+        try {
+            response = httpClient.send(httpRequest, HttpResponse.BodyHandlers.ofString());
+        } catch (InterruptedException e) {
+            permit.release();
+            throw e;
+        } catch (Exception e) {
+            permit.failure();
+            throw e;
         }
-        
-        throw new RuntimeException("No se recibió respuesta válida de Llama");
-    }
-
-    private OCRResponseDTO parseBasicInvoiceResponse(String jsonResponse) throws Exception {
-        logger.info("Parseando respuesta básica de Llama Router");
-        
-        LlamaResponse llamaResponse = objectMapper.readValue(jsonResponse, LlamaResponse.class);
-        
-        if (llamaResponse.getChoices() != null && !llamaResponse.getChoices().isEmpty()) {
-            String content = llamaResponse.getChoices().get(0).getMessage().getContent();
-            String jsonContent = extractBasicJsonFromResponse(content);
-            
-            @SuppressWarnings("unchecked")
-            java.util.Map<String, Object> dataMap = objectMapper.readValue(jsonContent, java.util.Map.class);
-            
-            return new OCRResponseDTO(
-                (String) dataMap.getOrDefault("vendor_name", "No encontrado"),
-                (String) dataMap.getOrDefault("invoice_date", "No encontrado"),
-                (String) dataMap.getOrDefault("total_amount", "0"),
-                (String) dataMap.getOrDefault("currency", "No encontrado")
-            );
+        if (DependencyGuard.isDependencyFailure(response.statusCode())) {
+            permit.failure();
+        } else {
+            permit.success();
         }
-        
-        throw new RuntimeException("No se recibió respuesta válida de Llama para datos básicos");
+        return response;
     }
 
-    private String extractBasicJsonFromResponse(String response) {
-        Pattern pattern = Pattern.compile("\\{[^{}]*(?:\\{[^{}]*\\}[^{}]*)*\\}", Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(response);
-        
-        if (matcher.find()) {
-            return matcher.group();
-        }
-        
-        return """
-            {
-                "vendor_name": "Error al procesar",
-                "invoice_date": "No encontrado",
-                "total_amount": "0",
-                "currency": "No encontrado"
-            }
-            """;
+    /**
+     * Indica si un 400 se debe a que el modelo o proveedor no soporta {@code response_format}.
+     * Compartido con {@link LlamaReactiveExtractionService}.
+     */
+    static boolean isResponseFormatRejected(LlamaRequest request, int statusCode, String body) {
+        return statusCode == 400 && request.getResponseFormat() != null
+                && body != null && (body.contains("response_format") || body.contains("json_schema"));
     }
 
-    private String extractJsonFromResponse(String response) {
-        Pattern pattern = Pattern.compile("\\{[^{}]*(?:\\{[^{}]*\\}[^{}]*)*\\}", Pattern.DOTALL);
-        Matcher matcher = pattern.matcher(response);
-        
-        if (matcher.find()) {
-            return matcher.group();
-        }
-        
-        return """
-            {
-                "company_name": "Error al procesar",
-                "invoice_date": "No encontrado",
-                "total_amount": "0",
-                "currency": "No encontrado",
-                "invoice_number": "No encontrado"
-            }
-            """;
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run() throws Exception;
     }
 
     @Override
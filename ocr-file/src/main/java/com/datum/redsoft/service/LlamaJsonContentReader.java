@@ -0,0 +1,191 @@
+package com.datum.redsoft.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.json.JsonReadFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Lee el JSON que devuelve el modelo dentro de {@code message.content}.
+ * <p>Usa el parser en streaming de Jackson a partir de la primera llave o corchete: lee
+ * exactamente un valor JSON y se detiene, por lo que la prosa antes o después del JSON no
+ * afecta. Si la lectura estricta falla, repara en el mismo proceso las malformaciones
+ * habituales (bloques de código markdown, comillas tipográficas o simples, claves sin
+ * comillas, comas finales, comentarios y respuestas truncadas por {@code max_tokens}) sin
+ * pedir otra respuesta al modelo.</p>
+ * <p>Publica {@code extraction.llm.parse{outcome}} con {@code valid}, {@code repaired} o
+ * {@code failed}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaJsonContentReader {
+
+    private static final Logger logger = Logger.getLogger(LlamaJsonContentReader.class.getName());
+
+    /**
+     * Mapper tolerante para el segundo intento, después de normalizar el contenido.
+     */
+    private static final ObjectMapper LENIENT_MAPPER = JsonMapper.builder()
+            .enable(JsonReadFeature.ALLOW_SINGLE_QUOTES)
+            .enable(JsonReadFeature.ALLOW_UNQUOTED_FIELD_NAMES)
+            .enable(JsonReadFeature.ALLOW_TRAILING_COMMA)
+            .enable(JsonReadFeature.ALLOW_JAVA_COMMENTS)
+            .enable(JsonReadFeature.ALLOW_UNESCAPED_CONTROL_CHARS)
+            .enable(JsonReadFeature.ALLOW_NON_NUMERIC_NUMBERS)
+            .build();
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * @param content contenido generado por el modelo
+     * @return el primer objeto o arreglo JSON del contenido, reparado si hizo falta;
+     *         vacío si no se pudo recuperar
+     */
+    public Optional<JsonNode> read(String content) {
+        if (content == null || content.isBlank()) {
+            return record("failed", Optional.empty());
+        }
+
+        Optional<JsonNode> strict = readFirstValue(objectMapper, content);
+        if (strict.isPresent()) {
+            return record("valid", strict);
+        }
+
+        String repaired = closeTruncated(normalizeQuotes(stripCodeFences(content)));
+        Optional<JsonNode> lenient = readFirstValue(LENIENT_MAPPER, repaired);
+        if (lenient.isPresent()) {
+            logger.info("JSON del LLM reparado sin reintentar la petición");
+            return record("repaired", lenient);
+        }
+
+        logger.warning("No se pudo recuperar JSON de la respuesta del LLM");
+        return record("failed", Optional.empty());
+    }
+
+    private Optional<JsonNode> record(String outcome, Optional<JsonNode> result) {
+        meterRegistry.counter("extraction.llm.parse", "outcome", outcome).increment();
+        return result;
+    }
+
+    /**
+     * Lee un único valor JSON desde la primera llave o corchete, ignorando lo que sigue.
+     */
+    private Optional<JsonNode> readFirstValue(ObjectMapper mapper, String content) {
+        int start = firstContainerStart(content);
+        if (start < 0) {
+            return Optional.empty();
+        }
+        try (JsonParser parser = mapper.getFactory().createParser(content.substring(start))) {
+            JsonToken token = parser.nextToken();
+            if (token != JsonToken.START_OBJECT && token != JsonToken.START_ARRAY) {
+                return Optional.empty();
+            }
+            return Optional.ofNullable(mapper.readTree(parser));
+        } catch (Exception e) {
+            logger.fine("JSON inválido en la respuesta del LLM: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static int firstContainerStart(String content) {
+        int brace = content.indexOf('{');
+        int bracket = content.indexOf('[');
+        if (brace < 0) {
+            return bracket;
+        }
+        return bracket < 0 ? brace : Math.min(brace, bracket);
+    }
+
+    /**
+     * Quita los delimitadores de bloque de código markdown (```json ... ```).
+     */
+    static String stripCodeFences(String content) {
+        return content.replaceAll("```[a-zA-Z]*", "");
+    }
+
+    static String normalizeQuotes(String content) {
+        return content
+                .replace('“', '"')
+                .replace('”', '"')
+                .replace('‘', '\'')
+                .replace('’', '\'');
+    }
+
+    /**
+     * Cierra comillas, objetos y arreglos abiertos cuando la respuesta se cortó a mitad.
+     */
+    static String closeTruncated(String content) {
+        int start = firstContainerStart(content);
+        if (start < 0) {
+            return content;
+        }
+
+        Deque<Character> closers = new ArrayDeque<>();
+        boolean inString = false;
+        boolean escaped = false;
+        int end = content.length();
+        for (int i = start; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (inString) {
+                if (escaped) {
+                    escaped = false;
+                } else if (c == '\\') {
+                    escaped = true;
+                } else if (c == '"') {
+                    inString = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '"' -> inString = true;
+                case '{' -> closers.push('}');
+                case '[' -> closers.push(']');
+                case '}', ']' -> {
+                    if (!closers.isEmpty()) {
+                        closers.pop();
+                    }
+                }
+                default -> { }
+            }
+            if (closers.isEmpty()) {
+                end = i + 1;
+                break;
+            }
+        }
+        if (closers.isEmpty()) {
+            return content.substring(0, end);
+        }
+
+        StringBuilder repaired = new StringBuilder(content.stripTrailing());
+        if (inString) {
+            repaired.append('"');
+        }
+        // Una coma o dos puntos colgantes dejarían el JSON inválido aun cerrado
+        while (repaired.length() > 0 && (repaired.charAt(repaired.length() - 1) == ','
+                || repaired.charAt(repaired.length() - 1) == ':')) {
+            if (repaired.charAt(repaired.length() - 1) == ':') {
+                repaired.append("null");
+                break;
+            }
+            repaired.setLength(repaired.length() - 1);
+        }
+        closers.forEach(repaired::append);
+        return repaired.toString();
+    }
+}
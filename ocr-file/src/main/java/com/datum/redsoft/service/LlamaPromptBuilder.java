@@ -0,0 +1,250 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.config.PromptCompactionConfig;
+import com.datum.redsoft.model.llama.LlamaMessage;
+import com.datum.redsoft.model.llama.LlamaRequest;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Construye los prompts y requests de extracción de facturas para modelos LLaMA.
+ * <p>Compartido por las implementaciones bloqueante y reactiva del servicio de
+ * extracción, para que ambas envíen exactamente el mismo prompt.</p>
+ * <p>El texto OCR se compacta con {@link OCRTextCompactor} antes de incluirlo.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaPromptBuilder {
+
+    private static final Logger logger = Logger.getLogger(LlamaPromptBuilder.class.getName());
+
+    /**
+     * Versión del prompt de extracción. Debe incrementarse al modificar
+     * {@link #SYSTEM_PROMPT}, {@link #createInvoiceExtractionPrompt(String)} o la compactación
+     * para invalidar la caché de extracciones.
+     */
+    public static final String PROMPT_VERSION = "v3";
+
+    /**
+     * Instrucciones estáticas. Van en un mensaje de sistema separado e idéntico en todas
+     * las peticiones, para que el proveedor pueda reutilizar el prefijo en caché.
+     */
+    static final String SYSTEM_PROMPT = """
+        You are an AI assistant that extracts information from invoices and receipts.
+        
+        Extract ONLY the following 4 fields from the invoice/receipt text sent by the user and return a valid JSON object:
+        - vendor_name: Name of the business/company that issued the invoice
+        - invoice_date: Date of the invoice (format YYYY-MM-DD)
+        - total_amount: Total amount (numbers only, no currency symbols)
+        - currency: Currency used (USD, EUR, MXN, PEN, etc.)
+        
+        Return ONLY this JSON format, no other text:
+        {"vendor_name":"...","invoice_date":"...","total_amount":"...","currency":"..."}
+        
+        Use "Not found" for missing information.
+        """;
+
+    /**
+     * Instrucciones para varias facturas en una sola petición; cada documento llega
+     * precedido por {@code ### Document <id>} y la respuesta trae en {@code documents} un objeto por id.
+     */
+    static final String BATCH_SYSTEM_PROMPT = """
+        You are an AI assistant that extracts information from invoices and receipts.
+        
+        The user sends several invoice/receipt texts. Each one starts with a line "### Document <id>".
+        For EACH document extract ONLY these 4 fields:
+        - vendor_name: Name of the business/company that issued the invoice
+        - invoice_date: Date of the invoice (format YYYY-MM-DD)
+        - total_amount: Total amount (numbers only, no currency symbols)
+        - currency: Currency used (USD, EUR, MXN, PEN, etc.)
+        
+        Return ONLY a JSON object with one entry per document in "documents", using the same id, no other text:
+        {"documents":[{"id":"...","vendor_name":"...","invoice_date":"...","total_amount":"...","currency":"..."}]}
+        
+        Use "Not found" for missing information. Never mix data between documents.
+        """;
+
+    private static final Map<String, Object> INVOICE_SCHEMA = Map.of(
+        "type", "object",
+        "properties", Map.of(
+            "vendor_name", Map.of("type", "string"),
+            "invoice_date", Map.of("type", "string"),
+            "total_amount", Map.of("type", "string"),
+            "currency", Map.of("type", "string")
+        ),
+        "required", List.of("vendor_name", "invoice_date", "total_amount", "currency"),
+        "additionalProperties", false
+    );
+
+    private static final Map<String, Object> BATCH_SCHEMA = Map.of(
+        "type", "object",
+        "properties", Map.of(
+            "documents", Map.of(
+                "type", "array",
+                "items", Map.of(
+                    "type", "object",
+                    "properties", Map.of(
+                        "id", Map.of("type", "string"),
+                        "vendor_name", Map.of("type", "string"),
+                        "invoice_date", Map.of("type", "string"),
+                        "total_amount", Map.of("type", "string"),
+                        "currency", Map.of("type", "string")
+                    ),
+                    "required", List.of("id", "vendor_name", "invoice_date", "total_amount", "currency"),
+                    "additionalProperties", false
+                )
+            )
+        ),
+        "required", List.of("documents"),
+        "additionalProperties", false
+    );
+
+    private static final String FORMAT_JSON_SCHEMA = "json_schema";
+    private static final String FORMAT_JSON_OBJECT = "json_object";
+
+    /**
+     * Se desactiva si el proveedor rechaza {@code response_format}; a partir de ahí las
+     * peticiones salen sin él y la validación queda a cargo de {@link LlamaJsonContentReader}.
+     */
+    private volatile boolean responseFormatSupported = true;
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    PromptCompactionConfig compactionConfig;
+
+    @Inject
+    OCRTextCompactor textCompactor;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Construye el request de chat completion para extraer los 4 campos básicos.
+     *
+     * @param ocrText texto extraído mediante OCR
+     * @return request listo para serializar y enviar al router de Hugging Face
+     */
+    public LlamaRequest buildBasicExtractionRequest(String ocrText) {
+        return createLlamaRequest(createInvoiceExtractionPrompt(compact(ocrText)));
+    }
+
+    /**
+     * Igual que {@link #buildBasicExtractionRequest(String)}, pero con {@code stream=true}
+     * para recibir la respuesta como Server-Sent Events token a token.
+     */
+    public LlamaRequest buildStreamingExtractionRequest(String ocrText) {
+        LlamaRequest request = buildBasicExtractionRequest(ocrText);
+        request.setStream(true);
+        return request;
+    }
+
+    /**
+     * Construye un único request para varias facturas.
+     *
+     * @param ocrTextsById textos OCR ya compactados, indexados por id de documento (en orden)
+     * @param maxTokens tokens de respuesta reservados para todo el arreglo
+     * @return request listo para serializar y enviar al router de Hugging Face
+     */
+    public LlamaRequest buildBatchExtractionRequest(Map<String, String> ocrTextsById, int maxTokens) {
+        StringBuilder prompt = new StringBuilder();
+        ocrTextsById.forEach((id, text) -> prompt.append("### Document ").append(id).append('\n')
+                .append(text).append("\n\n"));
+
+        LlamaRequest request = new LlamaRequest(
+            Arrays.asList(new LlamaMessage("system", BATCH_SYSTEM_PROMPT), new LlamaMessage("user", prompt.toString().trim())),
+            hfConfig.getModel(),
+            false,
+            maxTokens,
+            hfConfig.getTemperature()
+        );
+        request.setResponseFormat(responseFormat("invoice_batch", BATCH_SCHEMA));
+        return request;
+    }
+
+    /**
+     * Formato de salida estructurada según {@code huggingface.response-format}: un JSON
+     * schema estricto, solo "JSON válido" o nada.
+     *
+     * @return valor de {@code response_format}, o null si no se debe enviar
+     */
+    Map<String, Object> responseFormat(String name, Map<String, Object> schema) {
+        if (!responseFormatSupported) {
+            return null;
+        }
+        return switch (hfConfig.getResponseFormat()) {
+            case FORMAT_JSON_SCHEMA -> Map.of(
+                "type", FORMAT_JSON_SCHEMA,
+                "json_schema", Map.of("name", name, "schema", schema, "strict", true)
+            );
+            case FORMAT_JSON_OBJECT -> Map.of("type", FORMAT_JSON_OBJECT);
+            default -> null;
+        };
+    }
+
+    /**
+     * Registra que el proveedor no acepta {@code response_format} para no volver a enviarlo.
+     */
+    void markResponseFormatUnsupported() {
+        if (responseFormatSupported) {
+            responseFormatSupported = false;
+            logger.warning("El proveedor rechazó response_format; se continúa sin salida estructurada");
+        }
+    }
+
+    /**
+     * Compacta el texto OCR y registra los tokens estimados antes y después
+     * ({@code extraction.prompt.tokens{stage}}); los tokens reales los informa
+     * {@link LlamaResponseParser} a partir de {@code usage}.
+     */
+    String compact(String ocrText) {
+        if (!compactionConfig.isCompactionEnabled()) {
+            return ocrText;
+        }
+        String compacted = textCompactor.compact(ocrText);
+        int before = compactionConfig.estimateTokens(ocrText);
+        int after = compactionConfig.estimateTokens(compacted);
+        recordTokens("original", before);
+        recordTokens("compacted", after);
+        logger.fine("Texto OCR compactado para el prompt: ~" + before + " -> ~" + after + " tokens");
+        return compacted;
+    }
+
+    private void recordTokens(String stage, int tokens) {
+        DistributionSummary.builder("extraction.prompt.tokens")
+                .description("Tokens estimados del texto OCR enviado al LLM")
+                .tag("stage", stage)
+                .register(meterRegistry)
+                .record(tokens);
+    }
+
+    String createInvoiceExtractionPrompt(String ocrText) {
+        return "Text:\n" + ocrText;
+    }
+
+    LlamaRequest createLlamaRequest(String prompt) {
+        LlamaMessage systemMessage = new LlamaMessage("system", SYSTEM_PROMPT);
+        LlamaMessage userMessage = new LlamaMessage("user", prompt);
+        
+        LlamaRequest request = new LlamaRequest(
+            Arrays.asList(systemMessage, userMessage),
+            hfConfig.getModel(),
+            false,
+            hfConfig.getMaxTokens(),
+            hfConfig.getTemperature()
+        );
+        request.setResponseFormat(responseFormat("invoice", INVOICE_SCHEMA));
+        return request;
+    }
+}
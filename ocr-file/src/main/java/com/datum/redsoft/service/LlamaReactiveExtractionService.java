@@ -0,0 +1,194 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.cache.ExtractionResultCache;
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.exception.UpstreamHttpException;
+import com.datum.redsoft.model.llama.LlamaRequest;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.datum.redsoft.resilience.DependencyRetryPolicy;
+import com.datum.redsoft.service.interfaces.ReactiveInvoiceDataExtractionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+/**
+ * Implementación no bloqueante del servicio de extracción de facturas con modelos LLaMA.
+ * <p>Usa {@link HuggingFaceHttpClient#sendAsync} y reintentos con la {@link DependencyRetryPolicy} de
+ * Hugging Face, cuyas esperas Mutiny programa en un scheduler en lugar de dormir el hilo. Comparte prompt,
+ * parser, caché, circuit breaker y límite de concurrencia con {@link LlamaInvoiceExtractionService}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaReactiveExtractionService implements ReactiveInvoiceDataExtractionService {
+
+    private static final Logger logger = Logger.getLogger(LlamaReactiveExtractionService.class.getName());
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    ExtractionResultCache extractionCache;
+
+    @Inject
+    LlamaPromptBuilder promptBuilder;
+
+    @Inject
+    LlamaResponseParser responseParser;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    HuggingFaceHttpClient httpClient;
+
+    @Override
+    public Uni<OCRResponseDTO> extractBasicInvoiceData(String extractedText) {
+        if (extractedText == null || extractedText.trim().isEmpty()) {
+            return Uni.createFrom().failure(new InvoiceExtractionException("El texto extraído está vacío o es nulo"));
+        }
+
+        Optional<OCRResponseDTO> cached = extractionCache.get(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText);
+        if (cached.isPresent()) {
+            logger.info("Extracción básica obtenida de caché, se omite la llamada al LLM");
+            return Uni.createFrom().item(cached.get());
+        }
+
+        LlamaRequest request = promptBuilder.buildBasicExtractionRequest(extractedText);
+
+        return withRetry(sendAsync(request))
+                .onItem().transform(this::parse)
+                .invoke(response -> {
+                    if (!responseParser.isParseFallback(response)) {
+                        extractionCache.put(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText, response);
+                    }
+                    logger.info("Extracción básica AI (asíncrona) completada exitosamente");
+                })
+                .onFailure(failure -> !(failure instanceof InvoiceExtractionException)
+                        && !(failure instanceof ServiceOverloadedException)).transform(e -> {
+                    logger.severe("Error en extracción básica AI: " + e.getMessage());
+                    return new InvoiceExtractionException("Error al extraer datos básicos de la factura", e);
+                });
+    }
+
+    /**
+     * Envía la petición sin bloquear. El request se serializa en la primera suscripción y
+     * los reintentos reenvían la misma petición HTTP; si el proveedor rechazó
+     * {@code response_format}, se vuelve a serializar y el reintento ya sale sin él.
+     * <p>Cada intento toma su propio permiso de {@link DependencyGuards#huggingFace()}.</p>
+     */
+    private Uni<String> sendAsync(LlamaRequest request) {
+        AtomicReference<HttpRequest> prepared = new AtomicReference<>();
+        return Uni.createFrom().deferred(() -> {
+                    DependencyGuard.Permit permit = dependencyGuards.huggingFace().acquire();
+                    return Uni.createFrom().completionStage(() -> {
+                                logger.info("Enviando petición asíncrona a Hugging Face Router API");
+                                HttpRequest httpRequest = prepared.updateAndGet(current -> current != null ? current : build(request));
+                                return httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString());
+                            })
+                            .onItemOrFailure().invoke((response, failure) -> {
+                                if (failure != null || DependencyGuard.isDependencyFailure(response.statusCode())) {
+                                    permit.failure();
+                                } else {
+                                    permit.success();
+                                }
+                            })
+                            .onCancellation().invoke(permit::release);
+                })
+                .onItem().transform(response -> {
+                    if (LlamaInvoiceExtractionService.isResponseFormatRejected(request, response.statusCode(), response.body())) {
+                        promptBuilder.markResponseFormatUnsupported();
+                        request.setResponseFormat(null);
+                        prepared.set(null);
+                    }
+                    if (response.statusCode() != 200) {
+                        throw new UpstreamHttpException(
+                            "Error en API de Hugging Face: " + response.statusCode() + " - " + response.body(),
+                            response.statusCode(),
+                            UpstreamHttpException.parseRetryAfter(response.headers().firstValue("retry-after").orElse(null)));
+                    }
+                    return response.body();
+                });
+    }
+
+    private HttpRequest build(LlamaRequest request) {
+        try {
+            return httpClient.buildRequest(request);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Error al serializar la petición al LLM", e);
+        }
+    }
+
+    /**
+     * Reintenta sin bloquear según {@link DependencyGuards#huggingFaceRetryPolicy()}: solo
+     * errores transitorios, con jitter, respetando Retry-After y dentro del presupuesto global.
+     * <p>Cuenta cada reintento en {@code extraction.llm.retries} y el resultado final en
+     * {@code extraction.llm.requests{outcome}}.</p>
+     */
+    private Uni<String> withRetry(Uni<String> request) {
+        DependencyRetryPolicy retryPolicy = dependencyGuards.huggingFaceRetryPolicy();
+        return Uni.createFrom().deferred(() -> {
+                    retryPolicy.onRequest();
+                    AtomicInteger attempt = new AtomicInteger(1);
+                    AtomicLong delayMs = new AtomicLong();
+                    return request
+                            .onFailure(failure -> !(failure instanceof ServiceOverloadedException)).retry()
+                            .when(failures -> failures.onItem().transformToUniAndConcatenate(failure -> {
+                                logger.warning("Intento fallido contra Hugging Face: " + failure.getMessage());
+                                if (attempt.getAndIncrement() >= retryPolicy.getMaxAttempts() || !retryPolicy.shouldRetry(failure)) {
+                                    return Uni.createFrom().failure(failure);
+                                }
+                                meterRegistry.counter("extraction.llm.retries").increment();
+                                long delay = retryPolicy.nextDelayMs(delayMs.get(), failure);
+                                delayMs.set(delay);
+                                return Uni.createFrom().item(failure).onItem().delayIt().by(Duration.ofMillis(delay));
+                            }));
+                })
+                .onItemOrFailure().invoke((item, failure) -> meterRegistry.counter("extraction.llm.requests",
+                        "outcome", outcome(failure)).increment());
+    }
+
+    private static String outcome(Throwable failure) {
+        if (failure == null) {
+            return "success";
+        }
+        return failure instanceof ServiceOverloadedException ? "rejected" : "exhausted";
+    }
+
+    private OCRResponseDTO parse(String jsonResponse) {
+        try {
+            return responseParser.parseBasicInvoiceResponse(jsonResponse);
+        } catch (Exception e) {
+            throw new IllegalStateException("Respuesta inválida de Llama: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return hfConfig.isValid();
+    }
+
+    @Override
+    public String getExtractionMethod() {
+        return "AI";
+    }
+}
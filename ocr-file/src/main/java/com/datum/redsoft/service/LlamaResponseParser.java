@@ -0,0 +1,180 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.dto.response.InvoiceDataResponse;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.model.llama.LlamaResponse;
+import com.datum.redsoft.model.llama.LlamaUsage;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Interpreta las respuestas del router de Hugging Face y las convierte en DTOs de factura.
+ * <p>Compartido por las implementaciones bloqueante y reactiva del servicio de extracción.
+ * El JSON del contenido lo valida (y repara si hace falta) {@link LlamaJsonContentReader};
+ * si no se puede recuperar, se devuelve el resultado de error reconocible con
+ * {@link #isParseFallback(OCRResponseDTO)}.</p>
+ * <p>La extracción completa de error lleva confianza 0.0; la válida sale sin confianza y la
+ * calcula {@link LlamaInvoiceExtractionService}, que conoce la calidad del texto OCR.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaResponseParser {
+
+    private static final Logger logger = Logger.getLogger(LlamaResponseParser.class.getName());
+
+    static final String PARSE_ERROR_VENDOR = "Error al procesar";
+    private static final String NOT_FOUND = "No encontrado";
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    LlamaJsonContentReader contentReader;
+
+    /**
+     * Indica si la extracción corresponde al valor por defecto usado cuando el modelo
+     * no devolvió un JSON reconocible (no debe almacenarse en caché).
+     */
+    public boolean isParseFallback(OCRResponseDTO response) {
+        return PARSE_ERROR_VENDOR.equals(response.getVendorName());
+    }
+
+    public InvoiceDataResponse parseInvoiceResponse(String jsonResponse) throws Exception {
+        logger.info("Parseando respuesta de Llama Router");
+        
+        LlamaResponse llamaResponse = objectMapper.readValue(jsonResponse, LlamaResponse.class);
+        recordUsage(llamaResponse.getUsage());
+        
+        if (llamaResponse.getChoices() != null && !llamaResponse.getChoices().isEmpty()) {
+            String content = llamaResponse.getChoices().get(0).getMessage().getContent();
+            Optional<JsonNode> data = contentReader.read(content).filter(JsonNode::isObject);
+            if (data.isEmpty()) {
+                return new InvoiceDataResponse(PARSE_ERROR_VENDOR, NOT_FOUND, "0", NOT_FOUND, NOT_FOUND, "AI", 0.0);
+            }
+            
+            return new InvoiceDataResponse(
+                text(data.get(), "company_name", NOT_FOUND),
+                text(data.get(), "invoice_date", NOT_FOUND),
+                text(data.get(), "total_amount", "0"),
+                text(data.get(), "currency", NOT_FOUND),
+                text(data.get(), "invoice_number", NOT_FOUND),
+                "AI",
+                null
+            );
+        }
+        
+        throw new RuntimeException("No se recibió respuesta válida de Llama");
+    }
+
+    public OCRResponseDTO parseBasicInvoiceResponse(String jsonResponse) throws Exception {
+        logger.info("Parseando respuesta básica de Llama Router");
+        
+        LlamaResponse llamaResponse = objectMapper.readValue(jsonResponse, LlamaResponse.class);
+        recordUsage(llamaResponse.getUsage());
+        
+        if (llamaResponse.getChoices() != null && !llamaResponse.getChoices().isEmpty()) {
+            String content = llamaResponse.getChoices().get(0).getMessage().getContent();
+            Optional<JsonNode> data = contentReader.read(content).filter(JsonNode::isObject);
+            if (data.isEmpty()) {
+                return new OCRResponseDTO(PARSE_ERROR_VENDOR, NOT_FOUND, "0", NOT_FOUND);
+            }
+            
+            return new OCRResponseDTO(
+                text(data.get(), "vendor_name", NOT_FOUND),
+                text(data.get(), "invoice_date", NOT_FOUND),
+                text(data.get(), "total_amount", "0"),
+                text(data.get(), "currency", NOT_FOUND)
+            );
+        }
+        
+        throw new RuntimeException("No se recibió respuesta válida de Llama para datos básicos");
+    }
+
+    /**
+     * Valor de texto de un campo; los números se devuelven con su representación original.
+     */
+    /**
+     * Lee un campo de texto; el marcador de ausencia del prompt ("Not found") se traduce al
+     * valor por defecto para que el resto del pipeline lo reconozca como campo faltante.
+     */
+    private static String text(JsonNode data, String field, String defaultValue) {
+        JsonNode value = data.get(field);
+        if (value == null || value.isNull() || !value.isValueNode()) {
+            return defaultValue;
+        }
+        String text = value.asText();
+        return ExtractionConfidence.isMissing(text) ? defaultValue : text;
+    }
+
+    /**
+     * Interpreta la respuesta de una extracción agrupada y la separa por documento.
+     * <p>Los objetos sin id conocido o sin los campos esperados se omiten; el llamador
+     * extrae esos documentos de forma individual.</p>
+     *
+     * @param jsonResponse respuesta completa del router
+     * @return datos básicos por id de documento (vacío si el contenido no trae el arreglo de documentos)
+     */
+    public Map<String, OCRResponseDTO> parseBatchInvoiceResponse(String jsonResponse) throws Exception {
+        logger.info("Parseando respuesta agrupada de Llama Router");
+
+        LlamaResponse llamaResponse = objectMapper.readValue(jsonResponse, LlamaResponse.class);
+        recordUsage(llamaResponse.getUsage());
+
+        Map<String, OCRResponseDTO> results = new LinkedHashMap<>();
+        if (llamaResponse.getChoices() == null || llamaResponse.getChoices().isEmpty()) {
+            return results;
+        }
+        String content = llamaResponse.getChoices().get(0).getMessage().getContent();
+        Optional<JsonNode> data = contentReader.read(content);
+        JsonNode items = data.map(node -> node.isObject() ? node.path("documents") : node).orElse(null);
+        if (items == null || !items.isArray()) {
+            logger.warning("La respuesta agrupada no contiene el arreglo de documentos");
+            return results;
+        }
+        for (JsonNode item : items) {
+            String id = text(item, "id", null);
+            if (id == null || !item.hasNonNull("vendor_name") || !item.hasNonNull("total_amount")) {
+                continue;
+            }
+            results.put(id, new OCRResponseDTO(
+                text(item, "vendor_name", NOT_FOUND),
+                text(item, "invoice_date", NOT_FOUND),
+                text(item, "total_amount", "0"),
+                text(item, "currency", NOT_FOUND)
+            ));
+        }
+        return results;
+    }
+
+    /**
+     * Registra los tokens reales informados por el proveedor en {@code usage}
+     * ({@code extraction.llm.tokens{type}}), para contrastarlos con los estimados
+     * antes y después de la compactación ({@code extraction.prompt.tokens}).
+     */
+    private void recordUsage(LlamaUsage usage) {
+        if (usage == null) {
+            return;
+        }
+        if (usage.getPromptTokens() != null) {
+            meterRegistry.counter("extraction.llm.tokens", "type", "prompt").increment(usage.getPromptTokens());
+        }
+        if (usage.getCompletionTokens() != null) {
+            meterRegistry.counter("extraction.llm.tokens", "type", "completion").increment(usage.getCompletionTokens());
+        }
+        logger.info("Tokens consumidos por el LLM: prompt=" + usage.getPromptTokens()
+                + ", completion=" + usage.getCompletionTokens());
+    }
+}
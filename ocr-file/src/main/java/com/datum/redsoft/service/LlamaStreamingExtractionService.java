@@ -0,0 +1,221 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.cache.ExtractionResultCache;
+import com.datum.redsoft.config.HuggingFaceConfig;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.model.llama.LlamaRequest;
+import com.datum.redsoft.resilience.DependencyGuard;
+import com.datum.redsoft.resilience.DependencyGuards;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Extracción de facturas con el LLM en modo streaming ({@code stream=true}).
+ * <p>Consume los Server-Sent Events del router de Hugging Face, concatena los deltas de
+ * contenido en un {@link IncrementalJsonObjectParser} y emite cada campo en cuanto el
+ * modelo termina de escribirlo. La conexión se cierra apenas llega la llave de cierre del
+ * objeto, sin esperar el resto de la respuesta.</p>
+ * <p>Comparte prompt y caché con {@link LlamaInvoiceExtractionService}. No reintenta: un
+ * reintento a mitad del stream duplicaría campos ya emitidos. La conexión ocupa un cupo
+ * del límite de concurrencia de Hugging Face hasta recibir las cabeceras de la respuesta.</p>
+ * <p>El cuerpo se lee en el pool de workers de Mutiny y no en el executor de
+ * {@link HuggingFaceHttpClient}: ese executor es el que entrega los fragmentos del cuerpo, y
+ * bloquearlo con muchos streams concurrentes los dejaría esperándose entre sí.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class LlamaStreamingExtractionService {
+
+    private static final Logger logger = Logger.getLogger(LlamaStreamingExtractionService.class.getName());
+
+    public static final String EXTRACTION_METHOD = "AI";
+
+    static final String FIELD_VENDOR = "vendor_name";
+    static final String FIELD_DATE = "invoice_date";
+    static final String FIELD_TOTAL = "total_amount";
+    static final String FIELD_CURRENCY = "currency";
+
+    private static final String SSE_DATA_PREFIX = "data:";
+    private static final String SSE_DONE = "[DONE]";
+
+    @Inject
+    HuggingFaceConfig hfConfig;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    ExtractionResultCache extractionCache;
+
+    @Inject
+    LlamaPromptBuilder promptBuilder;
+
+    @Inject
+    DependencyGuards dependencyGuards;
+
+    @Inject
+    HuggingFaceHttpClient httpClient;
+
+    /**
+     * Extrae los datos básicos emitiendo cada campo ({@code vendor_name}, {@code invoice_date},
+     * {@code total_amount}, {@code currency}) apenas está completo.
+     *
+     * @param extractedText texto extraído mediante OCR
+     * @return pares campo/valor en el orden en que los genera el modelo; completa al cerrar el objeto
+     */
+    public Multi<Map.Entry<String, String>> streamBasicInvoiceData(String extractedText) {
+        if (extractedText == null || extractedText.trim().isEmpty()) {
+            return Multi.createFrom().failure(new InvoiceExtractionException("El texto extraído está vacío o es nulo"));
+        }
+
+        Optional<OCRResponseDTO> cached = extractionCache.get(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText);
+        if (cached.isPresent()) {
+            logger.info("Extracción básica obtenida de caché, se omite la llamada al LLM");
+            return Multi.createFrom().iterable(fieldsOf(cached.get()));
+        }
+
+        LlamaRequest request = promptBuilder.buildStreamingExtractionRequest(extractedText);
+        HttpRequest httpRequest;
+        try {
+            httpRequest = httpClient.buildStreamingRequest(request);
+        } catch (JsonProcessingException e) {
+            return Multi.createFrom().failure(new InvoiceExtractionException("Error al serializar la petición al LLM", e));
+        }
+
+        return Multi.createFrom().emitter(emitter -> {
+            DependencyGuard.Permit permit;
+            try {
+                permit = dependencyGuards.huggingFace().acquire();
+            } catch (ServiceOverloadedException e) {
+                emitter.fail(e);
+                return;
+            }
+
+            logger.info("Enviando petición en streaming a Hugging Face Router API");
+            CompletableFuture<HttpResponse<Stream<String>>> response =
+                    httpClient.sendAsync(httpRequest, HttpResponse.BodyHandlers.ofLines());
+            emitter.onTermination(() -> {
+                permit.release();
+                response.cancel(true);
+            });
+            // Leer el stream de líneas bloquea: no se hace en el executor que entrega los cuerpos HTTP/2
+            response.whenCompleteAsync((httpResponse, failure) -> {
+                if (failure != null) {
+                    permit.failure();
+                    emitter.fail(new InvoiceExtractionException("Error al conectar con Hugging Face", failure));
+                    return;
+                }
+                if (DependencyGuard.isDependencyFailure(httpResponse.statusCode())) {
+                    permit.failure();
+                } else {
+                    permit.success();
+                }
+                consume(request, httpResponse, extractedText, emitter);
+            }, Infrastructure.getDefaultWorkerPool());
+        });
+    }
+
+    /**
+     * Lee el stream SSE hasta que el objeto JSON se cierra, llega {@code [DONE]} o el
+     * suscriptor cancela. Cerrar el stream de líneas abandona el resto de la respuesta.
+     */
+    private void consume(LlamaRequest request, HttpResponse<Stream<String>> httpResponse, String extractedText,
+                         MultiEmitter<? super Map.Entry<String, String>> emitter) {
+        try (Stream<String> lines = httpResponse.body()) {
+            if (httpResponse.statusCode() != 200) {
+                String body = lines.collect(Collectors.joining("\n"));
+                if (LlamaInvoiceExtractionService.isResponseFormatRejected(request, httpResponse.statusCode(), body)) {
+                    promptBuilder.markResponseFormatUnsupported();
+                }
+                emitter.fail(new InvoiceExtractionException(
+                    "Error en API de Hugging Face: " + httpResponse.statusCode() + " - " + body));
+                return;
+            }
+
+            IncrementalJsonObjectParser parser = new IncrementalJsonObjectParser();
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext() && !parser.isComplete() && !emitter.isCancelled()) {
+                String line = iterator.next();
+                if (!line.startsWith(SSE_DATA_PREFIX)) {
+                    continue;
+                }
+                String data = line.substring(SSE_DATA_PREFIX.length()).strip();
+                if (SSE_DONE.equals(data)) {
+                    break;
+                }
+                parser.feed(deltaContent(data)).forEach(emitter::emit);
+            }
+
+            if (parser.isComplete()) {
+                extractionCache.put(hfConfig.getModel(), LlamaPromptBuilder.PROMPT_VERSION, extractedText,
+                    toResponse(parser.getFields()));
+                logger.info("Extracción básica AI (streaming) completada exitosamente");
+            } else {
+                logger.warning("El stream del LLM terminó sin cerrar el objeto JSON");
+            }
+            emitter.complete();
+        } catch (Exception e) {
+            logger.severe("Error en extracción AI en streaming: " + e.getMessage());
+            emitter.fail(new InvoiceExtractionException("Error al extraer datos básicos de la factura", e));
+        }
+    }
+
+    private String deltaContent(String data) throws JsonProcessingException {
+        JsonNode chunk = objectMapper.readTree(data);
+        JsonNode content = chunk.path("choices").path(0).path("delta").path("content");
+        return content.isTextual() ? content.asText() : null;
+    }
+
+    /**
+     * Arma el DTO con los campos recibidos; los faltantes quedan con los mismos valores
+     * por defecto que usa {@link LlamaResponseParser}.
+     */
+    public static OCRResponseDTO toResponse(Map<String, String> fields) {
+        return new OCRResponseDTO(
+            valueOrDefault(fields, FIELD_VENDOR, "No encontrado"),
+            valueOrDefault(fields, FIELD_DATE, "No encontrado"),
+            valueOrDefault(fields, FIELD_TOTAL, "0"),
+            valueOrDefault(fields, FIELD_CURRENCY, "No encontrado")
+        );
+    }
+
+    private static String valueOrDefault(Map<String, String> fields, String field, String defaultValue) {
+        String value = fields.get(field);
+        return ExtractionConfidence.isMissing(value) ? defaultValue : value;
+    }
+
+    private static List<Map.Entry<String, String>> fieldsOf(OCRResponseDTO response) {
+        return List.of(
+            new AbstractMap.SimpleImmutableEntry<>(FIELD_VENDOR, response.getVendorName()),
+            new AbstractMap.SimpleImmutableEntry<>(FIELD_DATE, response.getInvoiceDate()),
+            new AbstractMap.SimpleImmutableEntry<>(FIELD_TOTAL, response.getTotalAmount()),
+            new AbstractMap.SimpleImmutableEntry<>(FIELD_CURRENCY, response.getCurrency())
+        );
+    }
+
+    public boolean isServiceAvailable() {
+        return hfConfig.isValid();
+    }
+}
@@ -0,0 +1,365 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.OCRBatchConfig;
+import com.datum.redsoft.dto.response.OCRBatchItemResponse;
+import com.datum.redsoft.exception.PayloadTooLargeException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.resteasy.reactive.multipart.FileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Servicio de análisis OCR por lotes (ZIP o multipart con varios archivos).
+ * <p>Los archivos se leen de uno en uno y se despachan a un executor compartido cuyo
+ * tamaño es el límite global de paralelismo; cada lote además adquiere un permiso por
+ * archivo en vuelo, de modo que un solo lote no acapara el executor ni el disco temporal
+ * más allá de {@code per-batch-parallelism} archivos. La lectura corre en un worker al
+ * suscribirse al stream y los resultados se emiten en el orden en que terminan, mientras
+ * el resto del lote sigue leyéndose.</p>
+ * <p>La suma de los archivos de un lote (descomprimidos, en un ZIP) no puede superar
+ * {@code ocr.batch.max-total-size-mb}; si la supera se responde 413
+ * ({@link PayloadTooLargeException}). El cuerpo HTTP sigue acotado por el límite global
+ * {@code quarkus.http.limits.max-body-size}.</p>
+ * <p>La extracción con IA de los archivos en vuelo se agrupa en peticiones compartidas
+ * al LLM ({@code extraction.batch.*}).</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class OCRBatchService {
+
+    private static final Logger logger = Logger.getLogger(OCRBatchService.class.getName());
+
+    @Inject
+    OCRBatchConfig batchConfig;
+
+    @Inject
+    OCRPipelineService pipelineService;
+
+    @Inject
+    OCRFileValidator fileValidator;
+
+    @Inject
+    DocumentSpooler documentSpooler;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(batchConfig.getGlobalParallelism(), runnable -> {
+            Thread thread = new Thread(runnable, "ocr-batch-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        logger.info("Executor de lotes OCR inicializado: " + batchConfig);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Procesa las entradas de un archivo ZIP leyéndolas en streaming.
+     * <p>La lectura y el despacho corren en un worker al suscribirse, de modo que cada
+     * resultado sale en cuanto su archivo termina. Si el lote se rechaza a mitad de lectura
+     * (demasiados archivos o tamaño total) se cancelan los archivos en vuelo y el stream
+     * termina con ese error.</p>
+     *
+     * @param zipStream contenido del ZIP
+     * @return resultados por archivo, emitidos conforme terminan
+     */
+    public Multi<OCRBatchItemResponse> processZip(InputStream zipStream) {
+        return stream(run -> {
+            long totalSize = 0;
+            try (ZipInputStream zip = new ZipInputStream(zipStream)) {
+                ZipEntry entry;
+                while (!run.isAborted() && (entry = zip.getNextEntry()) != null) {
+                    if (entry.isDirectory()) {
+                        continue;
+                    }
+                    int index = run.nextIndex();
+                    checkBatchSize(index);
+
+                    String fileName = entry.getName();
+                    String contentType;
+                    try {
+                        contentType = fileValidator.contentTypeForFileName(fileName);
+                    } catch (IllegalArgumentException e) {
+                        run.reject(index, fileName, e);
+                        continue;
+                    }
+
+                    Long declaredSize = entry.getSize() >= 0 ? entry.getSize() : null;
+                    if (declaredSize != null) {
+                        checkBatchTotalSize(totalSize + declaredSize);
+                    }
+                    run.acquirePermit();
+                    OCRDocument document;
+                    try {
+                        document = documentSpooler.spool(zip, contentType, declaredSize);
+                    } catch (IllegalArgumentException e) {
+                        run.releasePermit();
+                        run.reject(index, fileName, e);
+                        continue;
+                    }
+                    totalSize += document.getSize();
+                    try {
+                        checkBatchTotalSize(totalSize);
+                    } catch (PayloadTooLargeException e) {
+                        run.releasePermit();
+                        document.close();
+                        throw e;
+                    }
+                    run.dispatch(index, fileName, document);
+                }
+            }
+            logger.info("Lote ZIP leído con " + run.nextIndex() + " archivos");
+        });
+    }
+
+    /**
+     * Procesa los archivos de una petición multipart.
+     * <p>El número de archivos y su tamaño total se validan antes de despachar ninguno, por lo
+     * que un lote rechazado responde 400 o 413 sin llamar a Azure ni al LLM.</p>
+     *
+     * @param files archivos recibidos en el campo {@code files}
+     * @return resultados por archivo, emitidos conforme terminan
+     */
+    public Multi<OCRBatchItemResponse> processFiles(List<FileUpload> files) {
+        checkBatchSize(files.size() - 1);
+        checkBatchTotalSize(files.stream().mapToLong(FileUpload::size).sum());
+
+        return stream(run -> {
+            for (FileUpload file : files) {
+                if (run.isAborted()) {
+                    return;
+                }
+                int index = run.nextIndex();
+                String fileName = file.fileName();
+                String contentType;
+                try {
+                    contentType = file.contentType() != null
+                            ? file.contentType()
+                            : fileValidator.contentTypeForFileName(fileName);
+                    fileValidator.validateContentType(contentType);
+                } catch (IllegalArgumentException e) {
+                    run.reject(index, fileName, e);
+                    continue;
+                }
+
+                run.acquirePermit();
+                try {
+                    run.dispatch(index, fileName, documentSpooler.fromFile(file.uploadedFile(), contentType));
+                } catch (IllegalArgumentException e) {
+                    run.releasePermit();
+                    run.reject(index, fileName, e);
+                }
+            }
+            logger.info("Lote multipart recibido con " + run.nextIndex() + " archivos");
+        });
+    }
+
+    private void checkBatchSize(int currentIndex) {
+        if (currentIndex >= batchConfig.getMaxFiles()) {
+            throw new IllegalArgumentException("El lote supera el máximo de " + batchConfig.getMaxFiles() + " archivos");
+        }
+    }
+
+    /**
+     * Rechaza el lote si la suma de sus archivos supera {@code ocr.batch.max-total-size-mb}.
+     */
+    private void checkBatchTotalSize(long totalSize) {
+        if (totalSize > batchConfig.getMaxTotalSizeBytes()) {
+            throw new PayloadTooLargeException("El lote supera el tamaño total máximo de "
+                    + batchConfig.getMaxTotalSizeMb() + "MB");
+        }
+    }
+
+    /**
+     * Ejecuta el lector del lote en un worker al suscribirse y emite cada resultado en cuanto
+     * su archivo termina. Un error del lector, o la cancelación del cliente, cancela los
+     * archivos en vuelo.
+     */
+    private Multi<OCRBatchItemResponse> stream(BatchReader reader) {
+        return Multi.createFrom().<OCRBatchItemResponse>emitter(emitter -> {
+                    BatchRun run = new BatchRun(emitter);
+                    emitter.onTermination(run::cancelInFlight);
+                    try {
+                        reader.read(run);
+                        run.readerDone();
+                    } catch (Exception e) {
+                        logger.warning("Lote rechazado durante la lectura: " + e.getMessage());
+                        run.abort(e);
+                    }
+                })
+                .runSubscriptionOn(Infrastructure.getDefaultWorkerPool());
+    }
+
+    @FunctionalInterface
+    private interface BatchReader {
+        void read(BatchRun run) throws IOException;
+    }
+
+    /**
+     * Estado de un lote en curso: permisos por lote, archivos en vuelo y emisión de resultados.
+     * El stream se completa cuando el lector terminó y no queda ningún archivo pendiente.
+     */
+    private final class BatchRun {
+
+        private final MultiEmitter<? super OCRBatchItemResponse> emitter;
+        private final Semaphore permits = new Semaphore(batchConfig.getPerBatchParallelism());
+        private final Set<InFlight> inFlight = ConcurrentHashMap.newKeySet();
+        private final AtomicBoolean aborted = new AtomicBoolean();
+        /** Archivos sin resultado emitido, más uno mientras el lector sigue leyendo */
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private int nextIndex;
+
+        private BatchRun(MultiEmitter<? super OCRBatchItemResponse> emitter) {
+            this.emitter = emitter;
+        }
+
+        int nextIndex() {
+            return nextIndex;
+        }
+
+        boolean isAborted() {
+            return aborted.get();
+        }
+
+        void acquirePermit() {
+            permits.acquireUninterruptibly();
+        }
+
+        void releasePermit() {
+            permits.release();
+        }
+
+        void reject(int index, String fileName, IllegalArgumentException e) {
+            nextIndex = index + 1;
+            pending.incrementAndGet();
+            emit(new OCRBatchItemResponse(index, fileName, e.getMessage()));
+        }
+
+        /**
+         * Despacha un documento al executor global. El llamador ya adquirió el permiso del
+         * lote, que se libera al terminar junto con el archivo temporal del documento.
+         */
+        void dispatch(int index, String fileName, OCRDocument document) {
+            nextIndex = index + 1;
+            if (aborted.get()) {
+                document.close();
+                permits.release();
+                return;
+            }
+            pending.incrementAndGet();
+            InFlight item = new InFlight(document);
+            inFlight.add(item);
+            item.future = executor.submit(() -> {
+                if (!item.started.compareAndSet(false, true)) {
+                    return;
+                }
+                OCRBatchItemResponse response;
+                try (document) {
+                    logger.info("Procesando archivo " + index + " del lote: " + fileName + " (" + document.getContentType() + ")");
+                    response = new OCRBatchItemResponse(index, fileName, pipelineService.analyzeInBatch(document));
+                } catch (Exception e) {
+                    logger.warning("Error en archivo " + fileName + " del lote: " + e.getMessage());
+                    response = new OCRBatchItemResponse(index, fileName, e.getMessage());
+                } finally {
+                    inFlight.remove(item);
+                    permits.release();
+                }
+                emit(response);
+            });
+        }
+
+        void readerDone() {
+            finish();
+        }
+
+        /**
+         * Rechaza el lote a mitad de lectura: cancela los archivos en vuelo y termina el stream con el error.
+         */
+        void abort(Throwable failure) {
+            cancelInFlight();
+            synchronized (emitter) {
+                emitter.fail(failure);
+            }
+        }
+
+        /**
+         * Los archivos que aún no empezaron se descartan cerrando su documento; los que están
+         * en curso se interrumpen. Sus resultados ya no se emiten.
+         */
+        void cancelInFlight() {
+            if (!aborted.compareAndSet(false, true)) {
+                return;
+            }
+            for (InFlight item : inFlight) {
+                if (item.started.compareAndSet(false, true)) {
+                    item.future.cancel(false);
+                    item.document.close();
+                    inFlight.remove(item);
+                    permits.release();
+                } else {
+                    item.future.cancel(true);
+                }
+            }
+            if (!inFlight.isEmpty()) {
+                logger.info("Lote cancelado con " + inFlight.size() + " archivos en curso");
+            }
+        }
+
+        private void emit(OCRBatchItemResponse item) {
+            synchronized (emitter) {
+                if (!aborted.get()) {
+                    emitter.emit(item);
+                }
+            }
+            finish();
+        }
+
+        private void finish() {
+            if (pending.decrementAndGet() == 0) {
+                synchronized (emitter) {
+                    if (!aborted.get()) {
+                        emitter.complete();
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class InFlight {
+        private final OCRDocument document;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private volatile Future<?> future;
+
+        private InFlight(OCRDocument document) {
+            this.document = document;
+        }
+    }
+}
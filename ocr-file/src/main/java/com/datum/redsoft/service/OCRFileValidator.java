@@ -0,0 +1,106 @@
+package com.datum.redsoft.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Reglas de validación de archivos para análisis OCR.
+ * <p>Compartidas por el endpoint individual, los trabajos asíncronos y el procesamiento
+ * por lotes, para que todos acepten exactamente los mismos tipos y tamaños.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class OCRFileValidator {
+
+    public static final int MAX_FILE_SIZE = 10 * 1024 * 1024;
+    public static final int MIN_FILE_SIZE = 1024;
+
+    private static final String[] ALLOWED_TYPES = {
+        "image/jpeg", "image/png", "image/tiff", "image/bmp",
+        "application/pdf",
+        "application/json", "application/xml", "text/xml"
+    };
+
+    private static final Map<String, String> CONTENT_TYPES_BY_EXTENSION = Map.of(
+        "jpg", "image/jpeg",
+        "jpeg", "image/jpeg",
+        "png", "image/png",
+        "tif", "image/tiff",
+        "tiff", "image/tiff",
+        "bmp", "image/bmp",
+        "pdf", "application/pdf",
+        "json", "application/json",
+        "xml", "application/xml"
+    );
+
+    /**
+     * Valida que el Content-Type esté en la lista de tipos soportados.
+     *
+     * @param contentType Tipo MIME a validar
+     * @throws IllegalArgumentException si el tipo no es soportado
+     */
+    public void validateContentType(String contentType) {
+        boolean isValid = false;
+        for (String allowedType : ALLOWED_TYPES) {
+            if (contentType.toLowerCase().contains(allowedType.toLowerCase())) {
+                isValid = true;
+                break;
+            }
+        }
+
+        if (!isValid) {
+            throw new IllegalArgumentException("Tipo de archivo no soportado: " + contentType);
+        }
+    }
+
+    /**
+     * Valida el tamaño del archivo para asegurar que esté dentro de los límites aceptables.
+     *
+     * @param imageData Datos del archivo en bytes
+     * @throws IllegalArgumentException si el archivo está vacío, es muy pequeño (&lt;1KB) o muy grande (&gt;10MB)
+     */
+    public void validateFileData(byte[] imageData) {
+        validateFileSize(imageData.length);
+    }
+
+    /**
+     * Valida el tamaño declarado o medido de un archivo.
+     *
+     * @param size tamaño en bytes
+     * @throws IllegalArgumentException si el archivo está vacío, es muy pequeño (&lt;1KB) o muy grande (&gt;10MB)
+     */
+    public void validateFileSize(long size) {
+        if (size == 0) {
+            throw new IllegalArgumentException("El archivo está vacío");
+        }
+
+        if (size > MAX_FILE_SIZE) {
+            throw new IllegalArgumentException("El archivo es demasiado grande. Máximo permitido: 10MB");
+        }
+
+        if (size < MIN_FILE_SIZE) {
+            throw new IllegalArgumentException("El archivo es demasiado pequeño. Mínimo requerido: 1KB");
+        }
+    }
+
+    /**
+     * Deduce el Content-Type a partir de la extensión del nombre de archivo.
+     *
+     * @param fileName nombre del archivo (por ejemplo, una entrada de un ZIP)
+     * @return tipo MIME soportado
+     * @throws IllegalArgumentException si la extensión no corresponde a un tipo soportado
+     */
+    public String contentTypeForFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        String extension = dot >= 0 ? fileName.substring(dot + 1).toLowerCase(Locale.ROOT) : "";
+        String contentType = CONTENT_TYPES_BY_EXTENSION.get(extension);
+        if (contentType == null) {
+            throw new IllegalArgumentException("Tipo de archivo no soportado: " + fileName);
+        }
+        return contentType;
+    }
+}
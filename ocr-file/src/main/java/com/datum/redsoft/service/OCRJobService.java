@@ -0,0 +1,144 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.OCRJobConfig;
+import com.datum.redsoft.dto.response.OCRJobResponse;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.model.ocr.OCRJob;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Servicio de ejecución asíncrona de análisis OCR.
+ * <p>Recibe archivos ya validados, los encola en un executor acotado y ejecuta el
+ * {@link OCRPipelineService} fuera del hilo HTTP. Cuando la cola está llena la solicitud
+ * se rechaza de inmediato con {@link ServiceOverloadedException} en lugar de bloquear
+ * al cliente, de modo que la capacidad de recepción no depende de la latencia de
+ * Azure ni de Hugging Face.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class OCRJobService {
+
+    private static final Logger logger = Logger.getLogger(OCRJobService.class.getName());
+
+    @Inject
+    OCRJobConfig jobConfig;
+
+    @Inject
+    OCRPipelineService pipelineService;
+
+    private final Map<String, OCRJob> jobs = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger threadCounter = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            jobConfig.getWorkerThreads(),
+            jobConfig.getWorkerThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(jobConfig.getQueueCapacity()),
+            runnable -> {
+                Thread thread = new Thread(runnable, "ocr-job-worker-" + threadCounter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy()
+        );
+        logger.info("Executor de trabajos OCR inicializado: " + jobConfig);
+    }
+
+    /**
+     * Detiene el executor y cierra los documentos de los trabajos que quedaban en cola, que
+     * ya no se ejecutarán, para no dejar sus archivos temporales en disco.
+     */
+    @PreDestroy
+    void shutdown() {
+        int pending = executor.shutdownNow().size();
+        long discarded = jobs.values().stream()
+                .filter(job -> job.discardIfQueued("El servicio se detuvo antes de procesar el trabajo"))
+                .count();
+        if (pending > 0 || discarded > 0) {
+            logger.info("Executor de trabajos OCR detenido: " + discarded + " trabajos en cola descartados");
+        }
+    }
+
+    /**
+     * Encola un documento para su análisis asíncrono.
+     * <p>El servicio toma posesión del documento y lo cierra al terminar o al rechazarlo.</p>
+     *
+     * @param document documento ya validado y copiado a disco
+     * @return estado inicial del trabajo (QUEUED) con su identificador
+     * @throws ServiceOverloadedException si la cola de trabajos está llena
+     */
+    public OCRJobResponse submit(OCRDocument document) {
+        evictExpiredJobs();
+
+        OCRJob job = new OCRJob(UUID.randomUUID().toString(), document);
+        jobs.put(job.getId(), job);
+
+        try {
+            executor.execute(() -> process(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            document.close();
+            logger.warning("Cola de trabajos OCR llena (" + jobConfig.getQueueCapacity() + "), solicitud rechazada");
+            throw new ServiceOverloadedException(
+                "La cola de trabajos OCR está llena", jobConfig.getRetryAfterSeconds(), e);
+        }
+
+        logger.info("Trabajo OCR encolado: " + job.getId() + " (en cola: " + executor.getQueue().size() + ")");
+        return job.toResponse();
+    }
+
+    /**
+     * Obtiene el estado actual de un trabajo.
+     *
+     * @param jobId identificador devuelto al encolar
+     * @return estado del trabajo, vacío si no existe o ya expiró
+     */
+    public Optional<OCRJobResponse> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(OCRJob::toResponse);
+    }
+
+    private void process(OCRJob job) {
+        OCRDocument started = job.start();
+        if (started == null) {
+            return;
+        }
+        logger.info("=== INICIO TRABAJO OCR " + job.getId() + " ===");
+        try (OCRDocument document = started) {
+            job.complete(pipelineService.analyze(document));
+            logger.info("=== FIN TRABAJO OCR " + job.getId() + " ===");
+        } catch (Exception e) {
+            logger.severe("Error en trabajo OCR " + job.getId() + ": " + e.getMessage());
+            job.fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Elimina los trabajos terminados cuya ventana de retención ya venció.
+     */
+    private void evictExpiredJobs() {
+        long threshold = System.currentTimeMillis()
+                - TimeUnit.MINUTES.toMillis(jobConfig.getRetentionMinutes());
+        jobs.values().removeIf(job -> job.isFinishedBefore(threshold));
+    }
+}
@@ -0,0 +1,488 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.OCRPageConfig;
+import com.datum.redsoft.dto.response.OCRAnalysisResponse;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.dto.response.OCRStreamEvent;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.exception.ServiceOverloadedException;
+import com.datum.redsoft.model.extraction.ExtractionResult;
+import com.datum.redsoft.model.ocr.DecodedInvoice;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.service.decoding.StructuredInvoiceDecoder;
+import com.datum.redsoft.service.interfaces.OCRService;
+import com.datum.redsoft.service.interfaces.ReactiveInvoiceDataExtractionService;
+import com.datum.redsoft.service.interfaces.ReactiveOCRService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.Uni;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.logging.Logger;
+
+/**
+ * Orquesta el flujo completo de análisis de una factura: OCR seguido de extracción con IA.
+ * <p>Centraliza la coordinación de ambos servicios para que el endpoint síncrono y los
+ * trabajos asíncronos ejecuten exactamente la misma secuencia, registrando el tiempo
+ * consumido por cada etapa.</p>
+ * <p>La calidad del texto OCR decide la ruta de extracción ({@link InvoiceExtractionRouter}):
+ * si es baja se repite el OCR una vez con un modelo de mayor fidelidad antes de extraer.</p>
+ * <p>En PDF y TIFF largos el OCR empieza por las páginas iniciales y finales; si a la
+ * extracción le falta el emisor, la fecha o el total, la selección se amplía hasta llegar
+ * al documento completo; cada ampliación analiza solo las páginas añadidas y suma su texto
+ * al ya obtenido. Publica {@code ocr.pages.subset.resolved},
+ * {@code ocr.pages.subset.widened} y {@code ocr.pages.skipped}. Del mismo modo, una foto leída
+ * en baja resolución (OCR progresivo) se repite a resolución completa si faltan campos.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class OCRPipelineService {
+
+    private static final Logger logger = Logger.getLogger(OCRPipelineService.class.getName());
+
+    public static final String STAGE_DECODE = "decode";
+    public static final String STAGE_OCR = "ocr";
+    public static final String STAGE_OCR_RETRY = "ocr_retry";
+    public static final String STAGE_EXTRACTION = "extraction";
+
+    @Inject
+    OCRService ocrService;
+
+    @Inject
+    StructuredInvoiceDecoder invoiceDecoder;
+
+    @Inject
+    ReactiveOCRService reactiveOcrService;
+
+    @Inject
+    ReactiveInvoiceDataExtractionService reactiveExtractionService;
+
+    @Inject
+    InvoiceExtractionRouter extractionRouter;
+
+    @Inject
+    LlamaBatchExtractionService batchExtractionService;
+
+    @Inject
+    LlamaStreamingExtractionService streamingExtractionService;
+
+    @Inject
+    AzureOCRService azureOcrService;
+
+    @Inject
+    OCRPageConfig pageConfig;
+
+    @Inject
+    DocumentPageCounter pageCounter;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Ejecuta OCR y extracción de datos sobre el archivo recibido.
+     * <p>Antes intenta decodificar un QR o DTE JSON/XML; si lo logra responde con esos
+     * datos sin llamar a Azure ni a Hugging Face. Un DTE JSON/XML que no se pudo
+     * decodificar pasa directo a la extracción con IA, sin OCR. Si el QR solo trae fecha y
+     * total se sigue con el OCR y esos dos campos se imponen a los extraídos.</p>
+     *
+     * @param document imagen, PDF o DTE ya validado y copiado a disco
+     * @return OCRAnalysisResponse con texto, datos de factura, tiempo total y desglose por etapa
+     * @throws OCRException si hay error en la extracción de texto
+     * @throws InvoiceExtractionException si hay error en el análisis de IA
+     */
+    public OCRAnalysisResponse analyze(OCRDocument document) throws OCRException, InvoiceExtractionException {
+        return analyze(document, false);
+    }
+
+    /**
+     * Igual que {@link #analyze(OCRDocument)}, pero la extracción con IA comparte la
+     * petición al LLM con los demás documentos del lote en curso
+     * ({@link LlamaBatchExtractionService}).
+     */
+    public OCRAnalysisResponse analyzeInBatch(OCRDocument document) throws OCRException, InvoiceExtractionException {
+        return analyze(document, true);
+    }
+
+    private OCRAnalysisResponse analyze(OCRDocument document, boolean batched) throws OCRException, InvoiceExtractionException {
+        Map<String, Long> stageTimings = new LinkedHashMap<>();
+        long startTime = System.currentTimeMillis();
+
+        Optional<DecodedInvoice> decoded = invoiceDecoder.decode(document);
+        long decodeEnd = System.currentTimeMillis();
+        stageTimings.put(STAGE_DECODE, decodeEnd - startTime);
+        if (decoded.isPresent() && decoded.get().isComplete()) {
+            OCRAnalysisResponse response = new OCRAnalysisResponse(
+                decoded.get().getRawContent(),
+                decoded.get().getInvoiceData(),
+                decodeEnd - startTime
+            );
+            response.setExtractionMethod(decoded.get().getSource());
+            response.setStageTimingsMs(stageTimings);
+            return response;
+        }
+
+        int pageCount = subsetPageCount(document);
+        int edgePages = pageConfig.getSubsetEdgePages();
+        int subsetAttempt = 1;
+        document.setPageSelection(pageCount > 0 ? AzureOCRService.edgePageSelection(pageCount, edgePages) : null);
+        if (document.getPageSelection() != null) {
+            logger.info("Documento de " + pageCount + " páginas: se analizan primero las páginas " + document.getPageSelection());
+        }
+
+        String extractedText;
+        String analyzedText = null;
+        String targetSelection = document.getPageSelection();
+        ExtractionResult extraction;
+        long extractionEnd;
+        while (true) {
+            long ocrStart = System.currentTimeMillis();
+            String text = StructuredInvoiceDecoder.isStructuredDocument(document.getContentType())
+                    ? readStructuredDocument(document)
+                    : ocrService.extractText(document);
+            stageTimings.merge(STAGE_OCR, System.currentTimeMillis() - ocrStart, Long::sum);
+            logger.info("Texto extraído exitosamente. Longitud: " + text.length());
+
+            text = retryLowQualityOcr(document, text, stageTimings);
+            if (analyzedText != null && document.getPageSelection() != null) {
+                // Solo se analizaron las páginas añadidas: se suman al texto de las anteriores
+                extractedText = analyzedText + "\n" + text;
+                document.setPageSelection(targetSelection);
+            } else {
+                extractedText = text;
+            }
+            long extractionStart = System.currentTimeMillis();
+            extraction = withDecodedFields(extract(extractedText, document.getTextQuality(), batched), decoded);
+            extractionEnd = System.currentTimeMillis();
+            stageTimings.merge(STAGE_EXTRACTION, extractionEnd - extractionStart, Long::sum);
+
+            boolean partialText = document.getPageSelection() != null || document.isLowResolutionText();
+            if (!partialText || !hasMissingFields(extraction.getInvoiceData())) {
+                break;
+            }
+            if (document.isLowResolutionText()) {
+                requireFullResolution(document);
+                continue;
+            }
+            edgePages *= 2;
+            subsetAttempt++;
+            targetSelection = subsetAttempt <= pageConfig.getSubsetMaxAttempts()
+                    ? AzureOCRService.edgePageSelection(pageCount, edgePages)
+                    : null;
+            widenPageSelection(document, targetSelection, pageCount);
+            analyzedText = extractedText;
+        }
+        recordPageSelection(document, pageCount);
+        logger.info("Datos de factura extraídos exitosamente");
+
+        OCRTextQuality quality = document.getTextQuality();
+        OCRResponseDTO invoiceData = extraction.getInvoiceData();
+        String extractionMethod = extraction.getMethod();
+        OCRAnalysisResponse response = new OCRAnalysisResponse(
+            extractedText,
+            invoiceData,
+            extractionEnd - startTime
+        );
+        response.setExtractionMethod(extractionMethod);
+        response.setStageTimingsMs(stageTimings);
+        response.setOcrQuality(quality != null ? quality.getScore() : null);
+
+        return response;
+    }
+
+    private ExtractionResult extract(String extractedText, OCRTextQuality quality, boolean batched) throws InvoiceExtractionException {
+        if (!batched) {
+            return extractionRouter.extract(extractedText, quality);
+        }
+        Optional<OCRResponseDTO> ruleData = extractionRouter.tryRules(extractedText, quality);
+        if (ruleData.isPresent()) {
+            return new ExtractionResult(ruleData.get(), RuleBasedInvoiceExtractionService.EXTRACTION_METHOD);
+        }
+        extractionRouter.recordRoute(LlamaBatchExtractionService.EXTRACTION_METHOD);
+        return new ExtractionResult(batchExtractionService.extractBasicInvoiceData(extractedText),
+                LlamaBatchExtractionService.EXTRACTION_METHOD);
+    }
+
+    /**
+     * Impone a la extracción los campos de una decodificación parcial (fecha y total de un QR),
+     * que son más fiables que los leídos por OCR.
+     */
+    private static ExtractionResult withDecodedFields(ExtractionResult extraction, Optional<DecodedInvoice> decoded) {
+        if (decoded.isEmpty()) {
+            return extraction;
+        }
+        OCRResponseDTO qr = decoded.get().getInvoiceData();
+        OCRResponseDTO data = extraction.getInvoiceData();
+        return new ExtractionResult(new OCRResponseDTO(
+                decodedOr(qr.getVendorName(), data.getVendorName()),
+                decodedOr(qr.getInvoiceDate(), data.getInvoiceDate()),
+                decodedOr(qr.getTotalAmount(), data.getTotalAmount()),
+                decodedOr(qr.getCurrency(), data.getCurrency())
+        ), extraction.getMethod());
+    }
+
+    private static String decodedOr(String decodedValue, String extractedValue) {
+        return ExtractionConfidence.isMissing(decodedValue) ? extractedValue : decodedValue;
+    }
+
+    /**
+     * Páginas del documento si conviene empezar el OCR por un subconjunto: PDF o TIFF de al
+     * menos {@code ocr.pages.subset.min-pages} páginas. Devuelve 0 en cualquier otro caso.
+     */
+    private int subsetPageCount(OCRDocument document) {
+        if (!pageConfig.isSubsetEnabled() || pageConfig.getSubsetMaxAttempts() <= 0
+                || StructuredInvoiceDecoder.isStructuredDocument(document.getContentType())) {
+            return 0;
+        }
+        int pageCount = pageCounter.countPages(document);
+        return pageCount >= pageConfig.getSubsetMinPages() ? pageCount : 0;
+    }
+
+    /**
+     * Repite el OCR con la versión habitual de la foto cuando la de baja resolución del modo
+     * progresivo no alcanzó para extraer todos los campos.
+     */
+    private void requireFullResolution(OCRDocument document) {
+        meterRegistry.counter("ocr.progressive.passes", "outcome", "missing_fields").increment();
+        logger.info("Faltan campos con la versión de baja resolución, se repite a resolución completa");
+        document.setFullResolutionRequired(true);
+    }
+
+    /**
+     * Amplía la selección tras una extracción incompleta; null analiza el documento completo.
+     * El documento queda con solo las páginas añadidas, para no repetir el OCR de las ya analizadas.
+     */
+    private void widenPageSelection(OCRDocument document, String selection, int pageCount) {
+        BitSet added = selection != null ? pagesOf(selection) : new BitSet();
+        if (selection == null) {
+            added.set(1, pageCount + 1);
+        }
+        added.andNot(pagesOf(document.getPageSelection()));
+        meterRegistry.counter("ocr.pages.subset.widened").increment();
+        logger.info("Faltan campos con las páginas " + document.getPageSelection() + ", se amplía a "
+                + (selection != null ? selection : "todo el documento")
+                + (added.isEmpty() ? "" : " analizando solo las páginas " + toSelection(added)));
+        document.setPageSelection(added.isEmpty() ? selection : toSelection(added));
+    }
+
+    /**
+     * Publica las páginas que no hubo que analizar cuando la extracción se completó con un subconjunto.
+     */
+    private void recordPageSelection(OCRDocument document, int pageCount) {
+        if (document.getPageSelection() == null) {
+            return;
+        }
+        int analyzed = pagesOf(document.getPageSelection()).cardinality();
+        meterRegistry.counter("ocr.pages.subset.resolved").increment();
+        meterRegistry.counter("ocr.pages.skipped").increment(Math.max(0, pageCount - analyzed));
+        logger.info("Factura resuelta con las páginas " + document.getPageSelection() + " de " + pageCount);
+    }
+
+    /**
+     * Páginas de una selección en el formato de Azure ("1-2,9-10").
+     */
+    private static BitSet pagesOf(String selection) {
+        BitSet pages = new BitSet();
+        for (String range : selection.split(",")) {
+            String[] bounds = range.split("-");
+            int first = Integer.parseInt(bounds[0]);
+            pages.set(first, (bounds.length == 1 ? first : Integer.parseInt(bounds[1])) + 1);
+        }
+        return pages;
+    }
+
+    /**
+     * Selección en el formato de Azure con los rangos contiguos de páginas.
+     */
+    private static String toSelection(BitSet pages) {
+        StringJoiner ranges = new StringJoiner(",");
+        for (int first = pages.nextSetBit(0); first >= 0; first = pages.nextSetBit(first)) {
+            int last = pages.nextClearBit(first) - 1;
+            ranges.add(first == last ? String.valueOf(first) : first + "-" + last);
+            first = last + 1;
+        }
+        return ranges.toString();
+    }
+
+    /**
+     * Indica si al resultado le falta el emisor, la fecha o el total.
+     */
+    private static boolean hasMissingFields(OCRResponseDTO invoiceData) {
+        return ExtractionConfidence.isMissing(invoiceData.getVendorName())
+                || ExtractionConfidence.isMissing(invoiceData.getInvoiceDate())
+                || ExtractionConfidence.isMissing(invoiceData.getTotalAmount())
+                || invoiceData.getTotalAmount().trim().matches("0+([.,]0+)?");
+    }
+
+    /**
+     * Repite el OCR con el modelo de {@code extraction.quality.retry-model} si la calidad del
+     * texto quedó bajo {@code extraction.quality.low-score}, y se queda con el de mejor calidad.
+     * El tiempo se registra en la etapa {@value #STAGE_OCR_RETRY}.
+     */
+    private String retryLowQualityOcr(OCRDocument document, String extractedText,
+                                      Map<String, Long> stageTimings) {
+        OCRTextQuality quality = document.getTextQuality();
+        Optional<String> retryModel = extractionRouter.ocrRetryModel(quality);
+        if (retryModel.isEmpty()) {
+            return extractedText;
+        }
+        logger.info("Texto OCR de baja calidad (" + quality + "), se repite con el modelo " + retryModel.get());
+        long start = System.currentTimeMillis();
+        try {
+            String retriedText = azureOcrService.extractText(document, retryModel.get());
+            OCRTextQuality retriedQuality = document.getTextQuality();
+            if (retriedQuality != null && retriedQuality.getScore() > quality.getScore()) {
+                // Azure recibió el archivo original, no la versión reducida
+                document.setLowResolutionText(false);
+                return retriedText;
+            }
+            document.setTextQuality(quality);
+            return extractedText;
+        } catch (OCRException | ServiceOverloadedException e) {
+            // El texto original sigue siendo utilizable
+            logger.warning("No se pudo repetir el OCR con " + retryModel.get() + ": " + e.getMessage());
+            document.setTextQuality(quality);
+            return extractedText;
+        } finally {
+            stageTimings.merge(STAGE_OCR_RETRY, System.currentTimeMillis() - start, Long::sum);
+        }
+    }
+
+    private String readStructuredDocument(OCRDocument document) throws OCRException {
+        try {
+            return Files.readString(document.getPath(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new OCRException("Error al leer el documento electrónico", e);
+        }
+    }
+
+    /**
+     * Variante del flujo para Server-Sent Events: decodificación y OCR se ejecutan antes de
+     * devolver el stream (el documento puede cerrarse al retornar) y luego se emite el texto
+     * OCR seguido de cada campo en cuanto el LLM lo genera.
+     * <p>Si la factura se resuelve por QR, DTE o reglas, los campos se emiten de inmediato.</p>
+     *
+     * @param document imagen, PDF o DTE ya validado y copiado a disco
+     * @return eventos {@code ocr_text}, {@code field} por campo y {@code complete}; o {@code error}
+     *         si la extracción con IA falla después del OCR
+     * @throws OCRException si hay error en la extracción de texto
+     */
+    public Multi<OCRStreamEvent> analyzeStreaming(OCRDocument document) throws OCRException {
+        long startTime = System.currentTimeMillis();
+
+        Optional<DecodedInvoice> decoded = invoiceDecoder.decode(document);
+        if (decoded.isPresent() && decoded.get().isComplete()) {
+            return Multi.createFrom().iterable(resolvedEvents(decoded.get().getRawContent(),
+                decoded.get().getInvoiceData(), decoded.get().getSource(), startTime));
+        }
+
+        String extractedText = StructuredInvoiceDecoder.isStructuredDocument(document.getContentType())
+                ? readStructuredDocument(document)
+                : ocrService.extractText(document);
+        logger.info("Texto extraído exitosamente. Longitud: " + extractedText.length());
+
+        Optional<OCRResponseDTO> ruleData = extractionRouter.tryRules(extractedText, document.getTextQuality());
+        if (ruleData.isPresent()) {
+            return Multi.createFrom().iterable(resolvedEvents(extractedText, ruleData.get(),
+                RuleBasedInvoiceExtractionService.EXTRACTION_METHOD, startTime));
+        }
+
+        Map<String, String> fields = new LinkedHashMap<>();
+        Multi<OCRStreamEvent> fieldEvents = streamingExtractionService.streamBasicInvoiceData(extractedText)
+                .onItem().transform(field -> {
+                    fields.put(field.getKey(), field.getValue());
+                    return OCRStreamEvent.field(field.getKey(), field.getValue(), elapsedSince(startTime));
+                })
+                .onCompletion().continueWith(() -> {
+                    extractionRouter.recordRoute(LlamaStreamingExtractionService.EXTRACTION_METHOD);
+                    logger.info("Datos de factura extraídos exitosamente (streaming)");
+                    return List.of(OCRStreamEvent.complete(LlamaStreamingExtractionService.toResponse(fields),
+                        LlamaStreamingExtractionService.EXTRACTION_METHOD, elapsedSince(startTime)));
+                })
+                .onFailure().recoverWithItem(e -> OCRStreamEvent.error(e.getMessage(), elapsedSince(startTime)));
+
+        return Multi.createBy().concatenating().streams(
+            Multi.createFrom().item(OCRStreamEvent.ocrText(extractedText, elapsedSince(startTime))),
+            fieldEvents
+        );
+    }
+
+    /**
+     * Eventos para una factura ya resuelta sin LLM: texto, un evento por campo y cierre.
+     */
+    private List<OCRStreamEvent> resolvedEvents(String text, OCRResponseDTO invoiceData, String method, long startTime) {
+        long elapsed = elapsedSince(startTime);
+        return List.of(
+            OCRStreamEvent.ocrText(text, elapsed),
+            OCRStreamEvent.field(LlamaStreamingExtractionService.FIELD_VENDOR, invoiceData.getVendorName(), elapsed),
+            OCRStreamEvent.field(LlamaStreamingExtractionService.FIELD_DATE, invoiceData.getInvoiceDate(), elapsed),
+            OCRStreamEvent.field(LlamaStreamingExtractionService.FIELD_TOTAL, invoiceData.getTotalAmount(), elapsed),
+            OCRStreamEvent.field(LlamaStreamingExtractionService.FIELD_CURRENCY, invoiceData.getCurrency(), elapsed),
+            OCRStreamEvent.complete(invoiceData, method, elapsed)
+        );
+    }
+
+    private long elapsedSince(long startTime) {
+        return System.currentTimeMillis() - startTime;
+    }
+
+    /**
+     * Variante no bloqueante del flujo: encadena el OCR asíncrono y la extracción asíncrona
+     * sin ocupar un hilo mientras se espera a Azure o a Hugging Face. Si el extractor por
+     * reglas resuelve la factura no se llama al LLM.
+     * <p>Omite a propósito las etapas del flujo bloqueante que dependen del documento en disco
+     * o de los decoradores de {@link OCRService}: caché, capa de texto, pre-procesamiento, QR/DTE,
+     * rangos de páginas y reintento por baja calidad (ver {@code POST /api/ocr/reactive}).</p>
+     *
+     * @param fileData imagen o PDF ya validado
+     * @return Uni con el mismo OCRAnalysisResponse que {@link #analyze(OCRDocument)}
+     */
+    public Uni<OCRAnalysisResponse> analyzeReactive(byte[] fileData) {
+        Map<String, Long> stageTimings = new LinkedHashMap<>();
+        long startTime = System.currentTimeMillis();
+
+        return reactiveOcrService.extractTextFromImage(fileData)
+                .onItem().transformToUni(extractedText -> {
+                    long ocrEnd = System.currentTimeMillis();
+                    stageTimings.put(STAGE_OCR, ocrEnd - startTime);
+
+                    Optional<OCRResponseDTO> ruleData = extractionRouter.tryRules(extractedText);
+                    Uni<OCRResponseDTO> extraction = ruleData.isPresent()
+                            ? Uni.createFrom().item(ruleData.get())
+                            : reactiveExtractionService.extractBasicInvoiceData(extractedText)
+                                    .invoke(() -> extractionRouter.recordRoute(reactiveExtractionService.getExtractionMethod()));
+                    String extractionMethod = ruleData.isPresent()
+                            ? RuleBasedInvoiceExtractionService.EXTRACTION_METHOD
+                            : reactiveExtractionService.getExtractionMethod();
+
+                    return extraction
+                            .onItem().transform(invoiceData -> {
+                                long extractionEnd = System.currentTimeMillis();
+                                stageTimings.put(STAGE_EXTRACTION, extractionEnd - ocrEnd);
+                                logger.info("Datos de factura extraídos exitosamente (asíncrono)");
+
+                                OCRAnalysisResponse response = new OCRAnalysisResponse(
+                                    extractedText,
+                                    invoiceData,
+                                    extractionEnd - startTime
+                                );
+                                response.setExtractionMethod(extractionMethod);
+                                response.setStageTimingsMs(stageTimings);
+                                return response;
+                            });
+                });
+    }
+}
@@ -0,0 +1,148 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.PromptCompactionConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Reduce el texto OCR a lo que el LLM necesita para extraer proveedor, fecha, total y moneda.
+ * <p>Primero colapsa espacios y descarta líneas vacías, separadores y líneas repetidas
+ * (encabezados que se imprimen en cada página, por ejemplo). Si el resultado sigue
+ * excediendo {@code extraction.prompt.token-budget}, conserva solo las regiones relevantes
+ * por prioridad (líneas de total, fechas, encabezado con el proveedor, moneda) y descarta
+ * el detalle de productos y las leyendas legales del pie.</p>
+ * <p>El resultado es determinista para un mismo texto, de modo que la caché de
+ * extracciones sigue funcionando.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class OCRTextCompactor {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern HAS_ALPHANUMERIC = Pattern.compile("[\\p{L}\\p{N}]");
+
+    private static final int PRIORITY_TOTAL = 100;
+    private static final int PRIORITY_AFTER_TOTAL = 90;
+    private static final int PRIORITY_DATE = 80;
+    private static final int PRIORITY_VENDOR = 70;
+    private static final int PRIORITY_CURRENCY = 50;
+    private static final int PRIORITY_TAX = 40;
+
+    private static final Pattern TOTAL = Pattern.compile("\\b(TOTAL|A PAGAR|IMPORTE|MONTO|AMOUNT DUE)\\b");
+    private static final Pattern TAX = Pattern.compile("\\b(SUB\\s*-?\\s*TOTAL|IVA|IGV|ISV|IMPUESTOS?|TAX)\\b");
+    private static final Pattern DATE = Pattern.compile(
+        "\\b(FECHA|DATE|EMISION)\\b|\\b\\d{1,4}[/\\-.]\\d{1,2}[/\\-.]\\d{2,4}\\b"
+        + "|\\b\\d{1,2}\\s*(DE\\s+)?(ENE|FEB|MAR|ABR|MAY|JUN|JUL|AGO|SEP|SET|OCT|NOV|DIC)[A-Z]*\\.?\\s*(DE\\s+|DEL\\s+)?\\d{4}\\b");
+    private static final Pattern VENDOR = Pattern.compile(
+        "\\b(RAZON\\s+SOCIAL|EMISOR|PROVEEDOR|NIT|NRC|RUC|RFC|CUIT|S\\.?\\s?A\\.?|LTDA|INC|CORP)\\b");
+    private static final Pattern CURRENCY = Pattern.compile(
+        "\\b(USD|GTQ|MXN|CRC|HNL|NIO|PAB|DOP|PEN|COP|ARS|CLP|EUR|DOLAR\\w*|QUETZAL\\w*|COLON\\w*|LEMPIRA\\w*|MONEDA|CURRENCY)\\b|[$€₡]");
+
+    @Inject
+    PromptCompactionConfig compactionConfig;
+
+    /**
+     * @param ocrText texto OCR completo
+     * @return texto compactado que respeta el presupuesto de tokens (o el texto solo
+     *         limpio si ya cabe en él)
+     */
+    public String compact(String ocrText) {
+        List<String> lines = cleanLines(ocrText);
+        String cleaned = String.join("\n", lines);
+        if (compactionConfig.estimateTokens(cleaned) <= compactionConfig.getTokenBudget()) {
+            return cleaned;
+        }
+
+        int[] priorities = prioritize(lines);
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (priorities[i] > 0) {
+                candidates.add(i);
+            }
+        }
+        candidates.sort(Comparator.<Integer>comparingInt(i -> priorities[i]).reversed()
+                .thenComparing(Comparator.naturalOrder()));
+
+        boolean[] keep = new boolean[lines.size()];
+        int remaining = compactionConfig.getTokenBudget();
+        for (int index : candidates) {
+            int cost = compactionConfig.estimateTokens(lines.get(index)) + 1;
+            if (cost <= remaining) {
+                keep[index] = true;
+                remaining -= cost;
+            }
+        }
+
+        StringBuilder compacted = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (keep[i]) {
+                compacted.append(lines.get(i)).append('\n');
+            }
+        }
+        return compacted.toString().trim();
+    }
+
+    /**
+     * Colapsa espacios y elimina líneas vacías, separadores ("-----", "*****") y repetidas.
+     */
+    private List<String> cleanLines(String ocrText) {
+        List<String> lines = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String raw : ocrText.split("\\R")) {
+            String line = WHITESPACE.matcher(raw).replaceAll(" ").strip();
+            if (line.isEmpty() || !HAS_ALPHANUMERIC.matcher(line).find()) {
+                continue;
+            }
+            if (seen.add(line.toLowerCase(Locale.ROOT))) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Asigna a cada línea la prioridad del campo que probablemente contiene (0 = irrelevante).
+     */
+    private int[] prioritize(List<String> lines) {
+        int[] priorities = new int[lines.size()];
+        int headerLines = Math.min(lines.size(), compactionConfig.getHeaderLines());
+        for (int i = 0; i < lines.size(); i++) {
+            String line = normalize(lines.get(i));
+            int priority = 0;
+            if (TOTAL.matcher(line).find() && !TAX.matcher(line).find()) {
+                priority = PRIORITY_TOTAL;
+                // El importe suele quedar en la línea siguiente cuando el OCR separa columnas
+                if (i + 1 < lines.size()) {
+                    priorities[i + 1] = Math.max(priorities[i + 1], PRIORITY_AFTER_TOTAL);
+                }
+            } else if (DATE.matcher(line).find()) {
+                priority = PRIORITY_DATE;
+            } else if (i < headerLines || VENDOR.matcher(line).find()) {
+                priority = PRIORITY_VENDOR;
+            } else if (CURRENCY.matcher(line).find()) {
+                priority = PRIORITY_CURRENCY;
+            } else if (TAX.matcher(line).find()) {
+                priority = PRIORITY_TAX;
+            }
+            priorities[i] = Math.max(priorities[i], priority);
+        }
+        return priorities;
+    }
+
+    private static String normalize(String line) {
+        return Normalizer.normalize(line, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase(Locale.ROOT);
+    }
+}
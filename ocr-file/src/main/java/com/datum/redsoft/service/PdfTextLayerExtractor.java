@@ -0,0 +1,158 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.PdfTextLayerConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Lee la capa de texto embebida de un PDF página por página con PDFBox.
+ * <p>Una página cuenta como digital si su texto tiene al menos {@code min-chars-per-page}
+ * caracteres visibles y pocos caracteres inválidos (fuentes sin mapa Unicode producen
+ * texto basura); en otro caso se considera escaneada y se devuelve como {@code null}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class PdfTextLayerExtractor {
+
+    private static final Logger logger = Logger.getLogger(PdfTextLayerExtractor.class.getName());
+
+    @Inject
+    PdfTextLayerConfig textLayerConfig;
+
+    /**
+     * @param pdf archivo PDF en disco
+     * @return texto de cada página ({@code null} si la página necesita OCR), o vacío si el PDF no se puede leer
+     */
+    public Optional<List<String>> pageTexts(Path pdf) {
+        try (PDDocument document = Loader.loadPDF(pdf.toFile())) {
+            return Optional.of(pageTexts(document));
+        } catch (IOException e) {
+            logger.warning("No se pudo leer la capa de texto del PDF: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param pdf contenido del PDF en memoria
+     * @return texto de cada página ({@code null} si la página necesita OCR), o vacío si el PDF no se puede leer
+     */
+    public Optional<List<String>> pageTexts(byte[] pdf) {
+        try (PDDocument document = Loader.loadPDF(pdf)) {
+            return Optional.of(pageTexts(document));
+        } catch (IOException e) {
+            logger.warning("No se pudo leer la capa de texto del PDF: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * @param document PDF ya abierto
+     * @param pageIndex página (base 0)
+     * @return true si la página tiene una capa de texto utilizable, es decir, no es escaneada
+     */
+    public boolean hasTextLayer(PDDocument document, int pageIndex) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(pageIndex + 1);
+        stripper.setEndPage(pageIndex + 1);
+        return isUsable(stripper.getText(document).trim());
+    }
+
+    /**
+     * Copia un rango de páginas a un PDF nuevo, para enviar a OCR solo las páginas escaneadas.
+     *
+     * @param source PDF original
+     * @param fromIndex primera página (base 0, inclusiva)
+     * @param toIndex última página (base 0, exclusiva)
+     * @param target archivo donde se guarda el PDF parcial
+     */
+    public void writePages(Path source, int fromIndex, int toIndex, Path target) throws IOException {
+        try (PDDocument original = Loader.loadPDF(source.toFile());
+             PDDocument part = new PDDocument()) {
+            for (int i = fromIndex; i < toIndex; i++) {
+                part.importPage(original.getPage(i));
+            }
+            part.save(target.toFile());
+        }
+    }
+
+    /**
+     * Divide el PDF en partes consecutivas de {@code chunkSize} páginas leyendo el original una
+     * sola vez, para analizar cada rango con un cuerpo propio en vez de reenviar el PDF completo.
+     *
+     * @return archivos temporales con las partes, en orden de página; el llamador debe eliminarlos
+     */
+    public List<Path> splitPages(Path source, int chunkSize) throws IOException {
+        List<Path> parts = new ArrayList<>();
+        try (PDDocument original = Loader.loadPDF(source.toFile())) {
+            int pageCount = original.getNumberOfPages();
+            for (int from = 0; from < pageCount; from += chunkSize) {
+                Path target = Files.createTempFile("ocr-pdf-range-", ".pdf");
+                parts.add(target);
+                try (PDDocument part = new PDDocument()) {
+                    for (int i = from; i < Math.min(from + chunkSize, pageCount); i++) {
+                        part.importPage(original.getPage(i));
+                    }
+                    part.save(target.toFile());
+                }
+            }
+            return parts;
+        } catch (IOException e) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Indica si el contenido empieza con la firma {@code %PDF}.
+     */
+    public static boolean isPdf(byte[] data) {
+        return data.length >= 4 && data[0] == '%' && data[1] == 'P' && data[2] == 'D' && data[3] == 'F';
+    }
+
+    private List<String> pageTexts(PDDocument document) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        // Las facturas son tablas: ordenar por posición conserva la lectura por filas
+        stripper.setSortByPosition(true);
+
+        List<String> pages = new ArrayList<>();
+        for (int page = 1; page <= document.getNumberOfPages(); page++) {
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            String text = stripper.getText(document).trim();
+            pages.add(isUsable(text) ? text : null);
+        }
+        return pages;
+    }
+
+    private boolean isUsable(String text) {
+        int visible = 0;
+        int invalid = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            visible++;
+            if (c == '\uFFFD' || Character.isISOControl(c) || Character.getType(c) == Character.PRIVATE_USE) {
+                invalid++;
+            }
+        }
+        return visible >= textLayerConfig.getMinCharsPerPage()
+                && invalid <= visible * textLayerConfig.getMaxInvalidCharRatio();
+    }
+}
@@ -0,0 +1,175 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.PdfTextLayerConfig;
+import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.service.interfaces.OCRService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.inject.Inject;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Decorador de {@link OCRService} que resuelve localmente los PDF digitales.
+ * <p>Si todas las páginas tienen capa de texto, el texto se devuelve sin llamar a Azure.
+ * Si solo algunas son escaneadas, cada tramo consecutivo de páginas escaneadas se copia
+ * a un PDF parcial que sí pasa por OCR, y el texto se une en orden de página. Registra
+ * el resultado en {@code ocr.pdf.text_layer} y las páginas por origen en
+ * {@code ocr.pdf.pages}.</p>
+ * <p>En ambos casos el texto cubre todo el documento, así que se descarta la selección de
+ * páginas que hubiera pedido el pipeline ({@link OCRDocument#getPageSelection()}).</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@Decorator
+@Priority(15)
+public class PdfTextLayerOCRService implements OCRService {
+
+    private static final Logger logger = Logger.getLogger(PdfTextLayerOCRService.class.getName());
+
+    @Inject
+    @Delegate
+    OCRService delegate;
+
+    @Inject
+    PdfTextLayerExtractor textLayerExtractor;
+
+    @Inject
+    PdfTextLayerConfig textLayerConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Override
+    public String extractTextFromImage(byte[] imageData) throws OCRException {
+        if (!textLayerConfig.isEnabled() || !PdfTextLayerExtractor.isPdf(imageData)) {
+            return delegate.extractTextFromImage(imageData);
+        }
+
+        // Sin archivo en disco no se puede recortar el PDF: solo se evita Azure si todo es digital
+        Optional<List<String>> pages = textLayerExtractor.pageTexts(imageData);
+        if (pages.isPresent() && !pages.get().isEmpty() && !pages.get().contains(null)) {
+            return local(pages.get());
+        }
+        record("ocr", 0, pages.map(List::size).orElse(0));
+        return delegate.extractTextFromImage(imageData);
+    }
+
+    @Override
+    public String extractText(OCRDocument document) throws OCRException {
+        if (!textLayerConfig.isEnabled() || !document.getContentType().startsWith("application/pdf")) {
+            return delegate.extractText(document);
+        }
+
+        Optional<List<String>> pages = textLayerExtractor.pageTexts(document.getPath());
+        if (pages.isEmpty() || pages.get().isEmpty()) {
+            record("unreadable", 0, 0);
+            return delegate.extractText(document);
+        }
+
+        List<String> pageTexts = pages.get();
+        long scannedPages = pageTexts.stream().filter(Objects::isNull).count();
+        if (scannedPages == 0) {
+            String text = local(pageTexts);
+            document.setTextQuality(OCRTextQuality.exact(text));
+            document.setPageSelection(null);
+            return text;
+        }
+        if (scannedPages == pageTexts.size()) {
+            record("ocr", 0, pageTexts.size());
+            return delegate.extractText(document);
+        }
+
+        logger.info("PDF mixto: " + (pageTexts.size() - scannedPages) + " páginas digitales, "
+                + scannedPages + " escaneadas");
+        record("mixed", pageTexts.size() - scannedPages, scannedPages);
+        document.setPageSelection(null);
+        return mergeWithOcr(document, pageTexts);
+    }
+
+    private String local(List<String> pageTexts) {
+        logger.info("PDF con capa de texto en sus " + pageTexts.size() + " páginas, se omite Azure OCR");
+        record("local", pageTexts.size(), 0);
+        return String.join("\n", pageTexts);
+    }
+
+    /**
+     * Recorre las páginas en orden; los tramos consecutivos sin texto se envían a OCR como un PDF parcial.
+     * La calidad del documento combina la de los tramos OCR con la de las páginas digitales (exactas).
+     */
+    private String mergeWithOcr(OCRDocument document, List<String> pageTexts) throws OCRException {
+        StringBuilder merged = new StringBuilder();
+        List<OCRTextQuality> qualities = new ArrayList<>();
+        int page = 0;
+        while (page < pageTexts.size()) {
+            if (pageTexts.get(page) != null) {
+                merged.append(pageTexts.get(page)).append("\n");
+                qualities.add(OCRTextQuality.exact(pageTexts.get(page)));
+                page++;
+                continue;
+            }
+            int runEnd = page;
+            while (runEnd < pageTexts.size() && pageTexts.get(runEnd) == null) {
+                runEnd++;
+            }
+            merged.append(extractScannedPages(document, page, runEnd, qualities)).append("\n");
+            page = runEnd;
+        }
+        document.setTextQuality(OCRTextQuality.combine(qualities));
+        return merged.toString().trim();
+    }
+
+    private String extractScannedPages(OCRDocument document, int fromIndex, int toIndex,
+                                       List<OCRTextQuality> qualities) throws OCRException {
+        Path partFile;
+        try {
+            partFile = Files.createTempFile("ocr-pdf-pages-", ".pdf");
+        } catch (IOException e) {
+            throw new OCRException("Error al preparar las páginas escaneadas del PDF", e);
+        }
+        try {
+            textLayerExtractor.writePages(document.getPath(), fromIndex, toIndex, partFile);
+        } catch (IOException e) {
+            deleteQuietly(partFile);
+            throw new OCRException("Error al preparar las páginas escaneadas del PDF", e);
+        }
+
+        try (OCRDocument part = new OCRDocument(partFile, "application/pdf",
+                partFile.toFile().length(), document.getSha256(), true)) {
+            String text = delegate.extractText(part);
+            qualities.add(part.getTextQuality());
+            return text;
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warning("No se pudo eliminar el archivo temporal " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void record(String outcome, long localPages, long ocrPages) {
+        meterRegistry.counter("ocr.pdf.text_layer", "outcome", outcome).increment();
+        meterRegistry.counter("ocr.pdf.pages", "source", "local").increment(localPages);
+        meterRegistry.counter("ocr.pdf.pages", "source", "ocr").increment(ocrPages);
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return delegate.isServiceAvailable();
+    }
+}
@@ -0,0 +1,203 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.ImagePreprocessingConfig;
+import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.model.ocr.OCRTextQuality;
+import com.datum.redsoft.service.interfaces.OCRService;
+import com.datum.redsoft.service.preprocessing.ImagePreprocessor;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.Priority;
+import jakarta.decorator.Decorator;
+import jakarta.decorator.Delegate;
+import jakarta.inject.Inject;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Decorador de {@link OCRService} que reduce las fotos antes de enviarlas a Azure.
+ * <p>Se ejecuta después de {@link CachingOCRService}, de modo que la caché sigue usando el
+ * hash del archivo original y un acierto no paga el pre-procesamiento. El tiempo de OCR se
+ * registra en {@code ocr.service.duration} etiquetado con {@code preprocessed=true|false}
+ * para comparar la latencia con y sin la etapa.</p>
+ * <p>En modo progresivo ({@code ocr.preprocessing.progressive.enabled}) se envía primero una
+ * versión de baja resolución y solo si la calidad del texto queda bajo
+ * {@code ocr.preprocessing.progressive.min-quality}, o el pipeline lo pide porque faltan campos,
+ * se repite con la versión habitual. Publica {@code ocr.progressive.passes{outcome}} y
+ * {@code ocr.progressive.bytes.saved{pass}}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@Decorator
+@Priority(20)
+public class PreprocessingOCRService implements OCRService {
+
+    private static final Logger logger = Logger.getLogger(PreprocessingOCRService.class.getName());
+
+    @Inject
+    @Delegate
+    OCRService delegate;
+
+    @Inject
+    ImagePreprocessor imagePreprocessor;
+
+    @Inject
+    ImagePreprocessingConfig preprocessingConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Override
+    public String extractTextFromImage(byte[] imageData) throws OCRException {
+        Optional<byte[]> processed = imagePreprocessor.supports(imageData)
+                ? imagePreprocessor.preprocess(imageData)
+                : Optional.empty();
+
+        long start = System.nanoTime();
+        try {
+            return delegate.extractTextFromImage(processed.orElse(imageData));
+        } finally {
+            recordOcrDuration(start, processed.isPresent());
+        }
+    }
+
+    /**
+     * Las fotos se leen en memoria (están acotadas por {@code OCRFileValidator}) y se usa la
+     * imagen ya decodificada del documento, que se libera tras generar la versión final.
+     */
+    @Override
+    public String extractText(OCRDocument document) throws OCRException {
+        document.setLowResolutionText(false);
+        if (!imagePreprocessor.supports(document.getContentType())) {
+            return timedExtract(document, false);
+        }
+
+        byte[] original = document.readAllBytes();
+        BufferedImage image = decodedImage(document);
+        if (preprocessingConfig.isProgressiveEnabled() && !document.isFullResolutionRequired()) {
+            Optional<String> text = extractLowResolution(document, image, original);
+            if (text.isPresent()) {
+                return text.get();
+            }
+        }
+
+        Optional<byte[]> processed = imagePreprocessor.preprocess(image, original);
+        document.releaseDecodedImage();
+        if (processed.isEmpty()) {
+            recordBytesSaved("full", 0);
+            return timedExtract(document, false);
+        }
+        recordBytesSaved("full", original.length - processed.get().length);
+        return extractRendition(document, processed.get());
+    }
+
+    /**
+     * Primera pasada del modo progresivo con la versión de baja resolución.
+     *
+     * @return el texto si su calidad alcanza {@code ocr.preprocessing.progressive.min-quality};
+     *         vacío si hay que repetir con la versión habitual
+     */
+    private Optional<String> extractLowResolution(OCRDocument document, BufferedImage image, byte[] original) {
+        Optional<byte[]> lowResolution = imagePreprocessor.preprocessLowResolution(image, original);
+        if (lowResolution.isEmpty()) {
+            return Optional.empty();
+        }
+        recordBytesSaved("low", original.length - lowResolution.get().length);
+        try {
+            String text = extractRendition(document, lowResolution.get());
+            OCRTextQuality quality = document.getTextQuality();
+            if (quality == null || quality.getScore() < preprocessingConfig.getProgressiveMinQuality()) {
+                meterRegistry.counter("ocr.progressive.passes", "outcome", "low_quality").increment();
+                logger.info("Versión de baja resolución descartada (" + quality + "), se repite a resolución completa");
+                return Optional.empty();
+            }
+            meterRegistry.counter("ocr.progressive.passes", "outcome", "accepted").increment();
+            document.setLowResolutionText(true);
+            return Optional.of(text);
+        } catch (OCRException e) {
+            meterRegistry.counter("ocr.progressive.passes", "outcome", "failed").increment();
+            logger.info("Sin texto en la versión de baja resolución, se repite a resolución completa: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Imagen ya decodificada por el control de calidad o la lectura del QR; si ninguno la
+     * pidió se decodifica aquí.
+     */
+    private BufferedImage decodedImage(OCRDocument document) {
+        try {
+            return document.getDecodedImage();
+        } catch (IOException | RuntimeException e) {
+            logger.warning("No se pudo decodificar la imagen, se envía sin cambios: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escribe la versión reducida en un archivo temporal propio, que se elimina al terminar,
+     * y registra en el documento original la calidad del texto obtenido.
+     */
+    private String extractRendition(OCRDocument document, byte[] rendition) throws OCRException {
+        Path processedFile;
+        try {
+            processedFile = Files.createTempFile("ocr-preprocessed-", ".jpg");
+            Files.write(processedFile, rendition);
+        } catch (IOException e) {
+            logger.warning("No se pudo escribir la imagen pre-procesada, se envía la original: " + e.getMessage());
+            return timedExtract(document, false);
+        }
+
+        // Conserva el hash del original: identifica el archivo recibido, no la versión reducida
+        try (OCRDocument processedDocument = new OCRDocument(
+                processedFile, "image/jpeg", rendition.length, document.getSha256(), true)) {
+            String text = timedExtract(processedDocument, true);
+            document.setTextQuality(processedDocument.getTextQuality());
+            document.setPageSelection(null);
+            return text;
+        }
+    }
+
+    private void recordBytesSaved(String pass, long bytes) {
+        if (!preprocessingConfig.isProgressiveEnabled()) {
+            return;
+        }
+        DistributionSummary.builder("ocr.progressive.bytes.saved")
+                .description("Bytes ahorrados respecto al original en cada pasada del OCR progresivo")
+                .baseUnit("bytes")
+                .tag("pass", pass)
+                .register(meterRegistry)
+                .record(Math.max(0, bytes));
+    }
+
+    private String timedExtract(OCRDocument document, boolean preprocessed) throws OCRException {
+        long start = System.nanoTime();
+        try {
+            return delegate.extractText(document);
+        } finally {
+            recordOcrDuration(start, preprocessed);
+        }
+    }
+
+    private void recordOcrDuration(long startNanos, boolean preprocessed) {
+        Timer.builder("ocr.service.duration")
+                .description("Tiempo de la llamada al servicio OCR")
+                .tag("preprocessed", String.valueOf(preprocessed))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return delegate.isServiceAvailable();
+    }
+}
@@ -0,0 +1,416 @@
+package com.datum.redsoft.service;
+
+import com.datum.redsoft.config.ExtractionRoutingConfig;
+import com.datum.redsoft.dto.response.InvoiceDataResponse;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.exception.InvoiceExtractionException;
+import com.datum.redsoft.model.extraction.RuleExtractionResult;
+import com.datum.redsoft.service.interfaces.InvoiceDataExtractionService;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extractor determinista de datos de factura basado en patrones precompilados.
+ * <p>Busca el total junto a palabras clave (TOTAL, TOTAL A PAGAR...), fechas en formatos
+ * latinoamericanos (día primero, nombres de mes en español), moneda por código ISO,
+ * símbolo o nombre, y el proveedor en el encabezado. Cada campo lleva una confianza
+ * según la evidencia encontrada; {@link InvoiceExtractionRouter} decide con ella si
+ * hace falta el LLM.</p>
+ * <p>Solo se expone con su propio tipo para no competir con el router como
+ * implementación de {@link InvoiceDataExtractionService}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+@Typed(RuleBasedInvoiceExtractionService.class)
+public class RuleBasedInvoiceExtractionService implements InvoiceDataExtractionService {
+
+    public static final String EXTRACTION_METHOD = "REGEX";
+
+    /** Confianza de los campos supuestos sin evidencia en el texto (moneda por defecto, primera línea como emisor) */
+    static final double GUESS_CONFIDENCE = 0.6;
+
+    private static final Pattern AMOUNT = Pattern.compile(
+        "(?<![\\d.,])(\\d{1,3}(?:[.,]\\d{3})+(?:[.,]\\d{1,2})?|\\d+(?:[.,]\\d{1,2})?)(?!\\d)");
+    private static final Pattern TOTAL_STRONG = Pattern.compile(
+        "\\b(TOTAL\\s+A\\s+PAGAR|GRAN\\s+TOTAL|MONTO\\s+TOTAL|IMPORTE\\s+TOTAL|TOTAL\\s+GENERAL|TOTAL\\s+FACTURA|VENTA\\s+TOTAL)\\b");
+    private static final Pattern TOTAL = Pattern.compile("\\bTOTAL\\b");
+    private static final Pattern TOTAL_EXCLUDED = Pattern.compile(
+        "SUB\\s*-?\\s*TOTAL|TOTAL\\s+(IVA|IMPUESTOS?|DESC\\w*|ITEMS?|ARTICULOS|PRODUCTOS|EXENTO|GRAVADO|NO\\s+SUJETO|UNIDADES|CANT\\w*)");
+    private static final Pattern SUBTOTAL = Pattern.compile("SUB\\s*-?\\s*TOTAL");
+    private static final Pattern TAX = Pattern.compile("\\b(IVA|IGV|ISV|IMPUESTOS?)\\b");
+
+    private static final Pattern DATE_DMY = Pattern.compile("\\b(\\d{1,2})[/\\-.](\\d{1,2})[/\\-.](\\d{4}|\\d{2})\\b");
+    private static final Pattern DATE_YMD = Pattern.compile("\\b(\\d{4})[/\\-.](\\d{1,2})[/\\-.](\\d{1,2})\\b");
+    private static final Pattern DATE_TEXT = Pattern.compile(
+        "\\b(\\d{1,2})\\s*(?:DE\\s+|-|/)?(ENE|FEB|MAR|ABR|MAY|JUN|JUL|AGO|SEP|SET|OCT|NOV|DIC)[A-Z]*\\.?\\s*(?:DE\\s+|DEL\\s+|-|/)?(\\d{4})\\b");
+    private static final Pattern DATE_KEYWORD = Pattern.compile("\\b(FECHA|EMISION|EMITIDO)\\b");
+    private static final Map<String, Integer> MONTHS = Map.ofEntries(
+        Map.entry("ENE", 1), Map.entry("FEB", 2), Map.entry("MAR", 3), Map.entry("ABR", 4),
+        Map.entry("MAY", 5), Map.entry("JUN", 6), Map.entry("JUL", 7), Map.entry("AGO", 8),
+        Map.entry("SEP", 9), Map.entry("SET", 9), Map.entry("OCT", 10), Map.entry("NOV", 11),
+        Map.entry("DIC", 12)
+    );
+
+    private static final Pattern ISO_CURRENCY = Pattern.compile(
+        "\\b(USD|GTQ|MXN|CRC|HNL|NIO|PAB|DOP|PEN|COP|ARS|CLP|BOB|PYG|UYU|BRL|EUR)\\b");
+    private static final Map<Pattern, String> CURRENCY_WORDS = Map.of(
+        Pattern.compile("\\bDOLARES\\b"), "USD",
+        Pattern.compile("\\bQUETZALES\\b"), "GTQ",
+        Pattern.compile("\\bCOLONES\\b"), "CRC",
+        Pattern.compile("\\bLEMPIRAS\\b"), "HNL",
+        Pattern.compile("\\bCORDOBAS\\b"), "NIO",
+        Pattern.compile("\\bSOLES\\b"), "PEN",
+        Pattern.compile("\\bPESOS\\s+MEXICANOS\\b"), "MXN"
+    );
+    private static final Map<Pattern, String> CURRENCY_SYMBOLS = Map.of(
+        Pattern.compile("US\\$"), "USD",
+        Pattern.compile("€"), "EUR",
+        Pattern.compile("₡"), "CRC",
+        Pattern.compile("S/\\.?\\s?\\d"), "PEN",
+        Pattern.compile("C\\$\\s?\\d"), "NIO",
+        Pattern.compile("\\bQ\\.?\\s?\\d"), "GTQ",
+        Pattern.compile("\\bL\\.\\s?\\d"), "HNL"
+    );
+    private static final Pattern DOLLAR_SIGN = Pattern.compile("\\$\\s?\\d");
+
+    private static final Pattern VENDOR_LABEL = Pattern.compile("\\b(RAZON\\s+SOCIAL|EMISOR|PROVEEDOR)\\s*:\\s*(.+)$");
+    private static final Pattern LEGAL_SUFFIX = Pattern.compile(
+        "\\b(S\\.?\\s?A\\.?(\\s+DE\\s+C\\.?\\s?V\\.?)?|S\\.?\\s?R\\.?\\s?L\\.?|S\\.?\\s?DE\\s+R\\.?\\s?L\\.?|LTDA\\.?|INC\\.?|CORP\\.?|S\\.?\\s?A\\.?\\s?S\\.?|CIA\\.?)\\s*$");
+    private static final Pattern HEADER_NOISE = Pattern.compile(
+        "FACTURA|TICKET|RECIBO|COMPROBANTE|FECHA|\\bNIT\\b|\\bNRC\\b|\\bRUC\\b|\\bRFC\\b|\\bTEL|DIRECCI|CLIENTE|CAJA|SUCURSAL|WWW|HTTP|@|\\bDTE\\b|CONSUMIDOR|CREDITO\\s+FISCAL");
+    private static final int HEADER_LINES = 8;
+
+    private static final Pattern INVOICE_NUMBER = Pattern.compile(
+        "\\b(?:FACTURA|TICKET|COMPROBANTE|DOCUMENTO|SERIE)\\s*(?:N[O°º]\\.?|NUM(?:ERO)?\\.?|#)?\\s*:?\\s*([A-Z0-9][A-Z0-9\\-]{2,})");
+
+    @Inject
+    ExtractionRoutingConfig routingConfig;
+
+    /**
+     * Extrae los cuatro campos básicos con su confianza.
+     *
+     * @param extractedText texto OCR
+     * @return resultado con los campos encontrados (null si no se encontró) y confianza por campo
+     */
+    public RuleExtractionResult extract(String extractedText) {
+        List<String> lines = new ArrayList<>();
+        List<String> normalized = new ArrayList<>();
+        for (String line : extractedText.split("\\R")) {
+            if (!line.isBlank()) {
+                lines.add(line.strip());
+                normalized.add(normalize(line.strip()));
+            }
+        }
+
+        Map<String, Double> confidence = new HashMap<>();
+        String total = findTotal(normalized, confidence);
+        String date = findDate(normalized, confidence);
+        String currency = findCurrency(extractedText, String.join("\n", normalized), confidence);
+        String vendor = findVendor(lines, normalized, confidence);
+        String invoiceNumber = findInvoiceNumber(normalized);
+
+        return new RuleExtractionResult(vendor, date, total, currency, invoiceNumber, confidence);
+    }
+
+    @Override
+    public InvoiceDataResponse extractInvoiceData(String extractedText) throws InvoiceExtractionException {
+        validate(extractedText);
+        return extract(extractedText).toInvoiceDataResponse(EXTRACTION_METHOD);
+    }
+
+    @Override
+    public OCRResponseDTO extractBasicInvoiceData(String extractedText) throws InvoiceExtractionException {
+        validate(extractedText);
+        return extract(extractedText).toResponse();
+    }
+
+    @Override
+    public boolean isServiceAvailable() {
+        return true;
+    }
+
+    @Override
+    public String getExtractionMethod() {
+        return EXTRACTION_METHOD;
+    }
+
+    private void validate(String extractedText) throws InvoiceExtractionException {
+        if (extractedText == null || extractedText.trim().isEmpty()) {
+            throw new InvoiceExtractionException("El texto extraído está vacío o es nulo");
+        }
+    }
+
+    // ---------- Total ----------
+
+    private String findTotal(List<String> lines, Map<String, Double> confidence) {
+        Set<BigDecimal> candidates = new LinkedHashSet<>();
+        double bestScore = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (!TOTAL.matcher(line).find() || TOTAL_EXCLUDED.matcher(line).find()) {
+                continue;
+            }
+            double score = TOTAL_STRONG.matcher(line).find() ? 0.95 : 0.85;
+            BigDecimal amount = lastAmount(line);
+            if (amount == null && i + 1 < lines.size()) {
+                amount = firstAmount(lines.get(i + 1));
+                score -= 0.1;
+            }
+            if (amount != null && amount.signum() > 0) {
+                candidates.add(amount);
+                bestScore = Math.max(bestScore, score);
+            }
+        }
+
+        BigDecimal total;
+        if (!candidates.isEmpty()) {
+            total = candidates.stream().max(BigDecimal::compareTo).orElseThrow();
+            if (candidates.size() > 1) {
+                bestScore *= 0.85;
+            }
+            if (matchesSubtotalPlusTax(lines, total)) {
+                bestScore = Math.max(bestScore, 0.98);
+            }
+        } else {
+            total = lines.stream()
+                    .map(this::lastAmount)
+                    .filter(amount -> amount != null && amount.scale() > 0)
+                    .max(BigDecimal::compareTo)
+                    .orElse(null);
+            bestScore = total != null ? 0.4 : 0.0;
+        }
+
+        confidence.put(RuleExtractionResult.FIELD_TOTAL, bestScore);
+        return total != null ? total.setScale(2, RoundingMode.HALF_UP).toPlainString() : null;
+    }
+
+    private boolean matchesSubtotalPlusTax(List<String> lines, BigDecimal total) {
+        BigDecimal subtotal = null;
+        BigDecimal tax = null;
+        for (String line : lines) {
+            if (subtotal == null && SUBTOTAL.matcher(line).find()) {
+                subtotal = lastAmount(line);
+            } else if (tax == null && TAX.matcher(line).find() && !TOTAL.matcher(line).find()) {
+                tax = lastAmount(line);
+            }
+        }
+        return subtotal != null && tax != null
+                && subtotal.add(tax).subtract(total).abs().compareTo(new BigDecimal("0.02")) <= 0;
+    }
+
+    private BigDecimal firstAmount(String line) {
+        Matcher matcher = AMOUNT.matcher(line);
+        return matcher.find() ? parseAmount(matcher.group(1)) : null;
+    }
+
+    private BigDecimal lastAmount(String line) {
+        Matcher matcher = AMOUNT.matcher(line);
+        String last = null;
+        while (matcher.find()) {
+            last = matcher.group(1);
+        }
+        return last != null ? parseAmount(last) : null;
+    }
+
+    /**
+     * Interpreta "1.234,56", "1,234.56", "1234.56" o "1234,5": el último separador seguido
+     * de uno o dos dígitos es el decimal; el resto son separadores de miles.
+     */
+    static BigDecimal parseAmount(String raw) {
+        int lastSeparator = Math.max(raw.lastIndexOf('.'), raw.lastIndexOf(','));
+        boolean hasDecimals = lastSeparator >= 0 && raw.length() - lastSeparator - 1 <= 2;
+        String integerPart = hasDecimals ? raw.substring(0, lastSeparator) : raw;
+        String decimalPart = hasDecimals ? raw.substring(lastSeparator + 1) : "";
+        String digits = integerPart.replace(".", "").replace(",", "");
+        try {
+            return new BigDecimal(decimalPart.isEmpty() ? digits : digits + "." + decimalPart);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ---------- Fecha ----------
+
+    private String findDate(List<String> lines, Map<String, Double> confidence) {
+        LocalDate keywordDate = null;
+        Set<LocalDate> allDates = new LinkedHashSet<>();
+        boolean ambiguous = false;
+
+        for (String line : lines) {
+            List<LocalDate> dates = new ArrayList<>();
+            boolean[] lineAmbiguous = {false};
+            collectDates(line, dates, lineAmbiguous);
+            if (dates.isEmpty()) {
+                continue;
+            }
+            if (keywordDate == null && DATE_KEYWORD.matcher(line).find()) {
+                keywordDate = dates.get(0);
+                ambiguous = lineAmbiguous[0];
+            }
+            allDates.addAll(dates);
+        }
+
+        LocalDate date;
+        double score;
+        if (keywordDate != null) {
+            date = keywordDate;
+            score = 0.95;
+        } else if (allDates.size() == 1) {
+            date = allDates.iterator().next();
+            score = 0.8;
+        } else if (!allDates.isEmpty()) {
+            date = allDates.iterator().next();
+            score = 0.55;
+        } else {
+            confidence.put(RuleExtractionResult.FIELD_DATE, 0.0);
+            return null;
+        }
+        if (ambiguous) {
+            score -= 0.05;
+        }
+        confidence.put(RuleExtractionResult.FIELD_DATE, score);
+        return date.toString();
+    }
+
+    private void collectDates(String line, List<LocalDate> dates, boolean[] ambiguous) {
+        Matcher ymd = DATE_YMD.matcher(line);
+        while (ymd.find()) {
+            addIfValid(dates, Integer.parseInt(ymd.group(1)), Integer.parseInt(ymd.group(2)), Integer.parseInt(ymd.group(3)));
+        }
+        Matcher dmy = DATE_DMY.matcher(line);
+        while (dmy.find()) {
+            int first = Integer.parseInt(dmy.group(1));
+            int second = Integer.parseInt(dmy.group(2));
+            int year = normalizeYear(dmy.group(3));
+            // Formato latinoamericano: día primero, salvo que el segundo número no pueda ser mes
+            if (second > 12 && first <= 12) {
+                addIfValid(dates, year, first, second);
+            } else {
+                addIfValid(dates, year, second, first);
+                ambiguous[0] |= first <= 12 && second <= 12 && first != second;
+            }
+        }
+        Matcher text = DATE_TEXT.matcher(line);
+        while (text.find()) {
+            addIfValid(dates, Integer.parseInt(text.group(3)), MONTHS.get(text.group(2)), Integer.parseInt(text.group(1)));
+        }
+    }
+
+    private int normalizeYear(String year) {
+        int value = Integer.parseInt(year);
+        return year.length() == 2 ? 2000 + value : value;
+    }
+
+    private void addIfValid(List<LocalDate> dates, int year, int month, int day) {
+        if (year < 2000 || year > LocalDate.now().getYear() + 1) {
+            return;
+        }
+        try {
+            dates.add(LocalDate.of(year, month, day));
+        } catch (DateTimeException e) {
+            // No es una fecha real (p. ej. 31/02): se ignora
+        }
+    }
+
+    // ---------- Moneda ----------
+
+    private String findCurrency(String original, String normalized, Map<String, Double> confidence) {
+        Matcher iso = ISO_CURRENCY.matcher(normalized);
+        Map<String, Integer> isoCounts = new HashMap<>();
+        while (iso.find()) {
+            isoCounts.merge(iso.group(1), 1, Integer::sum);
+        }
+        if (!isoCounts.isEmpty()) {
+            confidence.put(RuleExtractionResult.FIELD_CURRENCY, isoCounts.size() == 1 ? 0.95 : 0.75);
+            return isoCounts.entrySet().stream().max(Map.Entry.comparingByValue()).orElseThrow().getKey();
+        }
+        for (Map.Entry<Pattern, String> word : CURRENCY_WORDS.entrySet()) {
+            if (word.getKey().matcher(normalized).find()) {
+                confidence.put(RuleExtractionResult.FIELD_CURRENCY, 0.9);
+                return word.getValue();
+            }
+        }
+        for (Map.Entry<Pattern, String> symbol : CURRENCY_SYMBOLS.entrySet()) {
+            if (symbol.getKey().matcher(original).find()) {
+                confidence.put(RuleExtractionResult.FIELD_CURRENCY, 0.85);
+                return symbol.getValue();
+            }
+        }
+        // "$" sin más contexto: se asume la moneda de la región configurada
+        confidence.put(RuleExtractionResult.FIELD_CURRENCY, DOLLAR_SIGN.matcher(original).find() ? 0.85 : GUESS_CONFIDENCE);
+        return routingConfig.getDefaultCurrency();
+    }
+
+    // ---------- Proveedor ----------
+
+    private String findVendor(List<String> lines, List<String> normalized, Map<String, Double> confidence) {
+        int header = Math.min(lines.size(), HEADER_LINES * 2);
+        for (int i = 0; i < header; i++) {
+            Matcher label = VENDOR_LABEL.matcher(normalized.get(i));
+            if (label.find()) {
+                confidence.put(RuleExtractionResult.FIELD_VENDOR, 0.9);
+                return lines.get(i).substring(lines.get(i).indexOf(':') + 1).strip();
+            }
+        }
+        for (int i = 0; i < header; i++) {
+            if (isVendorCandidate(normalized.get(i)) && LEGAL_SUFFIX.matcher(normalized.get(i)).find()) {
+                confidence.put(RuleExtractionResult.FIELD_VENDOR, 0.9);
+                return lines.get(i);
+            }
+        }
+        for (int i = 0; i < Math.min(lines.size(), HEADER_LINES); i++) {
+            if (isVendorCandidate(normalized.get(i))) {
+                confidence.put(RuleExtractionResult.FIELD_VENDOR, GUESS_CONFIDENCE);
+                return lines.get(i);
+            }
+        }
+        confidence.put(RuleExtractionResult.FIELD_VENDOR, 0.0);
+        return null;
+    }
+
+    private boolean isVendorCandidate(String line) {
+        if (line.length() < 3 || line.length() > 80 || HEADER_NOISE.matcher(line).find()) {
+            return false;
+        }
+        long letters = line.chars().filter(Character::isLetter).count();
+        return letters >= line.replace(" ", "").length() * 0.6;
+    }
+
+    // ---------- Número de factura ----------
+
+    private String findInvoiceNumber(List<String> lines) {
+        for (String line : lines) {
+            Matcher matcher = INVOICE_NUMBER.matcher(line);
+            if (matcher.find() && matcher.group(1).chars().anyMatch(Character::isDigit)) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Mayúsculas y sin tildes, para comparar palabras clave sin importar cómo las leyó el OCR.
+     */
+    private static String normalize(String line) {
+        return Normalizer.normalize(line, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase();
+    }
+}
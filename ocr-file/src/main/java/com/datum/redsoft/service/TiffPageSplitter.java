@@ -0,0 +1,80 @@
+package com.datum.redsoft.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Divide un TIFF multipágina en archivos de páginas consecutivas con ImageIO.
+ * <p>Cada página se copia con los metadatos leídos del original, de modo que el escritor
+ * conserva la compresión y la resolución. Las páginas se decodifican de una en una.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class TiffPageSplitter {
+
+    /**
+     * Divide el TIFF en partes consecutivas de {@code chunkSize} páginas, para analizar cada
+     * rango con un cuerpo propio en vez de reenviar el TIFF completo.
+     *
+     * @return archivos temporales con las partes, en orden de página; el llamador debe eliminarlos
+     * @throws IOException si ImageIO no puede leer el TIFF o no puede reescribir su compresión
+     */
+    public List<Path> splitPages(Path source, int chunkSize) throws IOException {
+        List<Path> parts = new ArrayList<>();
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("ImageIO no reconoce el TIFF");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, false, false);
+                int pageCount = reader.getNumImages(true);
+                for (int from = 0; from < pageCount; from += chunkSize) {
+                    Path target = Files.createTempFile("ocr-tiff-range-", ".tiff");
+                    parts.add(target);
+                    writePages(reader, from, Math.min(from + chunkSize, pageCount), target);
+                }
+                return parts;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+            throw e;
+        }
+    }
+
+    private void writePages(ImageReader reader, int from, int to, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWriter(reader);
+        if (writer == null) {
+            throw new IOException("ImageIO no tiene escritor para " + reader.getFormatName());
+        }
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(target.toFile())) {
+            writer.setOutput(output);
+            writer.prepareWriteSequence(null);
+            for (int page = from; page < to; page++) {
+                writer.writeToSequence(new IIOImage(reader.read(page), null, reader.getImageMetadata(page)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+    }
+}
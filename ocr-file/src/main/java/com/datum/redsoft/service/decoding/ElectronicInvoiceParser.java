@@ -0,0 +1,254 @@
+package com.datum.redsoft.service.decoding;
+
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Extrae proveedor, fecha, total y moneda de documentos tributarios electrónicos (DTE)
+ * en JSON o XML.
+ * <p>No depende de un esquema concreto: busca los campos por nombre, sin distinguir
+ * mayúsculas ni prefijos de namespace, probando los nombres en orden de prioridad. Cubre
+ * el DTE JSON de El Salvador, FEL de Guatemala, la factura electrónica de Costa Rica y
+ * CFDI de México, además de JSON con los nombres de campo de la API.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ElectronicInvoiceParser {
+
+    private static final Logger logger = Logger.getLogger(ElectronicInvoiceParser.class.getName());
+
+    static final String NOT_FOUND = "No encontrado";
+
+    private static final List<String> ISSUER_KEYS = List.of("emisor", "issuer", "seller", "supplier", "vendor");
+    private static final List<String> ISSUER_NAME_KEYS = List.of(
+        "nombreemisor", "nombrecomercial", "nombre", "razonsocial", "name");
+    private static final List<String> VENDOR_KEYS = List.of("vendor_name", "nombreemisor", "razonsocialemisor");
+    private static final List<String> DATE_KEYS = List.of(
+        "fecemi", "fechaemision", "fechahoraemision", "invoice_date", "issuedate", "fecha");
+    private static final List<String> TOTAL_KEYS = List.of(
+        "totalpagar", "montototaloperacion", "totalcomprobante", "grantotal", "importetotal",
+        "total_amount", "total", "importe");
+    private static final List<String> CURRENCY_KEYS = List.of(
+        "tipomoneda", "codigomoneda", "moneda", "currency");
+
+    private static final Map<String, String> CURRENCY_ALIASES = Map.of(
+        "PES", "ARS",
+        "DOL", "USD"
+    );
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * @param content documento JSON u XML
+     * @return datos de la factura si se encontraron proveedor, fecha y total
+     */
+    public Optional<OCRResponseDTO> parse(String content) {
+        String trimmed = content == null ? "" : content.strip();
+        try {
+            if (trimmed.startsWith("{")) {
+                return parseJson(objectMapper.readTree(trimmed));
+            }
+            if (trimmed.startsWith("<")) {
+                return parseXml(trimmed);
+            }
+        } catch (Exception e) {
+            logger.fine("El contenido no es un DTE legible: " + e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Arma el DTO a partir de campos ya localizados; exige proveedor, fecha y total.
+     */
+    static Optional<OCRResponseDTO> toResponse(String vendor, String date, String total, String currency) {
+        if (isBlank(vendor) || isBlank(date) || isBlank(total)) {
+            return Optional.empty();
+        }
+        String normalizedCurrency = isBlank(currency)
+                ? NOT_FOUND
+                : CURRENCY_ALIASES.getOrDefault(currency.strip().toUpperCase(Locale.ROOT), currency.strip());
+        return Optional.of(new OCRResponseDTO(vendor.strip(), date.strip(), total.strip(), normalizedCurrency));
+    }
+
+    // ---------- JSON ----------
+
+    Optional<OCRResponseDTO> parseJson(JsonNode root) {
+        String vendor = findJson(root, VENDOR_KEYS);
+        if (vendor == null) {
+            JsonNode issuer = findJsonNode(root, ISSUER_KEYS);
+            vendor = issuer != null ? findJson(issuer, ISSUER_NAME_KEYS) : null;
+        }
+        return toResponse(vendor, findJson(root, DATE_KEYS), findJson(root, TOTAL_KEYS), findJson(root, CURRENCY_KEYS));
+    }
+
+    private String findJson(JsonNode root, List<String> keys) {
+        for (String key : keys) {
+            JsonNode value = searchJson(root, key);
+            if (value != null && value.isValueNode() && !value.isNull()) {
+                return value.asText();
+            }
+        }
+        return null;
+    }
+
+    private JsonNode findJsonNode(JsonNode root, List<String> keys) {
+        for (String key : keys) {
+            JsonNode value = searchJson(root, key);
+            if (value != null && value.isObject()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Búsqueda en profundidad de la primera propiedad con ese nombre (sin distinguir mayúsculas).
+     */
+    private JsonNode searchJson(JsonNode node, String key) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                if (field.getKey().equalsIgnoreCase(key)) {
+                    return field.getValue();
+                }
+            }
+        }
+        for (JsonNode child : node) {
+            if (child.isContainerNode()) {
+                JsonNode found = searchJson(child, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    // ---------- XML ----------
+
+    private Optional<OCRResponseDTO> parseXml(String content) throws Exception {
+        Element root = readXml(content).getDocumentElement();
+
+        String vendor = findXml(root, VENDOR_KEYS);
+        if (vendor == null) {
+            Element issuer = findXmlElement(root, ISSUER_KEYS);
+            vendor = issuer != null ? findXml(issuer, ISSUER_NAME_KEYS) : null;
+        }
+        return toResponse(vendor, findXml(root, DATE_KEYS), findXml(root, TOTAL_KEYS), findXml(root, CURRENCY_KEYS));
+    }
+
+    private Document readXml(String content) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        // Los DTE llegan de terceros: sin DTD ni entidades externas (XXE)
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setExpandEntityReferences(false);
+        factory.setNamespaceAware(false);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private String findXml(Element root, List<String> keys) {
+        for (String key : keys) {
+            String value = searchXml(root, key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private Element findXmlElement(Element root, List<String> keys) {
+        for (String key : keys) {
+            Element element = searchXmlElement(root, key);
+            if (element != null) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Recorre el árbol en orden de documento buscando un atributo o un elemento hoja con ese nombre.
+     */
+    private String searchXml(Element element, String key) {
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Attr attribute = (Attr) attributes.item(i);
+            if (localName(attribute.getName()).equalsIgnoreCase(key)) {
+                return attribute.getValue();
+            }
+        }
+        if (localName(element.getTagName()).equalsIgnoreCase(key) && !hasChildElements(element)) {
+            return element.getTextContent();
+        }
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element child) {
+                String found = searchXml(child, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Element searchXmlElement(Element element, String key) {
+        if (localName(element.getTagName()).equalsIgnoreCase(key)) {
+            return element;
+        }
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element child) {
+                Element found = searchXmlElement(child, key);
+                if (found != null) {
+                    return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    private boolean hasChildElements(Element element) {
+        NodeList children = element.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i).getNodeType() == Node.ELEMENT_NODE) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String localName(String qualifiedName) {
+        int colon = qualifiedName.indexOf(':');
+        return colon >= 0 ? qualifiedName.substring(colon + 1) : qualifiedName;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,69 @@
+package com.datum.redsoft.service.decoding;
+
+import com.datum.redsoft.config.InvoiceDecodingConfig;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.ReaderException;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Busca un código QR en una imagen con ZXing.
+ * <p>La imagen se reduce antes a {@code qr-max-edge-pixels} y no se usa el modo
+ * TRY_HARDER, de modo que una factura sin QR apenas añade latencia.</p>
+ */
+@ApplicationScoped
+public class InvoiceQRCodeReader {
+
+    private static final Map<DecodeHintType, Object> HINTS = Map.of(
+        DecodeHintType.POSSIBLE_FORMATS, List.of(BarcodeFormat.QR_CODE),
+        DecodeHintType.CHARACTER_SET, "UTF-8"
+    );
+
+    @Inject
+    InvoiceDecodingConfig decodingConfig;
+
+    /**
+     * @return texto del primer QR encontrado, o vacío si no hay ninguno legible
+     */
+    public Optional<String> read(BufferedImage image) {
+        LuminanceSource source = new BufferedImageLuminanceSource(scaleDown(image));
+        try {
+            return Optional.of(new QRCodeReader().decode(new BinaryBitmap(new HybridBinarizer(source)), HINTS).getText());
+        } catch (ReaderException e) {
+            return Optional.empty();
+        }
+    }
+
+    private BufferedImage scaleDown(BufferedImage image) {
+        int maxEdge = decodingConfig.getQrMaxEdgePixels();
+        int longEdge = Math.max(image.getWidth(), image.getHeight());
+        if (longEdge <= maxEdge) {
+            return image;
+        }
+        double scale = (double) maxEdge / longEdge;
+        int width = Math.max(1, (int) (image.getWidth() * scale));
+        int height = Math.max(1, (int) (image.getHeight() * scale));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+}
@@ -0,0 +1,116 @@
+package com.datum.redsoft.service.decoding;
+
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Interpreta el texto de un código QR de factura.
+ * <p>Formatos reconocidos:</p>
+ * <ul>
+ *   <li>DTE completo embebido en el QR (JSON o XML), vía {@link ElectronicInvoiceParser}</li>
+ *   <li>AFIP (Argentina): URL con parámetro {@code p} en Base64 con fecha, CUIT, importe y moneda</li>
+ *   <li>SUNAT (Perú): campos separados por {@code |} con RUC, total y fecha de emisión</li>
+ * </ul>
+ * <p>Los QR de AFIP y SUNAT identifican al emisor solo por su CUIT/RUC y el de SUNAT no trae
+ * la moneda: esos campos quedan como "No encontrado" para que los complete el OCR. Los QR que
+ * solo traen un enlace de consulta (sin total o sin fecha) no se consideran decodificados.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class QRPayloadParser {
+
+    private static final Logger logger = Logger.getLogger(QRPayloadParser.class.getName());
+
+    @Inject
+    ElectronicInvoiceParser electronicInvoiceParser;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * @param payload texto leído del código QR
+     * @return datos de la factura si el QR trae al menos fecha y total
+     */
+    public Optional<OCRResponseDTO> parse(String payload) {
+        String trimmed = payload == null ? "" : payload.strip();
+        if (trimmed.startsWith("{") || trimmed.startsWith("<")) {
+            return electronicInvoiceParser.parse(trimmed);
+        }
+        if (trimmed.contains("afip.gob.ar")) {
+            return parseAfip(trimmed);
+        }
+        if (trimmed.chars().filter(c -> c == '|').count() >= 6) {
+            return parseSunat(trimmed);
+        }
+        return Optional.empty();
+    }
+
+    private Optional<OCRResponseDTO> parseAfip(String url) {
+        try {
+            String encoded = queryParameters(url).get("p");
+            if (encoded == null) {
+                return Optional.empty();
+            }
+            JsonNode data = objectMapper.readTree(Base64.getUrlDecoder().decode(toUrlSafe(encoded)));
+            // El CUIT no es el nombre del emisor
+            return ElectronicInvoiceParser.toResponse(
+                ElectronicInvoiceParser.NOT_FOUND,
+                data.path("fecha").asText(null),
+                data.path("importe").asText(null),
+                data.path("moneda").asText(null)
+            );
+        } catch (Exception e) {
+            logger.fine("QR de AFIP no legible: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * RUC | tipo | serie | número | IGV | total | fecha | tipo doc. receptor | doc. receptor | ...
+     */
+    private Optional<OCRResponseDTO> parseSunat(String payload) {
+        String[] fields = payload.split("\\|", -1);
+        if (!fields[0].strip().matches("\\d{11}")) {
+            return Optional.empty();
+        }
+        // Sin nombre del emisor (solo RUC) ni moneda: los completa el OCR
+        return ElectronicInvoiceParser.toResponse(ElectronicInvoiceParser.NOT_FOUND, fields[6], fields[5], null);
+    }
+
+    private Map<String, String> queryParameters(String url) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = URI.create(url).getRawQuery();
+        if (query == null) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                parameters.put(pair.substring(0, equals),
+                        URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
+
+    /**
+     * Normaliza a Base64 URL-safe; un '+' sin escapar en la URL llega como espacio tras decodificarla.
+     */
+    private String toUrlSafe(String base64) {
+        return base64.replace(' ', '+').replace('+', '-').replace('/', '_').strip();
+    }
+}
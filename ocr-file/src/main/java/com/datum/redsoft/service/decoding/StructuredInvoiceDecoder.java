@@ -0,0 +1,179 @@
+package com.datum.redsoft.service.decoding;
+
+import com.datum.redsoft.config.InvoiceDecodingConfig;
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import com.datum.redsoft.model.ocr.DecodedInvoice;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import com.datum.redsoft.service.PdfTextLayerExtractor;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDDocumentNameDictionary;
+import org.apache.pdfbox.pdmodel.PDEmbeddedFilesNameTreeNode;
+import org.apache.pdfbox.pdmodel.common.PDNameTreeNode;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDComplexFileSpecification;
+import org.apache.pdfbox.pdmodel.common.filespecification.PDEmbeddedFile;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Logger;
+
+/**
+ * Etapa previa al OCR que intenta obtener los datos de la factura ya estructurados.
+ * <p>Según el tipo de documento:</p>
+ * <ul>
+ *   <li>JSON/XML: se interpreta como DTE</li>
+ *   <li>PDF: primero los DTE adjuntos (archivos embebidos .json/.xml) y luego un QR en la primera
+ *       página, solo si es escaneada; una página con capa de texto no se renderiza porque el texto
+ *       se lee localmente sin pasar por Azure</li>
+ *   <li>Imagen: se busca un código QR en la imagen decodificada del documento
+ *       ({@link OCRDocument#getDecodedImage()}), compartida con el control de calidad y el pre-procesamiento</li>
+ * </ul>
+ * <p>Si la decodificación tiene éxito el pipeline no llama a Azure ni a Hugging Face; un QR
+ * que solo trae fecha y total ({@link DecodedInvoice#isComplete()}) sigue por OCR.
+ * Registra el resultado en {@code ocr.decoding.requests}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class StructuredInvoiceDecoder {
+
+    private static final Logger logger = Logger.getLogger(StructuredInvoiceDecoder.class.getName());
+
+    @Inject
+    InvoiceDecodingConfig decodingConfig;
+
+    @Inject
+    ElectronicInvoiceParser electronicInvoiceParser;
+
+    @Inject
+    QRPayloadParser qrPayloadParser;
+
+    @Inject
+    InvoiceQRCodeReader qrCodeReader;
+
+    @Inject
+    PdfTextLayerExtractor textLayerExtractor;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * Indica si el documento es un DTE en texto (JSON/XML), que nunca debe enviarse a OCR.
+     */
+    public static boolean isStructuredDocument(String contentType) {
+        return contentType.contains("json") || contentType.contains("xml");
+    }
+
+    /**
+     * @param document documento recibido, ya en disco
+     * @return factura decodificada, o vacío si el documento debe seguir por OCR e IA
+     */
+    public Optional<DecodedInvoice> decode(OCRDocument document) {
+        if (!decodingConfig.isEnabled()) {
+            return Optional.empty();
+        }
+
+        Optional<DecodedInvoice> decoded;
+        try {
+            String contentType = document.getContentType().toLowerCase(Locale.ROOT);
+            if (isStructuredDocument(contentType)) {
+                decoded = decodeElectronicInvoice(Files.readString(document.getPath(), StandardCharsets.UTF_8));
+            } else if (contentType.startsWith("application/pdf")) {
+                decoded = decodePdf(document);
+            } else {
+                BufferedImage image = document.getDecodedImage();
+                decoded = image != null ? decodeQr(image) : Optional.empty();
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warning("No se pudo decodificar la factura estructurada: " + e.getMessage());
+            decoded = Optional.empty();
+        }
+
+        meterRegistry.counter("ocr.decoding.requests",
+                "result", decoded.map(invoice -> invoice.isComplete() ? invoice.getSource() : invoice.getSource() + "_partial")
+                        .orElse("miss")).increment();
+        decoded.ifPresent(invoice -> logger.info(invoice.isComplete()
+                ? "Factura decodificada sin OCR (" + invoice.getSource() + ")"
+                : "Factura decodificada parcialmente (" + invoice.getSource() + "), se completa con OCR"));
+        return decoded;
+    }
+
+    private Optional<DecodedInvoice> decodeElectronicInvoice(String content) {
+        return electronicInvoiceParser.parse(content)
+                .map(data -> new DecodedInvoice(DecodedInvoice.SOURCE_ELECTRONIC_INVOICE, content, data));
+    }
+
+    private Optional<DecodedInvoice> decodeQr(BufferedImage image) {
+        Optional<String> payload = qrCodeReader.read(image);
+        if (payload.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<OCRResponseDTO> data = qrPayloadParser.parse(payload.get());
+        return data.map(invoiceData -> new DecodedInvoice(DecodedInvoice.SOURCE_QR, payload.get(), invoiceData,
+                !ElectronicInvoiceParser.NOT_FOUND.equals(invoiceData.getVendorName())
+                        && !ElectronicInvoiceParser.NOT_FOUND.equals(invoiceData.getCurrency())));
+    }
+
+    private Optional<DecodedInvoice> decodePdf(OCRDocument document) throws IOException {
+        try (PDDocument pdf = Loader.loadPDF(document.getPath().toFile())) {
+            for (String attachment : embeddedDocuments(pdf)) {
+                Optional<DecodedInvoice> decoded = decodeElectronicInvoice(attachment);
+                if (decoded.isPresent()) {
+                    return decoded;
+                }
+            }
+            if (!decodingConfig.isQrInPdf() || pdf.getNumberOfPages() == 0
+                    || textLayerExtractor.hasTextLayer(pdf, 0)) {
+                return Optional.empty();
+            }
+            BufferedImage firstPage = new PDFRenderer(pdf)
+                    .renderImageWithDPI(0, decodingConfig.getPdfRenderDpi(), ImageType.GRAY);
+            return decodeQr(firstPage);
+        }
+    }
+
+    /**
+     * Contenido de los archivos .json/.xml adjuntos al PDF (primer nivel del árbol de adjuntos).
+     */
+    private List<String> embeddedDocuments(PDDocument pdf) throws IOException {
+        List<String> documents = new ArrayList<>();
+        PDDocumentNameDictionary names = pdf.getDocumentCatalog().getNames();
+        PDEmbeddedFilesNameTreeNode tree = names != null ? names.getEmbeddedFiles() : null;
+        if (tree == null) {
+            return documents;
+        }
+
+        List<PDNameTreeNode<PDComplexFileSpecification>> nodes = new ArrayList<>();
+        nodes.add(tree);
+        if (tree.getKids() != null) {
+            nodes.addAll(tree.getKids());
+        }
+        for (PDNameTreeNode<PDComplexFileSpecification> node : nodes) {
+            Map<String, PDComplexFileSpecification> files = node.getNames();
+            if (files == null) {
+                continue;
+            }
+            for (Map.Entry<String, PDComplexFileSpecification> entry : files.entrySet()) {
+                String name = entry.getKey().toLowerCase(Locale.ROOT);
+                PDEmbeddedFile file = entry.getValue().getEmbeddedFile();
+                if (file != null && (name.endsWith(".json") || name.endsWith(".xml"))) {
+                    documents.add(new String(file.toByteArray(), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return documents;
+    }
+}
@@ -1,6 +1,7 @@
 package com.datum.redsoft.service.interfaces;
 
 import com.datum.redsoft.exception.OCRException;
+import com.datum.redsoft.model.ocr.OCRDocument;
 
 /**
  * Interfaz para servicios de OCR (Optical Character Recognition)
@@ -17,6 +18,20 @@ public interface OCRService {
      */
     String extractTextFromImage(byte[] imageData) throws OCRException;
     
+    /**
+     * Extrae texto de un documento respaldado por archivo.
+     * <p>Las implementaciones con soporte de streaming deben sobrescribirlo para no
+     * cargar el archivo completo en memoria; por defecto lee los bytes y delega en
+     * {@link #extractTextFromImage(byte[])}.</p>
+     * 
+     * @param document documento a procesar
+     * @return texto extraído del documento
+     * @throws OCRException si hay error en el procesamiento OCR
+     */
+    default String extractText(OCRDocument document) throws OCRException {
+        return extractTextFromImage(document.readAllBytes());
+    }
+    
     /**
      * Verifica si el servicio OCR está disponible
      * 
@@ -0,0 +1,33 @@
+package com.datum.redsoft.service.interfaces;
+
+import com.datum.redsoft.dto.response.OCRResponseDTO;
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Interfaz para servicios de extracción de datos de facturas no bloqueantes
+ * Variante reactiva de {@link InvoiceDataExtractionService} para ejecutarse desde el event loop
+ */
+public interface ReactiveInvoiceDataExtractionService {
+    
+    /**
+     * Extrae datos básicos de factura sin bloquear el hilo llamador
+     * 
+     * @param extractedText texto extraído mediante OCR
+     * @return Uni con los datos básicos, o fallido con InvoiceExtractionException
+     */
+    Uni<OCRResponseDTO> extractBasicInvoiceData(String extractedText);
+    
+    /**
+     * Verifica si el servicio de extracción está disponible
+     * 
+     * @return true si el servicio está disponible
+     */
+    boolean isServiceAvailable();
+    
+    /**
+     * Obtiene el método de extracción utilizado por este servicio
+     * 
+     * @return nombre del método de extracción (ej: "AI", "REGEX")
+     */
+    String getExtractionMethod();
+}
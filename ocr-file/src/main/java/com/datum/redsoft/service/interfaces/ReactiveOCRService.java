@@ -0,0 +1,25 @@
+package com.datum.redsoft.service.interfaces;
+
+import io.smallrye.mutiny.Uni;
+
+/**
+ * Interfaz para servicios de OCR no bloqueantes
+ * Variante reactiva de {@link OCRService} para ejecutarse desde el event loop
+ */
+public interface ReactiveOCRService {
+    
+    /**
+     * Extrae texto de una imagen usando OCR sin bloquear el hilo llamador
+     * 
+     * @param imageData bytes de la imagen a procesar
+     * @return Uni con el texto extraído, o fallido con OCRException
+     */
+    Uni<String> extractTextFromImage(byte[] imageData);
+    
+    /**
+     * Verifica si el servicio OCR está disponible
+     * 
+     * @return true si el servicio está disponible
+     */
+    boolean isServiceAvailable();
+}
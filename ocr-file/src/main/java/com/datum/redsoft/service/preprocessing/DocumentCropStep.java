@@ -0,0 +1,112 @@
+package com.datum.redsoft.service.preprocessing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Recorta la imagen a la región del documento.
+ * <p>Toma como fondo la luminancia media del borde de la foto (mesa, mostrador) y busca
+ * el rectángulo que contiene los píxeles que se apartan de ella, con un margen de
+ * seguridad. Si el recorte quitaría casi nada o demasiado, la imagen se deja igual.</p>
+ */
+@ApplicationScoped
+public class DocumentCropStep implements ImageProcessingStep {
+
+    public static final String NAME = "crop";
+
+    private static final int LUMA_THRESHOLD = 40;
+    private static final double MIN_FOREGROUND_FRACTION = 0.02;
+    private static final double MARGIN_FRACTION = 0.02;
+    private static final double MIN_AREA_REMOVED = 0.05;
+    private static final double MIN_AREA_KEPT = 0.30;
+    private static final int SAMPLES_PER_EDGE = 400;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int order() {
+        return 20;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, byte[] originalData) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int stride = Math.max(1, Math.min(w, h) / SAMPLES_PER_EDGE);
+        int background = borderLuma(image, stride);
+
+        int[] rowCounts = new int[h];
+        int[] colCounts = new int[w];
+        for (int y = 0; y < h; y += stride) {
+            for (int x = 0; x < w; x += stride) {
+                if (Math.abs(ImageBuffers.luma(image.getRGB(x, y)) - background) >= LUMA_THRESHOLD) {
+                    rowCounts[y]++;
+                    colCounts[x]++;
+                }
+            }
+        }
+
+        int minPerRow = Math.max(1, (int) (MIN_FOREGROUND_FRACTION * (w / stride)));
+        int minPerCol = Math.max(1, (int) (MIN_FOREGROUND_FRACTION * (h / stride)));
+        int top = first(rowCounts, minPerRow);
+        int bottom = last(rowCounts, minPerRow);
+        int left = first(colCounts, minPerCol);
+        int right = last(colCounts, minPerCol);
+        if (top < 0 || left < 0) {
+            return image;
+        }
+
+        int marginX = (int) (w * MARGIN_FRACTION);
+        int marginY = (int) (h * MARGIN_FRACTION);
+        left = Math.max(0, left - marginX);
+        top = Math.max(0, top - marginY);
+        right = Math.min(w - 1, right + stride + marginX);
+        bottom = Math.min(h - 1, bottom + stride + marginY);
+
+        int cropWidth = right - left + 1;
+        int cropHeight = bottom - top + 1;
+        double keptArea = (double) cropWidth * cropHeight / ((double) w * h);
+        if (keptArea > 1 - MIN_AREA_REMOVED || keptArea < MIN_AREA_KEPT) {
+            return image;
+        }
+        return image.getSubimage(left, top, cropWidth, cropHeight);
+    }
+
+    private int borderLuma(BufferedImage image, int stride) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        long sum = 0;
+        int count = 0;
+        for (int x = 0; x < w; x += stride) {
+            sum += ImageBuffers.luma(image.getRGB(x, 0)) + ImageBuffers.luma(image.getRGB(x, h - 1));
+            count += 2;
+        }
+        for (int y = 0; y < h; y += stride) {
+            sum += ImageBuffers.luma(image.getRGB(0, y)) + ImageBuffers.luma(image.getRGB(w - 1, y));
+            count += 2;
+        }
+        return (int) (sum / count);
+    }
+
+    private int first(int[] counts, int minimum) {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] >= minimum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int last(int[] counts, int minimum) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] >= minimum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,67 @@
+package com.datum.redsoft.service.preprocessing;
+
+import com.datum.redsoft.config.ImagePreprocessingConfig;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Reduce la imagen para que el lado mayor no supere la resolución objetivo
+ * ({@code target-dpi} × {@code page-long-edge-inches}).
+ * <p>Reduce a la mitad en pasos sucesivos antes del ajuste final para evitar el aliasing
+ * que una sola interpolación bilineal produce en el texto pequeño.</p>
+ */
+@ApplicationScoped
+public class DownscaleStep implements ImageProcessingStep {
+
+    public static final String NAME = "downscale";
+
+    @Inject
+    ImagePreprocessingConfig preprocessingConfig;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int order() {
+        return 30;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, byte[] originalData) {
+        return downscale(image, preprocessingConfig.getMaxLongEdgePixels());
+    }
+
+    /**
+     * Reduce la imagen hasta que su lado mayor no supere {@code maxLongEdge} píxeles.
+     */
+    BufferedImage downscale(BufferedImage image, int maxLongEdge) {
+        int longEdge = Math.max(image.getWidth(), image.getHeight());
+        if (longEdge <= maxLongEdge) {
+            return image;
+        }
+
+        double scale = (double) maxLongEdge / longEdge;
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * scale));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * scale));
+
+        BufferedImage current = image;
+        while (current.getWidth() / 2 >= targetWidth && current.getHeight() / 2 >= targetHeight) {
+            current = resize(current, current.getWidth() / 2, current.getHeight() / 2);
+        }
+        if (current.getWidth() != targetWidth || current.getHeight() != targetHeight) {
+            current = resize(current, targetWidth, targetHeight);
+        }
+        return current;
+    }
+
+    private BufferedImage resize(BufferedImage source, int width, int height) {
+        AffineTransform transform = AffineTransform.getScaleInstance(
+                (double) width / source.getWidth(), (double) height / source.getHeight());
+        return ImageBuffers.draw(source, ImageBuffers.blank(width, height, source), transform);
+    }
+}
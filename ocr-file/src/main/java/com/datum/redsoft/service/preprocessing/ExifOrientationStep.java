@@ -0,0 +1,122 @@
+package com.datum.redsoft.service.preprocessing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Endereza fotos JPEG según la etiqueta EXIF Orientation (0x0112).
+ * <p>Los teléfonos guardan la imagen en la orientación del sensor y solo anotan la
+ * rotación en EXIF; ImageIO la ignora, así que sin este paso Azure recibe la factura
+ * girada.</p>
+ */
+@ApplicationScoped
+public class ExifOrientationStep implements ImageProcessingStep {
+
+    public static final String NAME = "exif-orientation";
+
+    private static final int ORIENTATION_TAG = 0x0112;
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int order() {
+        return 10;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, byte[] originalData) {
+        int orientation = readOrientation(originalData);
+        if (orientation <= 1 || orientation > 8) {
+            return image;
+        }
+
+        int w = image.getWidth();
+        int h = image.getHeight();
+        boolean swapsAxes = orientation >= 5;
+        // Matrices (m00, m10, m01, m11, m02, m12) para cada valor de Orientation
+        AffineTransform transform = switch (orientation) {
+            case 2 -> new AffineTransform(-1, 0, 0, 1, w, 0);
+            case 3 -> new AffineTransform(-1, 0, 0, -1, w, h);
+            case 4 -> new AffineTransform(1, 0, 0, -1, 0, h);
+            case 5 -> new AffineTransform(0, 1, 1, 0, 0, 0);
+            case 6 -> new AffineTransform(0, 1, -1, 0, h, 0);
+            case 7 -> new AffineTransform(0, -1, -1, 0, h, w);
+            default -> new AffineTransform(0, -1, 1, 0, 0, w);
+        };
+
+        BufferedImage target = swapsAxes
+                ? ImageBuffers.blank(h, w, image)
+                : ImageBuffers.blank(w, h, image);
+        return ImageBuffers.draw(image, target, transform);
+    }
+
+    /**
+     * Busca el segmento APP1 "Exif" de un JPEG y devuelve el valor de Orientation del IFD0.
+     *
+     * @return orientación (1-8), o 1 si el archivo no es JPEG o no tiene la etiqueta
+     */
+    static int readOrientation(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xFF) != 0xFF || (data[1] & 0xFF) != 0xD8) {
+            return 1;
+        }
+        int offset = 2;
+        while (offset + 4 <= data.length && (data[offset] & 0xFF) == 0xFF) {
+            int marker = data[offset + 1] & 0xFF;
+            if (marker == 0xDA || marker == 0xD9) {
+                break;
+            }
+            int length = readShort(data, offset + 2, false);
+            if (marker == 0xE1 && isExifHeader(data, offset + 4)) {
+                return readTiffOrientation(data, offset + 10, offset + 2 + length);
+            }
+            offset += 2 + length;
+        }
+        return 1;
+    }
+
+    private static boolean isExifHeader(byte[] data, int offset) {
+        return offset + 6 <= data.length
+                && data[offset] == 'E' && data[offset + 1] == 'x' && data[offset + 2] == 'i'
+                && data[offset + 3] == 'f' && data[offset + 4] == 0 && data[offset + 5] == 0;
+    }
+
+    private static int readTiffOrientation(byte[] data, int tiffStart, int segmentEnd) {
+        int end = Math.min(segmentEnd, data.length);
+        if (tiffStart + 8 > end) {
+            return 1;
+        }
+        boolean littleEndian = data[tiffStart] == 'I' && data[tiffStart + 1] == 'I';
+        int ifdOffset = tiffStart + readInt(data, tiffStart + 4, littleEndian);
+        if (ifdOffset < tiffStart || ifdOffset + 2 > end) {
+            return 1;
+        }
+        int entries = readShort(data, ifdOffset, littleEndian);
+        for (int i = 0; i < entries; i++) {
+            int entry = ifdOffset + 2 + i * 12;
+            if (entry + 12 > end) {
+                break;
+            }
+            if (readShort(data, entry, littleEndian) == ORIENTATION_TAG) {
+                return readShort(data, entry + 8, littleEndian);
+            }
+        }
+        return 1;
+    }
+
+    private static int readShort(byte[] data, int offset, boolean littleEndian) {
+        int b0 = data[offset] & 0xFF;
+        int b1 = data[offset + 1] & 0xFF;
+        return littleEndian ? (b1 << 8) | b0 : (b0 << 8) | b1;
+    }
+
+    private static int readInt(byte[] data, int offset, boolean littleEndian) {
+        int high = readShort(data, littleEndian ? offset + 2 : offset, littleEndian);
+        int low = readShort(data, littleEndian ? offset : offset + 2, littleEndian);
+        return (high << 16) | low;
+    }
+}
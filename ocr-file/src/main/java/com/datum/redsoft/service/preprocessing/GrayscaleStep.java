@@ -0,0 +1,35 @@
+package com.datum.redsoft.service.preprocessing;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Convierte la imagen a escala de grises de 8 bits.
+ * <p>El OCR no usa el color y un JPEG de un solo canal ocupa bastante menos.</p>
+ */
+@ApplicationScoped
+public class GrayscaleStep implements ImageProcessingStep {
+
+    public static final String NAME = "grayscale";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public int order() {
+        return 40;
+    }
+
+    @Override
+    public BufferedImage apply(BufferedImage image, byte[] originalData) {
+        if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+            return image;
+        }
+        BufferedImage gray = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_BYTE_GRAY);
+        return ImageBuffers.draw(image, gray, new AffineTransform());
+    }
+}
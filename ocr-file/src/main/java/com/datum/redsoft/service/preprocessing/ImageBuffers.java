@@ -0,0 +1,55 @@
+package com.datum.redsoft.service.preprocessing;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+/**
+ * Utilidades de dibujo compartidas por los pasos de pre-procesamiento.
+ */
+final class ImageBuffers {
+
+    private ImageBuffers() {
+    }
+
+    /**
+     * Crea una imagen vacía compatible con JPEG: escala de grises si el origen ya lo es,
+     * RGB sin canal alfa en cualquier otro caso.
+     */
+    static BufferedImage blank(int width, int height, BufferedImage like) {
+        int type = like.getType() == BufferedImage.TYPE_BYTE_GRAY
+                ? BufferedImage.TYPE_BYTE_GRAY
+                : BufferedImage.TYPE_INT_RGB;
+        return new BufferedImage(width, height, type);
+    }
+
+    /**
+     * Dibuja {@code source} sobre un lienzo nuevo aplicando la transformación indicada.
+     * Las zonas transparentes se rellenan de blanco.
+     */
+    static BufferedImage draw(BufferedImage source, BufferedImage target, AffineTransform transform) {
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, target.getWidth(), target.getHeight());
+            graphics.drawImage(source, transform, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    /**
+     * Luminancia (0-255) de un píxel ARGB según los coeficientes de Rec. 601.
+     */
+    static int luma(int rgb) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        return (r * 299 + g * 587 + b * 114) / 1000;
+    }
+}
@@ -0,0 +1,200 @@
+package com.datum.redsoft.service.preprocessing;
+
+import com.datum.redsoft.config.ImagePreprocessingConfig;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Aplica la cadena de {@link ImageProcessingStep} a fotos JPEG, PNG o BMP y las
+ * re-codifica como JPEG con la calidad configurada.
+ * <p>Si el resultado no es más pequeño que el original se descarta y el OCR recibe el
+ * archivo sin cambios. Publica {@code ocr.preprocessing.duration} y
+ * {@code ocr.preprocessing.bytes.saved}.</p>
+ * <p>Para el modo progresivo genera además una versión de baja resolución
+ * ({@code ocr.preprocessing.progressive.target-dpi}).</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ImagePreprocessor {
+
+    private static final Logger logger = Logger.getLogger(ImagePreprocessor.class.getName());
+
+    @Inject
+    ImagePreprocessingConfig preprocessingConfig;
+
+    @Inject
+    Instance<ImageProcessingStep> availableSteps;
+
+    @Inject
+    DownscaleStep downscaleStep;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private List<ImageProcessingStep> steps;
+
+    @PostConstruct
+    void init() {
+        steps = availableSteps.stream()
+                .filter(step -> preprocessingConfig.getSteps().contains(step.name()))
+                .sorted(Comparator.comparingInt(ImageProcessingStep::order))
+                .toList();
+        logger.info("Pre-procesamiento de imágenes: " + preprocessingConfig + ", pasos activos: "
+                + steps.stream().map(ImageProcessingStep::name).toList());
+    }
+
+    /**
+     * Indica si el tipo MIME corresponde a una foto que este pre-procesador puede reducir.
+     * Los PDF y TIFF multipágina se envían sin cambios.
+     */
+    public boolean supports(String contentType) {
+        return preprocessingConfig.isEnabled() && contentType != null
+                && (contentType.startsWith("image/jpeg") || contentType.startsWith("image/png")
+                    || contentType.startsWith("image/bmp"));
+    }
+
+    /**
+     * Detecta el formato por la firma del archivo, para llamadas que no traen Content-Type.
+     */
+    public boolean supports(byte[] data) {
+        if (!preprocessingConfig.isEnabled() || data.length < 4) {
+            return false;
+        }
+        boolean jpeg = (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8;
+        boolean png = (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G';
+        boolean bmp = data[0] == 'B' && data[1] == 'M';
+        return jpeg || png || bmp;
+    }
+
+    /**
+     * @param data bytes de la imagen original
+     * @return JPEG pre-procesado, o vacío si la imagen no se pudo leer o el resultado no es más pequeño
+     */
+    public Optional<byte[]> preprocess(byte[] data) {
+        try {
+            return preprocess(ImageIO.read(new ByteArrayInputStream(data)), data);
+        } catch (IOException e) {
+            meterRegistry.counter("ocr.preprocessing.requests", "outcome", "error").increment();
+            logger.warning("No se pudo pre-procesar la imagen, se envía sin cambios: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Variante para una imagen ya decodificada ({@link com.datum.redsoft.model.ocr.OCRDocument#getDecodedImage()});
+     * los pasos no modifican la imagen recibida.
+     *
+     * @param image imagen decodificada, o null si no se pudo leer
+     * @param data bytes de la imagen original (orientación EXIF y comparación de tamaño)
+     */
+    public Optional<byte[]> preprocess(BufferedImage image, byte[] data) {
+        long start = System.nanoTime();
+        try {
+            if (image == null) {
+                return Optional.empty();
+            }
+            for (ImageProcessingStep step : steps) {
+                image = step.apply(image, data);
+            }
+            byte[] encoded = encodeJpeg(image);
+            long elapsedNanos = System.nanoTime() - start;
+
+            Timer.builder("ocr.preprocessing.duration")
+                    .description("Tiempo añadido por el pre-procesamiento de imágenes")
+                    .register(meterRegistry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+
+            if (encoded.length >= data.length) {
+                meterRegistry.counter("ocr.preprocessing.requests", "outcome", "not_smaller").increment();
+                logger.info("Pre-procesamiento descartado: " + data.length + " -> " + encoded.length + " bytes");
+                return Optional.empty();
+            }
+
+            DistributionSummary.builder("ocr.preprocessing.bytes.saved")
+                    .description("Bytes ahorrados por imagen antes de enviarla al OCR")
+                    .baseUnit("bytes")
+                    .register(meterRegistry)
+                    .record(data.length - encoded.length);
+            meterRegistry.counter("ocr.preprocessing.requests", "outcome", "applied").increment();
+            logger.info("Pre-procesamiento aplicado: " + data.length + " -> " + encoded.length + " bytes en "
+                    + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+            return Optional.of(encoded);
+
+        } catch (IOException | RuntimeException e) {
+            meterRegistry.counter("ocr.preprocessing.requests", "outcome", "error").increment();
+            logger.warning("No se pudo pre-procesar la imagen, se envía sin cambios: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Aplica los mismos pasos y reduce además a {@code ocr.preprocessing.progressive.target-dpi},
+     * sin publicar las métricas del pre-procesamiento habitual.
+     *
+     * @param image imagen decodificada, o null si no se pudo leer
+     * @param data bytes de la imagen original
+     * @return JPEG de baja resolución, o vacío si la imagen no se pudo leer o el resultado no es más pequeño
+     */
+    public Optional<byte[]> preprocessLowResolution(BufferedImage image, byte[] data) {
+        try {
+            if (image == null) {
+                return Optional.empty();
+            }
+            for (ImageProcessingStep step : steps) {
+                image = step.apply(image, data);
+            }
+            image = downscaleStep.downscale(image, preprocessingConfig.getProgressiveMaxLongEdgePixels());
+            byte[] encoded = encodeJpeg(image);
+            return encoded.length < data.length ? Optional.of(encoded) : Optional.empty();
+        } catch (IOException | RuntimeException e) {
+            logger.warning("No se pudo generar la versión de baja resolución: " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        BufferedImage encodable = image;
+        if (image.getType() != BufferedImage.TYPE_BYTE_GRAY && image.getType() != BufferedImage.TYPE_INT_RGB) {
+            // JPEG no admite canal alfa ni paletas: se aplana sobre blanco
+            encodable = ImageBuffers.draw(image,
+                    new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB),
+                    new AffineTransform());
+        }
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(preprocessingConfig.getJpegQuality());
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(encodable, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
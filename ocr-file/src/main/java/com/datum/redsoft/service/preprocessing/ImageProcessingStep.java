@@ -0,0 +1,29 @@
+package com.datum.redsoft.service.preprocessing;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Paso de pre-procesamiento aplicado a una imagen antes de enviarla al OCR.
+ * <p>Cada implementación es un bean CDI; {@link ImagePreprocessor} aplica los pasos
+ * habilitados en {@code ocr.preprocessing.steps} ordenados por {@link #order()}.
+ * Los pasos deben ser deterministas: la misma entrada produce siempre la misma salida.</p>
+ */
+public interface ImageProcessingStep {
+
+    /**
+     * Nombre con el que se habilita el paso en la configuración.
+     */
+    String name();
+
+    /**
+     * Posición del paso en la cadena (menor primero).
+     */
+    int order();
+
+    /**
+     * @param image imagen resultante del paso anterior
+     * @param originalData bytes originales del archivo (p. ej. para leer metadatos EXIF)
+     * @return imagen transformada, o la misma instancia si el paso no aplica
+     */
+    BufferedImage apply(BufferedImage image, byte[] originalData);
+}
@@ -0,0 +1,236 @@
+package com.datum.redsoft.service.preprocessing;
+
+import com.datum.redsoft.config.ImageQualityGateConfig;
+import com.datum.redsoft.exception.ImageQualityException;
+import com.datum.redsoft.model.ocr.OCRDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Control local de calidad de fotos antes de enviarlas a Azure y al LLM.
+ * <p>Usa la foto decodificada del documento ({@link OCRDocument#getDecodedImage()}), que luego
+ * reutilizan la lectura del QR y el pre-procesamiento, y la analiza submuestreada (lado mayor
+ * de unos {@value #ANALYSIS_LONG_EDGE} píxeles), lo que deja el análisis en pocos milisegundos
+ * y hace que los umbrales no dependan de la resolución de la cámara. Se rechaza, en este
+ * orden, si:</p>
+ * <ul>
+ *   <li>la luminancia media queda bajo {@code ocr.quality-gate.min-brightness} (foto oscura);</li>
+ *   <li>la fracción de píxeles saturados en blanco supera {@code ocr.quality-gate.max-overexposed-fraction}
+ *       y además casi no quedan bordes de texto (un recibo blanco bien legible no se rechaza);</li>
+ *   <li>la varianza del Laplaciano queda bajo {@code ocr.quality-gate.min-sharpness} (foto borrosa);</li>
+ *   <li>la región con bordes de texto ocupa menos de {@code ocr.quality-gate.min-text-region-fraction} de la foto.</li>
+ * </ul>
+ * <p>Solo se evalúan fotos JPEG, PNG y BMP según su Content-Type; los PDF, TIFF y DTE pasan
+ * sin control, igual que una imagen que no se puede decodificar (el OCR informará el error). Publica
+ * {@code ocr.quality_gate.checks{outcome}} y {@code ocr.quality_gate.duration}.</p>
+ *
+ * @author Datum Redsoft
+ * @version 1.0
+ */
+@ApplicationScoped
+public class ImageQualityGate {
+
+    private static final Logger logger = Logger.getLogger(ImageQualityGate.class.getName());
+
+    private static final int ANALYSIS_LONG_EDGE = 1000;
+    private static final int OVEREXPOSED_LUMA = 250;
+    private static final int EDGE_THRESHOLD = 40;
+    private static final double REGION_TRIM_FRACTION = 0.02;
+
+    @Inject
+    ImageQualityGateConfig gateConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * @throws ImageQualityException si la foto no alcanza los umbrales configurados
+     */
+    public void check(OCRDocument document) {
+        if (!gateConfig.isEnabled() || !isPhoto(document.getContentType())) {
+            return;
+        }
+        check(document::getDecodedImage);
+    }
+
+    /**
+     * Variante para el cuerpo ya leído en memoria (flujo reactivo); el formato se detecta por la
+     * firma del archivo.
+     *
+     * @throws ImageQualityException si la foto no alcanza los umbrales configurados
+     */
+    public void check(byte[] data) {
+        if (!gateConfig.isEnabled() || !isPhoto(data)) {
+            return;
+        }
+        check(() -> ImageIO.read(new ByteArrayInputStream(data)));
+    }
+
+    private void check(ImageSource source) {
+        long start = System.nanoTime();
+        try {
+            BufferedImage image = source.read();
+            if (image == null) {
+                return;
+            }
+            evaluate(image);
+            record("passed");
+        } catch (ImageQualityException e) {
+            record(e.getReason().toLowerCase(Locale.ROOT));
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            skip(e);
+        } finally {
+            Timer.builder("ocr.quality_gate.duration")
+                    .description("Tiempo del control local de calidad de fotos")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private boolean isPhoto(String contentType) {
+        return contentType != null
+                && (contentType.startsWith("image/jpeg") || contentType.startsWith("image/png")
+                    || contentType.startsWith("image/bmp"));
+    }
+
+    private boolean isPhoto(byte[] data) {
+        if (data.length < 4) {
+            return false;
+        }
+        boolean jpeg = (data[0] & 0xFF) == 0xFF && (data[1] & 0xFF) == 0xD8;
+        boolean png = (data[0] & 0xFF) == 0x89 && data[1] == 'P' && data[2] == 'N' && data[3] == 'G';
+        boolean bmp = data[0] == 'B' && data[1] == 'M';
+        return jpeg || png || bmp;
+    }
+
+    /**
+     * Toma un píxel de cada {@code step} en cada eje, como la lectura submuestreada de ImageIO,
+     * para que los umbrales no dependan de la resolución de la cámara.
+     */
+    private int[] sample(BufferedImage image, int step, int w, int h) {
+        int[] pixels = new int[w * h];
+        int[] row = new int[image.getWidth()];
+        for (int y = 0; y < h; y++) {
+            image.getRGB(0, y * step, row.length, 1, row, 0, row.length);
+            for (int x = 0; x < w; x++) {
+                pixels[y * w + x] = row[x * step];
+            }
+        }
+        return pixels;
+    }
+
+    private void evaluate(BufferedImage image) {
+        int longEdge = Math.max(image.getWidth(), image.getHeight());
+        int step = Math.max(1, (longEdge + ANALYSIS_LONG_EDGE - 1) / ANALYSIS_LONG_EDGE);
+        int w = (image.getWidth() + step - 1) / step;
+        int h = (image.getHeight() + step - 1) / step;
+        int[] pixels = sample(image, step, w, h);
+        int[] luma = new int[pixels.length];
+        long lumaSum = 0;
+        int overexposed = 0;
+        for (int i = 0; i < pixels.length; i++) {
+            luma[i] = ImageBuffers.luma(pixels[i]);
+            lumaSum += luma[i];
+            if (luma[i] >= OVEREXPOSED_LUMA) {
+                overexposed++;
+            }
+        }
+
+        double brightness = (double) lumaSum / luma.length;
+        if (brightness < gateConfig.getMinBrightness()) {
+            throw new ImageQualityException("TOO_DARK",
+                    "La foto está demasiado oscura: tómela de nuevo con más luz o con el flash activado",
+                    String.format(Locale.ROOT, "brightness=%.1f, min=%d", brightness, gateConfig.getMinBrightness()));
+        }
+
+        // Laplaciano de 4 vecinos: su varianza mide la nitidez y sus picos marcan los bordes del texto
+        double laplacianSum = 0;
+        double laplacianSquares = 0;
+        int samples = 0;
+        int edges = 0;
+        int[] rowEdges = new int[h];
+        int[] colEdges = new int[w];
+        for (int y = 1; y < h - 1; y++) {
+            for (int x = 1; x < w - 1; x++) {
+                int i = y * w + x;
+                int laplacian = 4 * luma[i] - luma[i - 1] - luma[i + 1] - luma[i - w] - luma[i + w];
+                laplacianSum += laplacian;
+                laplacianSquares += (double) laplacian * laplacian;
+                samples++;
+                if (Math.abs(laplacian) >= EDGE_THRESHOLD) {
+                    edges++;
+                    rowEdges[y]++;
+                    colEdges[x]++;
+                }
+            }
+        }
+
+        double textRegion = edges == 0 ? 0.0
+                : (double) span(rowEdges, edges) * span(colEdges, edges) / ((double) w * h);
+        double overexposedFraction = (double) overexposed / luma.length;
+        if (overexposedFraction > gateConfig.getMaxOverexposedFraction()
+                && textRegion < gateConfig.getMinTextRegionFraction()) {
+            throw new ImageQualityException("OVEREXPOSED",
+                    "La foto está sobreexpuesta: evite reflejos y luz directa sobre el recibo",
+                    String.format(Locale.ROOT, "overexposed=%.3f, max=%.3f",
+                            overexposedFraction, gateConfig.getMaxOverexposedFraction()));
+        }
+        double mean = samples == 0 ? 0.0 : laplacianSum / samples;
+        double sharpness = samples == 0 ? 0.0 : laplacianSquares / samples - mean * mean;
+        if (sharpness < gateConfig.getMinSharpness()) {
+            throw new ImageQualityException("BLURRY",
+                    "La foto está borrosa: mantenga la cámara quieta y enfoque el recibo antes de tomarla",
+                    String.format(Locale.ROOT, "sharpness=%.1f, min=%.1f", sharpness, gateConfig.getMinSharpness()));
+        }
+        if (textRegion < gateConfig.getMinTextRegionFraction()) {
+            throw new ImageQualityException("TEXT_TOO_SMALL",
+                    "No se distingue texto suficiente: acerque la cámara para que el recibo ocupe la mayor parte de la foto",
+                    String.format(Locale.ROOT, "textRegion=%.3f, min=%.3f",
+                            textRegion, gateConfig.getMinTextRegionFraction()));
+        }
+    }
+
+    /**
+     * Extensión de la región con bordes en un eje, descartando el {@value #REGION_TRIM_FRACTION}
+     * de los bordes en cada extremo para que el ruido aislado no la agrande.
+     */
+    private int span(int[] counts, int total) {
+        long trim = (long) (total * REGION_TRIM_FRACTION);
+        int first = 0;
+        long seen = 0;
+        while (first < counts.length - 1 && seen + counts[first] <= trim) {
+            seen += counts[first++];
+        }
+        int last = counts.length - 1;
+        seen = 0;
+        while (last > first && seen + counts[last] <= trim) {
+            seen += counts[last--];
+        }
+        return last - first + 1;
+    }
+
+    private void skip(Exception e) {
+        record("skipped");
+        logger.warning("No se pudo evaluar la calidad de la foto, se envía sin control: " + e.getMessage());
+    }
+
+    private void record(String outcome) {
+        meterRegistry.counter("ocr.quality_gate.checks", "outcome", outcome).increment();
+    }
+
+    @FunctionalInterface
+    private interface ImageSource {
+        BufferedImage read() throws IOException;
+    }
+}
@@ -1,5 +1,6 @@
 package org.datum.openkm.controller;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -19,6 +20,7 @@ import org.jboss.logging.Logger;
 
 @Path("/api/documents")
 @Tag(name = "Document Download", description = "Endpoints para descargar documentos de OpenKM")
+@RunOnVirtualThread
 public class DocumentController {
 
     private static final Logger LOG = Logger.getLogger(DocumentController.class);
@@ -1,5 +1,6 @@
 package org.datum.openkm.controller;
 
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
@@ -30,6 +31,7 @@ import java.nio.file.Files;
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
 @Tag(name = "Image Upload", description = "Endpoints para subida de imágenes a OpenKM")
+@RunOnVirtualThread
 public class ImageUploadController {
 
     private static final Logger LOG = Logger.getLogger(ImageUploadController.class);